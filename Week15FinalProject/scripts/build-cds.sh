@@ -0,0 +1,59 @@
+#!/bin/sh
+# Compiles the application and builds an AppCDS archive of its classes and the JAXP
+# stack they use, so later runs map those classes from the archive instead of loading,
+# verifying and linking them from scratch.
+#
+# The archive is trained by running the main commands against a copy of customers.xml
+# and recording every class they load. It is only valid for the JDK that built it and
+# for the same JAR, so rebuild it after upgrading the JDK or changing the code.
+#
+# Usage: scripts/build-cds.sh   (from the Week15FinalProject directory or anywhere else)
+
+set -e
+
+PROJECT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+BUILD_DIR="$PROJECT_DIR/build"
+CLASSES_DIR="$BUILD_DIR/classes"
+JAR="$BUILD_DIR/customers.jar"
+ARCHIVE="$BUILD_DIR/customers.jsa"
+CLASS_LIST="$BUILD_DIR/customers.classlist"
+TRAINING_DIR="$BUILD_DIR/training"
+
+rm -rf "$CLASSES_DIR" "$TRAINING_DIR"
+mkdir -p "$CLASSES_DIR" "$TRAINING_DIR"
+javac -d "$CLASSES_DIR" "$PROJECT_DIR"/src/*.java
+
+# The JVM only archives application classes that come from JAR files
+rm -f "$JAR"
+jar --create --file "$JAR" --main-class main -C "$CLASSES_DIR" .
+
+cp "$PROJECT_DIR/customers.xml" "$PROJECT_DIR/customers.xsd" "$TRAINING_DIR"
+cd "$TRAINING_DIR"
+
+# Each training run appends the classes it loads; together they cover the command-line
+# modes that scheduled jobs use. The interactive menu is left out because it waits for
+# a user, so its DOM classes still load from the JDK as before
+train() {
+    java -XX:DumpLoadedClassList="$TRAINING_DIR/run.classlist" -cp "$JAR" main "$@" > /dev/null
+    cat "$TRAINING_DIR/run.classlist" >> "$TRAINING_DIR/all.classlist"
+}
+: > "$TRAINING_DIR/all.classlist"
+train stream-report customers.xml
+train stream-modify customers.xml stream_modified.xml
+train modify customers.xml modified.xml
+train sort name customers.xml sorted.xml
+train aggregate state,type customers.xml
+train validate customers.xml --schema customers.xsd --output valid.xml
+train lookup 1 customers.xml
+train lookup 1 customers.xml --lazy
+train search acme customers.xml
+train batch report customers.xml --output-dir batch
+
+# Keep the first occurrence of each entry; lambda proxy lines must follow their classes
+awk '!seen[$0]++' "$TRAINING_DIR/all.classlist" > "$CLASS_LIST"
+
+java -Xshare:dump -XX:SharedClassListFile="$CLASS_LIST" -XX:SharedArchiveFile="$ARCHIVE" \
+    -cp "$JAR" > "$BUILD_DIR/cds-dump.log"
+
+rm -rf "$TRAINING_DIR" "$CLASSES_DIR"
+echo "Built $ARCHIVE"
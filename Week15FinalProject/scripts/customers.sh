@@ -0,0 +1,19 @@
+#!/bin/sh
+# Runs the customer application from the JAR built by scripts/build-cds.sh, using
+# the AppCDS archive when it exists. All arguments are passed to main, e.g.
+#
+#   scripts/customers.sh lookup 42 customers.xml
+#
+# JAVA_OPTS may add JVM options such as -Dcustomers.metrics=false.
+
+PROJECT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+JAR="$PROJECT_DIR/build/customers.jar"
+ARCHIVE="$PROJECT_DIR/build/customers.jsa"
+
+# Without the archive the classes are simply loaded from the classpath and the JDK
+CDS_OPTS=""
+if [ -f "$ARCHIVE" ]; then
+    CDS_OPTS="-XX:SharedArchiveFile=$ARCHIVE -Xshare:auto"
+fi
+
+exec java $CDS_OPTS $JAVA_OPTS -cp "$JAR" main "$@"
@@ -0,0 +1,37 @@
+#!/bin/sh
+# Compiles the application and the test programs in test/ and runs every test. Each
+# *Test class is a program that prints one line per test and exits with a non-zero
+# status if any test failed; this script does the same if any program failed.
+#
+# Usage: scripts/run-tests.sh [TestClass...]   (from the Week15FinalProject directory or anywhere else)
+
+set -e
+
+PROJECT_DIR=$(cd "$(dirname "$0")/.." && pwd)
+BUILD_DIR="$PROJECT_DIR/build/test"
+CLASSES_DIR="$BUILD_DIR/classes"
+TEST_CLASSES_DIR="$BUILD_DIR/test-classes"
+
+rm -rf "$CLASSES_DIR" "$TEST_CLASSES_DIR"
+mkdir -p "$CLASSES_DIR" "$TEST_CLASSES_DIR"
+javac -encoding UTF-8 -d "$CLASSES_DIR" "$PROJECT_DIR"/src/*.java
+javac -encoding UTF-8 -cp "$CLASSES_DIR" -d "$TEST_CLASSES_DIR" "$PROJECT_DIR"/test/*.java
+
+if [ $# -eq 0 ]; then
+    set -- $(cd "$PROJECT_DIR/test" && ls *Test.java | sed 's/\.java$//')
+fi
+
+# Tests find project files such as customers.xsd relative to the project directory
+cd "$PROJECT_DIR"
+failed=""
+for test_class in "$@"; do
+    if ! java -cp "$CLASSES_DIR:$TEST_CLASSES_DIR" "$test_class"; then
+        failed="$failed $test_class"
+    fi
+done
+
+if [ -n "$failed" ]; then
+    echo "Failed:$failed"
+    exit 1
+fi
+echo "All tests passed"
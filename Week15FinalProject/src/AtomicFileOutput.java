@@ -0,0 +1,228 @@
+/**
+ * AtomicFileOutput writes a file so that it is either completely replaced or left
+ * untouched. Bytes go to a hidden temporary file in the same directory, through a large
+ * direct buffer and a {@link FileChannel}. {@link #commit()} syncs the temporary file to
+ * disk and renames it over the target in one atomic step, so a reader of the target sees
+ * the old file or the new one, never a half-written one. Closing without committing, for
+ * example after an exception, deletes the temporary file and keeps the old target.
+ *
+ * <p>Syncing a large file only at the end stalls the commit while the operating system
+ * writes out everything at once. The temporary file is therefore also synced every
+ * {@code customers.output.syncBytes} bytes (default 32 MiB, 0 to sync only on commit),
+ * which spreads the disk writes over the run. The buffer size is set with
+ * {@code customers.output.buffer} (default 1 MiB).</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class AtomicFileOutput extends OutputStream {
+
+    /** Default size of the direct write buffer. */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    /** Default number of bytes written between syncs of the temporary file. */
+    public static final long DEFAULT_SYNC_BYTES = 32L * 1024 * 1024;
+
+    /** Number of names tried before giving up on creating a temporary file. */
+    private static final int MAX_TEMP_FILE_ATTEMPTS = 16;
+
+    private final Path targetPath;
+    private final Path tempPath;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final long syncBytes;
+
+    /** Bytes written to the channel since the temporary file was last synced. */
+    private long unsyncedBytes;
+
+    private boolean committed;
+    private boolean closed;
+
+    /**
+     * Starts writing a replacement for the given file, using the buffer size and sync
+     * interval set by the system properties.
+     *
+     * @param targetPath The file to replace on commit.
+     * @throws IOException If the temporary file cannot be created.
+     */
+    public AtomicFileOutput(String targetPath) throws IOException {
+        this(targetPath, Integer.getInteger("customers.output.buffer", DEFAULT_BUFFER_SIZE),
+                Long.getLong("customers.output.syncBytes", DEFAULT_SYNC_BYTES));
+    }
+
+    /**
+     * Starts writing a replacement for the given file.
+     *
+     * @param targetPath The file to replace on commit.
+     * @param bufferSize The size of the direct write buffer in bytes.
+     * @param syncBytes The number of bytes written between syncs, or 0 to sync only on commit.
+     * @throws IOException If the temporary file cannot be created.
+     * @throws IllegalArgumentException If the buffer size is not positive or the sync
+     *         interval is negative.
+     */
+    public AtomicFileOutput(String targetPath, int bufferSize, long syncBytes) throws IOException {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        if (syncBytes < 0) {
+            throw new IllegalArgumentException("Sync interval must not be negative: " + syncBytes);
+        }
+        this.targetPath = Paths.get(targetPath).toAbsolutePath();
+        this.buffer = ByteBuffer.allocateDirect(bufferSize);
+        this.syncBytes = syncBytes;
+
+        // Create the temporary file next to the target so the rename stays on one file system
+        this.tempPath = createTempFile(this.targetPath);
+        this.channel = FileChannel.open(tempPath, StandardOpenOption.WRITE);
+    }
+
+    private static Path createTempFile(Path targetPath) throws IOException {
+        String tempPrefix = "." + targetPath.getFileName() + ".";
+        for (int attempt = 1; ; attempt++) {
+            Path candidate = targetPath.resolveSibling(
+                    tempPrefix + Long.toHexString(ThreadLocalRandom.current().nextLong()) + ".tmp");
+            try {
+                return Files.createFile(candidate);
+            } catch (FileAlreadyExistsException e) {
+                if (attempt == MAX_TEMP_FILE_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            drainBuffer();
+        }
+        buffer.put((byte) b);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+        ensureOpen();
+        while (length > 0) {
+            if (!buffer.hasRemaining()) {
+                drainBuffer();
+            }
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.put(bytes, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Writes the buffered bytes to the temporary file. They become visible under the
+     * target name only on {@link #commit()}. Does nothing once the output is closed.
+     *
+     * @throws IOException If the bytes cannot be written.
+     */
+    @Override
+    public void flush() throws IOException {
+        if (!closed) {
+            drainBuffer();
+        }
+    }
+
+    /**
+     * Writes any buffered bytes, syncs the temporary file and atomically renames it over
+     * the target. Does nothing if already committed.
+     *
+     * @throws IOException If the file cannot be written, synced or renamed; the target
+     *         is then left as it was.
+     */
+    public void commit() throws IOException {
+        if (committed) {
+            return;
+        }
+        ensureOpen();
+        try {
+            drainBuffer();
+            channel.force(true);
+            channel.close();
+            Files.move(tempPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            committed = true;
+            closed = true;
+        } finally {
+            if (!committed) {
+                close();
+            }
+        }
+        syncDirectory();
+    }
+
+    /**
+     * Tells whether the output has been committed.
+     *
+     * @return {@code true} once the target has been replaced.
+     */
+    public boolean isCommitted() {
+        return committed;
+    }
+
+    /**
+     * Discards the output unless it has been committed: the temporary file is deleted
+     * and the target is left as it was.
+     *
+     * @throws IOException If the temporary file cannot be closed or deleted.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            channel.close();
+        } finally {
+            Files.deleteIfExists(tempPath);
+        }
+    }
+
+    private void drainBuffer() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            unsyncedBytes += channel.write(buffer);
+        }
+        buffer.clear();
+
+        if (syncBytes > 0 && unsyncedBytes >= syncBytes) {
+            channel.force(false);
+            unsyncedBytes = 0;
+        }
+    }
+
+    /**
+     * Syncs the target's directory so that the rename itself survives a crash. Not every
+     * platform can open a directory; there the rename is left to the file system.
+     */
+    private void syncDirectory() {
+        try (FileChannel directory = FileChannel.open(targetPath.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // Directories cannot be synced on this platform
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException((committed ? "Output already committed: " : "Output closed: ") + targetPath);
+        }
+    }
+}
@@ -0,0 +1,409 @@
+/**
+ * CustomerAggregator computes customer statistics, such as the number of Commercial and
+ * Residential customers per state, in a single streaming pass over a customers XML file.
+ * No DOM tree is built.
+ *
+ * <p>Customers can be grouped by any combination of type, state, city and ZIP code
+ * prefix. For every group the aggregator reports the number of customers and,
+ * optionally, the number of distinct values of another column (for example the number
+ * of distinct cities per state).</p>
+ *
+ * <p>The calling thread parses the file and hands batches of customers to a pool of
+ * workers. Each worker builds its own partial aggregate: group keys and distinct values
+ * are encoded to {@code int} IDs by primitive {@link StringDictionary}s, counts are kept
+ * in a {@code long[]} indexed by group ID, and distinct (group, value) pairs are packed
+ * into a primitive {@link LongHashSet}, so adding a record boxes nothing. The partial aggregates are merged once the whole file is read.
+ * If a worker fails, the parsing thread notices while handing off its next batch and
+ * stops reading, so a full queue never blocks it.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.xml.stream.XMLStreamException;
+
+public class CustomerAggregator {
+
+    /** Number of customers handed to a worker at a time. */
+    private static final int BATCH_SIZE = 1024;
+
+    /** Separates the values of multiple group-by columns inside a group key. */
+    private static final char KEY_SEPARATOR = '\u001F';
+
+    /** How long a hand-off waits for queue space before checking the workers again. */
+    private static final long HAND_OFF_WAIT_MILLIS = 50;
+
+    /** Sent to a worker to tell it no more batches will follow. */
+    private static final List<CustomerRecord> END_OF_INPUT = new ArrayList<>();
+
+    /**
+     * The customer fields that can be grouped on or counted distinctly.
+     */
+    public enum Field {
+        TYPE, STATE, CITY, ZIP_PREFIX
+    }
+
+    /**
+     * A column of the aggregation: a customer field and, for ZIP code prefixes, the
+     * number of leading digits used.
+     */
+    public static final class Column {
+        private final Field field;
+        private final int zipPrefixLength;
+
+        /**
+         * Creates a column over the given field.
+         *
+         * @param field The customer field.
+         * @param zipPrefixLength The number of leading ZIP code digits; ignored for other fields.
+         */
+        public Column(Field field, int zipPrefixLength) {
+            this.field = field;
+            this.zipPrefixLength = zipPrefixLength;
+        }
+
+        /**
+         * Parses a column name: "type", "state", "city", "zip" (full ZIP code) or "zipN"
+         * (first N digits of the ZIP code).
+         *
+         * @param strName The column name.
+         * @return The parsed column.
+         * @throws IllegalArgumentException If the name is not a known column.
+         */
+        public static Column parse(String strName) {
+            String strLowerName = strName.trim().toLowerCase();
+            switch (strLowerName) {
+                case "type":
+                    return new Column(Field.TYPE, 0);
+                case "state":
+                    return new Column(Field.STATE, 0);
+                case "city":
+                    return new Column(Field.CITY, 0);
+                case "zip":
+                    return new Column(Field.ZIP_PREFIX, Integer.MAX_VALUE);
+                default:
+                    if (strLowerName.startsWith("zip")) {
+                        try {
+                            int prefixLength = Integer.parseInt(strLowerName.substring(3));
+                            if (prefixLength > 0) {
+                                return new Column(Field.ZIP_PREFIX, prefixLength);
+                            }
+                        } catch (NumberFormatException e) {
+                            // Falls through to the error below
+                        }
+                    }
+                    throw new IllegalArgumentException("Unknown column: " + strName
+                            + " (expected type, state, city, zip or zipN)");
+            }
+        }
+
+        /**
+         * Extracts this column's value from a customer.
+         *
+         * @param customer The customer.
+         * @return The column value, never {@code null}.
+         */
+        String valueOf(CustomerRecord customer) {
+            String value;
+            switch (field) {
+                case TYPE:
+                    value = customer.getType();
+                    break;
+                case STATE:
+                    value = customer.getState();
+                    break;
+                case CITY:
+                    value = customer.getCity();
+                    break;
+                default:
+                    value = customer.getZipcode();
+                    if (value != null && value.length() > zipPrefixLength) {
+                        value = value.substring(0, zipPrefixLength);
+                    }
+                    break;
+            }
+            return value == null ? "" : value;
+        }
+
+        @Override
+        public String toString() {
+            if (field != Field.ZIP_PREFIX) {
+                return field.name().toLowerCase();
+            }
+            return zipPrefixLength == Integer.MAX_VALUE ? "zip" : "zip" + zipPrefixLength;
+        }
+    }
+
+    /**
+     * One row of the aggregation result.
+     */
+    public static final class Row {
+        private final String[] groupValues;
+        private final long count;
+        private final long distinctCount;
+
+        Row(String[] groupValues, long count, long distinctCount) {
+            this.groupValues = groupValues;
+            this.count = count;
+            this.distinctCount = distinctCount;
+        }
+
+        /**
+         * Gets the values of the group-by columns for this group.
+         *
+         * @return The group values, in group-by column order.
+         */
+        public String[] getGroupValues() {
+            return groupValues.clone();
+        }
+
+        /**
+         * Gets the number of customers in this group.
+         *
+         * @return The customer count.
+         */
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * Gets the number of distinct values of the distinct column in this group.
+         *
+         * @return The distinct count, or 0 when no distinct column was requested.
+         */
+        public long getDistinctCount() {
+            return distinctCount;
+        }
+    }
+
+    /** The columns customers are grouped by. */
+    private final List<Column> groupByColumns;
+
+    /** The column whose distinct values are counted, or {@code null}. */
+    private final Column distinctColumn;
+
+    /** The number of worker threads building partial aggregates. */
+    private final int workerCount;
+
+    /**
+     * Creates an aggregator.
+     *
+     * @param groupByColumns The columns customers are grouped by; at least one.
+     * @param distinctColumn The column whose distinct values are counted per group, or
+     *                       {@code null} to count customers only.
+     * @param workerCount The number of worker threads; at least one.
+     * @throws IllegalArgumentException If no group-by column or worker is given.
+     */
+    public CustomerAggregator(List<Column> groupByColumns, Column distinctColumn, int workerCount) {
+        if (groupByColumns.isEmpty()) {
+            throw new IllegalArgumentException("At least one group-by column is required.");
+        }
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+        }
+        this.groupByColumns = new ArrayList<>(groupByColumns);
+        this.distinctColumn = distinctColumn;
+        this.workerCount = workerCount;
+    }
+
+    /**
+     * Aggregates the customers in the given file.
+     *
+     * @param inputPath The customers XML file.
+     * @return The result rows, ordered by group values.
+     * @throws IOException If the file cannot be read.
+     * @throws XMLStreamException If the file is malformed.
+     * @throws InterruptedException If the calling thread is interrupted while waiting for workers.
+     */
+    public List<Row> aggregate(String inputPath) throws IOException, XMLStreamException, InterruptedException {
+        ExecutorService workers = Executors.newFixedThreadPool(workerCount);
+        BlockingQueue<List<CustomerRecord>> batchQueue = new ArrayBlockingQueue<>(workerCount * 2);
+        List<Future<PartialAggregate>> partialResults = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < workerCount; i++) {
+                partialResults.add(workers.submit(() -> {
+                    PartialAggregate partial = new PartialAggregate();
+                    List<CustomerRecord> batch;
+                    while ((batch = batchQueue.take()) != END_OF_INPUT) {
+                        for (CustomerRecord customer : batch) {
+                            partial.add(customer);
+                        }
+                    }
+                    return partial;
+                }));
+            }
+
+            try (CustomerStreamReader reader = new CustomerStreamReader(inputPath)) {
+                List<CustomerRecord> batch = new ArrayList<>(BATCH_SIZE);
+                CustomerRecord customer;
+                while ((customer = reader.nextRecord()) != null) {
+                    batch.add(customer);
+                    if (batch.size() == BATCH_SIZE) {
+                        handOff(batchQueue, batch, partialResults);
+                        batch = new ArrayList<>(BATCH_SIZE);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    handOff(batchQueue, batch, partialResults);
+                }
+            }
+
+            // Workers stop on their own once every batch has been handed out. If reading
+            // failed, shutting the pool down below interrupts them instead
+            for (int i = 0; i < workerCount; i++) {
+                handOff(batchQueue, END_OF_INPUT, partialResults);
+            }
+
+            PartialAggregate total = new PartialAggregate();
+            for (Future<PartialAggregate> partialResult : partialResults) {
+                total.mergeFrom(partialResult.get());
+            }
+            return total.toRows();
+
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Error aggregating customers: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Puts a batch on the worker queue, waiting for space as long as the workers are
+     * running. A worker only finishes before it has been sent {@link #END_OF_INPUT} by
+     * failing, so while the queue is full the workers are checked for failures.
+     *
+     * @param batchQueue The worker queue.
+     * @param batch The batch to hand off.
+     * @param partialResults The workers' results.
+     * @throws ExecutionException If a worker has failed.
+     * @throws InterruptedException If the calling thread is interrupted while waiting.
+     */
+    private static void handOff(BlockingQueue<List<CustomerRecord>> batchQueue, List<CustomerRecord> batch,
+            List<Future<PartialAggregate>> partialResults) throws ExecutionException, InterruptedException {
+        while (!batchQueue.offer(batch, HAND_OFF_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+            for (Future<PartialAggregate> partialResult : partialResults) {
+                if (partialResult.isDone()) {
+                    // Throws the worker's failure
+                    partialResult.get();
+                }
+            }
+        }
+    }
+
+    /**
+     * Prints aggregation result rows as a table.
+     *
+     * @param rows The rows returned by {@link #aggregate(String)}.
+     * @param output The stream the table is printed to.
+     */
+    public void printRows(List<Row> rows, PrintStream output) {
+        StringBuilder header = new StringBuilder();
+        for (Column column : groupByColumns) {
+            header.append(String.format("%-20s", column));
+        }
+        header.append(String.format("%10s", "count"));
+        if (distinctColumn != null) {
+            header.append(String.format("%16s", "distinct " + distinctColumn));
+        }
+        output.println(header);
+
+        for (Row row : rows) {
+            StringBuilder line = new StringBuilder();
+            for (String groupValue : row.groupValues) {
+                line.append(String.format("%-20s", groupValue));
+            }
+            line.append(String.format("%10d", row.count));
+            if (distinctColumn != null) {
+                line.append(String.format("%16d", row.distinctCount));
+            }
+            output.println(line);
+        }
+    }
+
+    /**
+     * A dictionary-encoded partial aggregate built by a single thread.
+     */
+    private final class PartialAggregate {
+        private final StringDictionary groupKeys = new StringDictionary(64);
+        private long[] groupCounts = new long[64];
+
+        private final StringDictionary distinctValues = new StringDictionary();
+        private final LongHashSet groupValuePairs = new LongHashSet();
+
+        void add(CustomerRecord customer) {
+            int groupID = groupID(groupKeyOf(customer));
+            groupCounts[groupID]++;
+
+            if (distinctColumn != null) {
+                groupValuePairs.add(pack(groupID, distinctValues.encode(distinctColumn.valueOf(customer))));
+            }
+        }
+
+        void mergeFrom(PartialAggregate other) {
+            int[] groupIDMapping = new int[other.groupKeys.size()];
+            for (int i = 0; i < groupIDMapping.length; i++) {
+                groupIDMapping[i] = groupID(other.groupKeys.decode(i));
+                groupCounts[groupIDMapping[i]] += other.groupCounts[i];
+            }
+
+            other.groupValuePairs.forEach(pair -> {
+                int groupID = groupIDMapping[(int) (pair >>> 32)];
+                int valueID = distinctValues.encode(other.distinctValues.decode((int) pair));
+                groupValuePairs.add(pack(groupID, valueID));
+            });
+        }
+
+        List<Row> toRows() {
+            long[] distinctCounts = new long[groupKeys.size()];
+            groupValuePairs.forEach(pair -> distinctCounts[(int) (pair >>> 32)]++);
+
+            List<Row> rows = new ArrayList<>(groupKeys.size());
+            for (int i = 0; i < groupKeys.size(); i++) {
+                String[] groupValues = groupKeys.decode(i).split(String.valueOf(KEY_SEPARATOR), -1);
+                rows.add(new Row(groupValues, groupCounts[i], distinctCounts[i]));
+            }
+            rows.sort((left, right) -> Arrays.compare(left.groupValues, right.groupValues));
+            return rows;
+        }
+
+        private String groupKeyOf(CustomerRecord customer) {
+            if (groupByColumns.size() == 1) {
+                return groupByColumns.get(0).valueOf(customer);
+            }
+            StringBuilder key = new StringBuilder();
+            for (int i = 0; i < groupByColumns.size(); i++) {
+                if (i > 0) {
+                    key.append(KEY_SEPARATOR);
+                }
+                key.append(groupByColumns.get(i).valueOf(customer));
+            }
+            return key.toString();
+        }
+
+        private int groupID(String groupKey) {
+            int groupID = groupKeys.encode(groupKey);
+            if (groupID == groupCounts.length) {
+                groupCounts = Arrays.copyOf(groupCounts, groupCounts.length * 2);
+            }
+            return groupID;
+        }
+
+        private long pack(int groupID, int valueID) {
+            return ((long) groupID << 32) | (valueID & 0xFFFFFFFFL);
+        }
+    }
+}
@@ -0,0 +1,478 @@
+/**
+ * CustomerBatchProcessor modifies or reports on many customers XML files in one run,
+ * for example the per-region files of a nightly job. Each file is streamed on its own
+ * through {@link CustomerStreamReader} and, when modifying, {@link CustomerStreamWriter},
+ * and gets its own output file next to it or in an output directory:
+ * {@code <name>_modified.xml} for modify and {@code <name>_report.txt} for report.
+ *
+ * <p>Files are processed in parallel on a {@link ForkJoinPool} sized to the available
+ * cores. The file list is split in halves recursively, so a worker that finishes its own
+ * files early steals half of another worker's remaining files instead of sitting idle.
+ * The largest files are scheduled first, so one big file does not start last and hold
+ * up the end of the run. Each file is handled by a single thread; parallelism comes from
+ * running many files at once, so a batch of one file is no faster than the
+ * {@code modify} command.</p>
+ *
+ * <p>A file that fails is reported and its output left untouched, since outputs are
+ * written atomically; the other files are still processed. {@link #printSummary} prints
+ * the result of every file and the totals.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.xml.stream.XMLStreamException;
+
+public class CustomerBatchProcessor {
+
+    /**
+     * What is done with each file.
+     */
+    public enum Mode {
+        /** Adds the predefined modified customer data and writes {@code <name>_modified.xml}. */
+        MODIFY("_modified.xml"),
+        /** Writes the customer report to {@code <name>_report.txt}. */
+        REPORT("_report.txt");
+
+        private final String strOutputSuffix;
+
+        Mode(String strOutputSuffix) {
+            this.strOutputSuffix = strOutputSuffix;
+        }
+
+        /**
+         * Gets the suffix that replaces ".xml" in the names of output files.
+         *
+         * @return The output suffix.
+         */
+        public String getOutputSuffix() {
+            return strOutputSuffix;
+        }
+
+        /**
+         * Parses a mode name as given on the command line.
+         *
+         * @param strName "modify" or "report", in any case.
+         * @return The mode.
+         * @throws IllegalArgumentException If the name is not a mode.
+         */
+        public static Mode parse(String strName) {
+            for (Mode mode : values()) {
+                if (mode.name().equalsIgnoreCase(strName)) {
+                    return mode;
+                }
+            }
+            throw new IllegalArgumentException("Unknown batch mode: " + strName);
+        }
+    }
+
+    /** Number of records read from a file per bulk decode. */
+    private static final int BATCH_SIZE = 512;
+
+    private final Mode mode;
+    private final Path outputDirectory;
+    private final int parallelism;
+    private final CModifiedCustomerData[] modifiedCustomerDataArray;
+
+    /**
+     * The outcome of processing one file.
+     */
+    public static final class FileResult {
+        private final Path inputPath;
+        private final Path outputPath;
+        private final long recordCount;
+        private final long byteCount;
+        private final long elapsedNanos;
+        private final Exception error;
+
+        FileResult(Path inputPath, Path outputPath, long recordCount, long byteCount, long elapsedNanos,
+                Exception error) {
+            this.inputPath = inputPath;
+            this.outputPath = outputPath;
+            this.recordCount = recordCount;
+            this.byteCount = byteCount;
+            this.elapsedNanos = elapsedNanos;
+            this.error = error;
+        }
+
+        /**
+         * Gets the customers XML file that was processed.
+         *
+         * @return The input path.
+         */
+        public Path getInputPath() {
+            return inputPath;
+        }
+
+        /**
+         * Gets the output file, which exists only if the file was processed.
+         *
+         * @return The output path.
+         */
+        public Path getOutputPath() {
+            return outputPath;
+        }
+
+        /**
+         * Gets the number of customers processed; 0 if the file failed.
+         *
+         * @return The record count.
+         */
+        public long getRecordCount() {
+            return recordCount;
+        }
+
+        /**
+         * Gets the size of the input file.
+         *
+         * @return The size in bytes.
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        /**
+         * Gets how long the file took, including a failed attempt.
+         *
+         * @return The elapsed time in nanoseconds.
+         */
+        public long getElapsedNanos() {
+            return elapsedNanos;
+        }
+
+        /**
+         * Gets the failure of the file.
+         *
+         * @return The exception, or {@code null} if the file was processed.
+         */
+        public Exception getError() {
+            return error;
+        }
+
+        /**
+         * Tells whether the file was processed.
+         *
+         * @return {@code true} if there was no error.
+         */
+        public boolean isSuccessful() {
+            return error == null;
+        }
+    }
+
+    /**
+     * Creates a processor.
+     *
+     * @param mode What to do with each file.
+     * @param outputDirectory The directory output files are written to, or {@code null}
+     *        to write each next to its input file.
+     * @param parallelism The number of files processed at once; at least one.
+     * @throws IllegalArgumentException If the parallelism is less than one.
+     */
+    public CustomerBatchProcessor(Mode mode, String outputDirectory, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Thread count must be positive: " + parallelism);
+        }
+        this.mode = mode;
+        this.outputDirectory = outputDirectory == null ? null : Paths.get(outputDirectory);
+        this.parallelism = parallelism;
+        this.modifiedCustomerDataArray = ModifyCustomers.getModifiedCustomerData();
+    }
+
+    /**
+     * Finds the input files named by command-line arguments. An argument may be a file,
+     * a directory (all of its ".xml" files except earlier batch outputs) or a glob such as
+     * {@code regions/*.xml} or {@code "data/**&#47;customers-*.xml"}. Globs are usually
+     * expanded by the shell already; quoting them lets this method expand them instead,
+     * which avoids command-line length limits with many files.
+     *
+     * @param patterns The files, directories or globs.
+     * @return The matching files without duplicates, in name order per argument.
+     * @throws IOException If a directory cannot be listed.
+     * @throws IllegalArgumentException If an argument that is not a glob does not exist.
+     */
+    public static List<Path> resolveInputs(List<String> patterns) throws IOException {
+        Set<Path> inputs = new LinkedHashSet<>();
+        for (String pattern : patterns) {
+            int globStart = firstGlobCharacter(pattern);
+            if (globStart < 0) {
+                Path path = Paths.get(pattern);
+                if (Files.isDirectory(path)) {
+                    inputs.addAll(listDirectory(path));
+                } else if (Files.isRegularFile(path)) {
+                    inputs.add(path);
+                } else {
+                    throw new IllegalArgumentException("No such file or directory: " + pattern);
+                }
+            } else {
+                inputs.addAll(expandGlob(pattern, globStart));
+            }
+        }
+        return new ArrayList<>(inputs);
+    }
+
+    /**
+     * Processes the given files, largest first, and waits until all are done.
+     *
+     * @param inputs The customers XML files.
+     * @return The result of every file, in the order of {@code inputs}.
+     * @throws IllegalArgumentException If two files would write the same output file,
+     *         e.g. files of the same name from different directories with one output
+     *         directory.
+     */
+    public List<FileResult> process(List<Path> inputs) {
+        Map<Path, Path> inputsByOutput = new HashMap<>();
+        for (Path inputPath : inputs) {
+            Path previous = inputsByOutput.put(outputPathFor(inputPath).toAbsolutePath().normalize(), inputPath);
+            if (previous != null) {
+                throw new IllegalArgumentException("Files " + previous + " and " + inputPath
+                        + " would both be written to " + outputPathFor(inputPath));
+            }
+        }
+
+        FileResult[] results = new FileResult[inputs.size()];
+        Integer[] order = new Integer[inputs.size()];
+        long[] sizes = new long[inputs.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+            sizes[i] = sizeOf(inputs.get(i));
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> sizes[i]).reversed());
+
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new FileRangeTask(this, inputs, order, 0, order.length, results));
+        } finally {
+            pool.shutdown();
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Processes a contiguous range of the scheduled files, splitting it in halves that
+     * idle workers can steal until a single file remains.
+     */
+    @SuppressWarnings("serial")
+    private static final class FileRangeTask extends RecursiveAction {
+        private final CustomerBatchProcessor processor;
+        private final List<Path> inputs;
+        private final Integer[] order;
+        private final int from;
+        private final int to;
+        private final FileResult[] results;
+
+        FileRangeTask(CustomerBatchProcessor processor, List<Path> inputs, Integer[] order, int from, int to,
+                FileResult[] results) {
+            this.processor = processor;
+            this.inputs = inputs;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.results = results;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                int index = order[from];
+                results[index] = processor.processFile(inputs.get(index));
+            } else if (to > from) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new FileRangeTask(processor, inputs, order, from, middle, results),
+                        new FileRangeTask(processor, inputs, order, middle, to, results));
+            }
+        }
+    }
+
+    /**
+     * Processes one file, catching its failure so the other files carry on.
+     *
+     * @param inputPath The customers XML file.
+     * @return The outcome.
+     */
+    private FileResult processFile(Path inputPath) {
+        Path outputPath = outputPathFor(inputPath);
+        long byteCount = sizeOf(inputPath);
+        long start = System.nanoTime();
+        try {
+            long recordCount = mode == Mode.MODIFY ? modifyFile(inputPath, outputPath) : reportFile(inputPath, outputPath);
+            return new FileResult(inputPath, outputPath, recordCount, byteCount, System.nanoTime() - start, null);
+        } catch (Exception e) {
+            System.err.println("Error processing " + inputPath + ": " + e.getMessage());
+            CustomerMetrics.get().recordError();
+            return new FileResult(inputPath, outputPath, 0, byteCount, System.nanoTime() - start, e);
+        }
+    }
+
+    private long modifyFile(Path inputPath, Path outputPath) throws IOException, XMLStreamException {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        CustomerRecord[] customers = new CustomerRecord[BATCH_SIZE];
+        CustomerRecord[] modifiedCustomers = new CustomerRecord[BATCH_SIZE];
+        long recordCount = 0;
+
+        try (CustomerStreamReader reader = new CustomerStreamReader(inputPath.toString());
+                CustomerStreamWriter writer = new CustomerStreamWriter(outputPath.toString())) {
+            int count;
+            while ((count = reader.nextRecords(customers)) > 0) {
+                long modifyStart = System.nanoTime();
+                CustomerRecord[] batch = count == customers.length ? customers : Arrays.copyOf(customers, count);
+                CustomerRecord.patchAll(batch, recordCount, modifiedCustomerDataArray, modifiedCustomers);
+                metrics.recordStage(CustomerMetrics.Stage.MODIFY, System.nanoTime() - modifyStart);
+                metrics.addRecordsModified(count);
+
+                for (int i = 0; i < count; i++) {
+                    writer.write(modifiedCustomers[i]);
+                }
+                recordCount += count;
+            }
+            writer.finish();
+        }
+        return recordCount;
+    }
+
+    private long reportFile(Path inputPath, Path outputPath) throws IOException, XMLStreamException {
+        CustomerRecord[] customers = new CustomerRecord[BATCH_SIZE];
+        long recordCount = 0;
+
+        try (CustomerStreamReader reader = new CustomerStreamReader(inputPath.toString());
+                AtomicFileOutput fileOutput = new AtomicFileOutput(outputPath.toString());
+                PrintStream report = new PrintStream(fileOutput, false, StandardCharsets.UTF_8)) {
+            int count;
+            while ((count = reader.nextRecords(customers)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    ViewCustomers.printCustomer(customers[i], report);
+                }
+                recordCount += count;
+            }
+            report.flush();
+            if (report.checkError()) {
+                throw new IOException("Error writing report " + outputPath);
+            }
+            fileOutput.commit();
+        }
+        return recordCount;
+    }
+
+    /**
+     * Prints the outcome of every file followed by the totals.
+     *
+     * @param results The results returned by {@link #process(List)}.
+     * @param wallNanos The elapsed time of the whole batch.
+     * @param out The stream to print to.
+     */
+    public static void printSummary(List<FileResult> results, long wallNanos, PrintStream out) {
+        long totalRecords = 0;
+        long totalBytes = 0;
+        long busyNanos = 0;
+        int failedCount = 0;
+
+        out.printf("%-40s %10s %10s %10s  %s%n", "file", "customers", "KB", "ms", "output");
+        for (FileResult result : results) {
+            busyNanos += result.getElapsedNanos();
+            if (result.isSuccessful()) {
+                totalRecords += result.getRecordCount();
+                totalBytes += result.getByteCount();
+                out.printf("%-40s %10d %10.1f %10.1f  %s%n", result.getInputPath(), result.getRecordCount(),
+                        result.getByteCount() / 1024.0, result.getElapsedNanos() / 1e6, result.getOutputPath());
+            } else {
+                failedCount++;
+                out.printf("%-40s %10s %10.1f %10.1f  FAILED: %s%n", result.getInputPath(), "-",
+                        result.getByteCount() / 1024.0, result.getElapsedNanos() / 1e6,
+                        String.valueOf(result.getError().getMessage()).replaceAll("\\s*\\R\\s*", " "));
+            }
+        }
+
+        double wallSeconds = wallNanos / 1e9;
+        out.printf("%nFiles: %d processed, %d failed%n", results.size() - failedCount, failedCount);
+        out.printf("Customers: %d (%.0f per second)%n", totalRecords, wallSeconds > 0 ? totalRecords / wallSeconds : 0);
+        out.printf("Input: %.1f MB (%.1f MB/s)%n", totalBytes / 1e6, wallSeconds > 0 ? totalBytes / 1e6 / wallSeconds : 0);
+        out.printf("Time: %.1f ms elapsed, %.1f ms of file processing (%.1fx parallel)%n", wallNanos / 1e6,
+                busyNanos / 1e6, wallNanos > 0 ? (double) busyNanos / wallNanos : 0);
+    }
+
+    private Path outputPathFor(Path inputPath) {
+        String strFileName = inputPath.getFileName().toString();
+        String strBaseName = strFileName.toLowerCase().endsWith(".xml")
+                ? strFileName.substring(0, strFileName.length() - 4) : strFileName;
+        Path directory = outputDirectory != null ? outputDirectory : inputPath.toAbsolutePath().getParent();
+        return directory.resolve(strBaseName + mode.getOutputSuffix());
+    }
+
+    /**
+     * Lists the ".xml" files of a directory, leaving out files written by earlier
+     * modify runs so that rerunning a batch does not modify its own output.
+     */
+    private static List<Path> listDirectory(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> {
+                        String strFileName = path.getFileName().toString().toLowerCase();
+                        return strFileName.endsWith(".xml") && !strFileName.endsWith(Mode.MODIFY.getOutputSuffix());
+                    })
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Expands a glob. The directories before the first glob character are the base the
+     * search starts from; the rest is matched against paths relative to it, searching
+     * subdirectories only if the rest contains a separator.
+     */
+    private static List<Path> expandGlob(String pattern, int globStart) throws IOException {
+        String strNormalized = pattern.replace('\\', '/');
+        int baseEnd = strNormalized.lastIndexOf('/', globStart);
+        Path baseDirectory = Paths.get(baseEnd < 0 ? "." : strNormalized.substring(0, baseEnd + 1));
+        String strRelativeGlob = strNormalized.substring(baseEnd + 1);
+        if (!Files.isDirectory(baseDirectory)) {
+            return new ArrayList<>();
+        }
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + strRelativeGlob);
+        int maxDepth = strRelativeGlob.contains("/") ? Integer.MAX_VALUE : 1;
+        try (Stream<Path> paths = Files.walk(baseDirectory, maxDepth)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(baseDirectory.relativize(path)))
+                    .map(path -> baseEnd < 0 ? baseDirectory.relativize(path) : path)
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private static int firstGlobCharacter(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("*?[{".indexOf(pattern.charAt(i)) >= 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+/**
+ * CustomerEvents holds the Java Flight Recorder events emitted by the customer pipeline.
+ * Each stage (opening a file, parsing it, decoding a batch of records, applying
+ * modifications and serializing output) has its own typed event carrying record counts
+ * and byte sizes, so slow runs in a continuous recording can be tied to input size
+ * instead of showing up only as anonymous XML parser frames.
+ *
+ * <p>Events are only committed when the recording has them enabled and they pass its
+ * threshold, so the cost of an unused event is a couple of field writes. Loading the
+ * first event class is not cheap, though: the JVM instruments it on the spot, which
+ * takes a few hundred milliseconds even when nothing is recorded and would dominate a
+ * short run. Callers therefore create events only while Flight Recorder is running:</p>
+ *
+ * <pre>
+ * CustomerEvents.Parse event = CustomerEvents.isRecording() ? new CustomerEvents.Parse() : null;
+ * if (event != null) {
+ *     event.begin();
+ * }
+ * ... parse ...
+ * if (event != null) {
+ *     event.end();
+ *     if (event.shouldCommit()) {
+ *         event.filePath = filePath;
+ *         event.recordCount = count;
+ *         event.commit();
+ *     }
+ * }
+ * </pre>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+public final class CustomerEvents {
+
+    private CustomerEvents() {
+    }
+
+    /**
+     * Tells whether Flight Recorder has been started in this JVM, either on the command
+     * line or later through {@code jcmd}. Checking does not load any event class.
+     *
+     * @return {@code true} if events should be created.
+     */
+    public static boolean isRecording() {
+        return FlightRecorder.isInitialized();
+    }
+
+    /**
+     * Opening a customers file for reading.
+     */
+    @Name("customerlist.FileOpen")
+    @Label("Customer File Open")
+    @Category({ "Customer List", "I/O" })
+    @Description("Opening a customers XML file for reading")
+    public static final class FileOpen extends Event {
+        @Label("File Path")
+        public String filePath;
+
+        @Label("File Size")
+        @DataAmount
+        public long fileSize;
+    }
+
+    /**
+     * Parsing a whole customers document, either into a DOM tree or as a stream.
+     */
+    @Name("customerlist.Parse")
+    @Label("Customer Parse")
+    @Category({ "Customer List", "Read" })
+    @Description("Parsing a customers XML document")
+    public static final class Parse extends Event {
+        @Label("File Path")
+        public String filePath;
+
+        @Label("Records")
+        public long recordCount;
+
+        @Label("Bytes Read")
+        @DataAmount
+        public long byteCount;
+    }
+
+    /**
+     * Decoding one batch of customer records from a streaming reader.
+     */
+    @Name("customerlist.BatchDecode")
+    @Label("Customer Batch Decode")
+    @Category({ "Customer List", "Read" })
+    @Description("Decoding a batch of customer records from a stream")
+    public static final class BatchDecode extends Event {
+        @Label("Records")
+        public long recordCount;
+
+        @Label("Bytes Read")
+        @DataAmount
+        public long byteCount;
+    }
+
+    /**
+     * Applying modified customer data to a set of customers.
+     */
+    @Name("customerlist.ModifyApply")
+    @Label("Customer Modify Apply")
+    @Category({ "Customer List", "Modify" })
+    @Description("Applying modified data to customer records")
+    public static final class ModifyApply extends Event {
+        @Label("Records")
+        public long recordCount;
+    }
+
+    /**
+     * Serializing customers to an output file.
+     */
+    @Name("customerlist.Serialize")
+    @Label("Customer Serialize")
+    @Category({ "Customer List", "Write" })
+    @Description("Serializing customer records to an XML file")
+    public static final class Serialize extends Event {
+        @Label("File Path")
+        public String filePath;
+
+        @Label("Records")
+        public long recordCount;
+
+        @Label("Bytes Written")
+        @DataAmount
+        public long byteCount;
+    }
+}
@@ -0,0 +1,300 @@
+/**
+ * CustomerFlowProcessor is the base of the processing stages placed between a
+ * {@link CustomerPublisher} and a subscriber: filtering, mapping (including adding the
+ * contact data of {@link CModifiedCustomerData} to records) and batching. Stages are created with the
+ * static factory methods and chained with {@code subscribe}:
+ *
+ * <pre>
+ * publisher.subscribe(patchStage);
+ * patchStage.subscribe(batchStage);
+ * batchStage.subscribe(xmlSubscriber);
+ * </pre>
+ *
+ * <p>Items are relayed on the thread that delivers them, and every stage passes demand
+ * upstream in proportion to what its subscriber requested, so the sink at the end of
+ * the chain decides how fast the file is parsed.</p>
+ *
+ * @param <T> The type of items received from upstream.
+ * @param <R> The type of items sent downstream.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+public abstract class CustomerFlowProcessor<T, R> implements Flow.Processor<T, R>, Flow.Subscription {
+
+    private volatile Flow.Subscription upstream;
+    private volatile Flow.Subscriber<? super R> downstream;
+
+    /** Set once the downstream subscriber has been given its subscription. */
+    private boolean connected;
+
+    /** A terminal signal that arrived before the downstream subscriber was connected. */
+    private Throwable pendingError;
+    private boolean pendingComplete;
+
+    /**
+     * Creates a stage that passes on only the items matching a predicate.
+     *
+     * @param predicate Selects the items to keep.
+     * @param <T> The item type.
+     * @return The filtering stage.
+     */
+    public static <T> CustomerFlowProcessor<T, T> filter(Predicate<? super T> predicate) {
+        return new CustomerFlowProcessor<T, T>() {
+            @Override
+            protected void handle(T item) {
+                if (predicate.test(item)) {
+                    emit(item);
+                } else {
+                    // Replace the demand the dropped item used up
+                    requestUpstream(1);
+                }
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that transforms every item.
+     *
+     * @param mapper The transformation applied to each item.
+     * @param <T> The input item type.
+     * @param <R> The output item type.
+     * @return The mapping stage.
+     */
+    public static <T, R> CustomerFlowProcessor<T, R> map(Function<? super T, ? extends R> mapper) {
+        return new CustomerFlowProcessor<T, R>() {
+            @Override
+            protected void handle(T item) {
+                emit(mapper.apply(item));
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that gives each record the contact data of its modified data, as
+     * {@link CustomerRecord#patchAll} does: element i of the array applies to the i-th
+     * customer, and customers beyond the end of the array pass through unchanged.
+     *
+     * @param modifiedCustomerDataArray The modified data, in customer order.
+     * @return The patching stage.
+     */
+    public static CustomerFlowProcessor<CustomerRecord, CustomerRecord> patch(
+            CModifiedCustomerData[] modifiedCustomerDataArray) {
+        return new CustomerFlowProcessor<CustomerRecord, CustomerRecord>() {
+            private int customerIndex;
+
+            @Override
+            protected void handle(CustomerRecord customer) {
+                int index = customerIndex++;
+                emit(index < modifiedCustomerDataArray.length
+                        ? customer.withModifiedData(modifiedCustomerDataArray[index]) : customer);
+            }
+        };
+    }
+
+    /**
+     * Creates a stage that groups items into lists of the given size. The last list may
+     * be shorter.
+     *
+     * @param batchSize The number of items per list.
+     * @param <T> The item type.
+     * @return The batching stage.
+     * @throws IllegalArgumentException If the batch size is not positive.
+     */
+    public static <T> CustomerFlowProcessor<T, List<T>> batch(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        return new CustomerFlowProcessor<T, List<T>>() {
+            private List<T> currentBatch = new ArrayList<>(batchSize);
+
+            @Override
+            protected void handle(T item) {
+                currentBatch.add(item);
+                if (currentBatch.size() == batchSize) {
+                    List<T> fullBatch = currentBatch;
+                    currentBatch = new ArrayList<>(batchSize);
+                    emit(fullBatch);
+                }
+            }
+
+            @Override
+            protected void requestUpstream(long n) {
+                // Each requested batch needs batchSize items
+                super.requestUpstream(n > Long.MAX_VALUE / batchSize ? Long.MAX_VALUE : n * batchSize);
+            }
+
+            @Override
+            protected void beforeComplete() {
+                if (!currentBatch.isEmpty()) {
+                    emit(currentBatch);
+                    currentBatch = new ArrayList<>(0);
+                }
+            }
+        };
+    }
+
+    /**
+     * Processes one item received from upstream, calling {@link #emit(Object)} for any
+     * items to pass downstream.
+     *
+     * @param item The item received.
+     */
+    protected abstract void handle(T item);
+
+    /**
+     * Called before completion is passed downstream, so that buffered items can be emitted.
+     */
+    protected void beforeComplete() {
+    }
+
+    /**
+     * Requests items from upstream. Called with the number of items the downstream
+     * subscriber requested; stages that consume several items per emitted item scale it.
+     *
+     * @param n The number of items to request.
+     */
+    protected void requestUpstream(long n) {
+        upstream.request(n);
+    }
+
+    /**
+     * Sends an item downstream.
+     *
+     * @param item The item to send.
+     */
+    protected final void emit(R item) {
+        downstream.onNext(item);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super R> subscriber) {
+        boolean accepted;
+        boolean connect = false;
+        synchronized (this) {
+            accepted = downstream == null;
+            if (accepted) {
+                downstream = subscriber;
+                connect = upstream != null;
+            }
+        }
+        // Subscribers are only called once the lock is released, so a subscriber that
+        // calls back into the stage from another thread cannot deadlock with it
+        if (!accepted) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("A customer flow stage accepts only one subscriber"));
+        } else if (connect) {
+            connectDownstream();
+        }
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        boolean accepted;
+        boolean connect = false;
+        synchronized (this) {
+            accepted = upstream == null;
+            if (accepted) {
+                upstream = subscription;
+                connect = downstream != null;
+            }
+        }
+        if (!accepted) {
+            subscription.cancel();
+        } else if (connect) {
+            connectDownstream();
+        }
+    }
+
+    @Override
+    public void onNext(T item) {
+        try {
+            handle(item);
+        } catch (RuntimeException e) {
+            upstream.cancel();
+            onError(e);
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        synchronized (this) {
+            if (!connected) {
+                pendingError = throwable;
+                return;
+            }
+        }
+        downstream.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        synchronized (this) {
+            if (!connected) {
+                pendingComplete = true;
+                return;
+            }
+        }
+        completeDownstream();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            upstream.request(n);
+        } else {
+            requestUpstream(n);
+        }
+    }
+
+    @Override
+    public void cancel() {
+        upstream.cancel();
+    }
+
+    /**
+     * Gives the downstream subscriber its subscription, then delivers a terminal signal
+     * that arrived before it was connected. Called once, by whichever of
+     * {@link #subscribe} and {@link #onSubscribe} completes the chain.
+     */
+    private void connectDownstream() {
+        downstream.onSubscribe(this);
+        Throwable error;
+        boolean complete;
+        synchronized (this) {
+            connected = true;
+            error = pendingError;
+            complete = pendingComplete;
+        }
+        if (error != null) {
+            downstream.onError(error);
+        } else if (complete) {
+            completeDownstream();
+        }
+    }
+
+    private void completeDownstream() {
+        try {
+            beforeComplete();
+        } catch (RuntimeException e) {
+            downstream.onError(e);
+            return;
+        }
+        downstream.onComplete();
+    }
+}
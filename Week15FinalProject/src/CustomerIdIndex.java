@@ -0,0 +1,304 @@
+/**
+ * CustomerIdIndex maps customer IDs to {@link CustomerRecord}s without boxing the IDs.
+ * Records are kept in an open-addressing hash table with linear probing over a primitive
+ * {@code int[]} of keys and a parallel array of records, so a lookup touches two arrays
+ * and no {@code Integer} or map entry objects.
+ *
+ * <p>Customer IDs are usually assigned in sequence. When {@link #compact()} finds the IDs
+ * close to contiguous, the index switches to a dense array indexed by {@code ID - minimum
+ * ID}, which needs no hashing or probing and half the memory of the hash table. The dense
+ * array grows to take IDs added next to its range; an ID far outside it switches the
+ * index back to the hash table.</p>
+ *
+ * <p>An index is built with {@link #load(String)}, or kept up to date while modifying by
+ * passing it to {@link CustomerPipeline#setIdIndex(CustomerIdIndex)}, which adds the
+ * modified records only once the output file has been saved; the "modify --lookup"
+ * command does this. It is not thread-safe; lookups may run concurrently only while
+ * nothing is being added.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.function.Consumer;
+
+public class CustomerIdIndex {
+
+    /** The hash table is grown once it is more than this fraction full. */
+    private static final double LOAD_FACTOR = 0.6;
+
+    /** The dense array is used while it has at most this many slots per record. */
+    private static final int MAX_DENSE_SLOTS_PER_RECORD = 2;
+
+    /** Number of records read from the file per bulk decode while loading. */
+    private static final int LOAD_BATCH_SIZE = 1024;
+
+    /** Hash table keys; a slot is in use when its record is not {@code null}. */
+    private int[] keys;
+    private CustomerRecord[] records;
+    private int mask;
+    private int resizeThreshold;
+
+    /** Dense array of records indexed by {@code ID - denseBase}, or {@code null} in hash mode. */
+    private CustomerRecord[] denseRecords;
+    private int denseBase;
+
+    private int size;
+
+    /**
+     * Creates an empty index with room for a small number of records.
+     */
+    public CustomerIdIndex() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty index sized to hold the given number of records without resizing.
+     *
+     * @param expectedSize The number of records expected to be added.
+     */
+    public CustomerIdIndex(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Builds an index of every customer in a customers XML file, streaming the file so
+     * that only the records themselves are held in memory. The index is compacted into a
+     * dense array if the IDs allow it.
+     *
+     * @param filePath The customers XML file.
+     * @return The index.
+     * @throws Exception If the file cannot be read.
+     */
+    public static CustomerIdIndex load(String filePath) throws Exception {
+        CustomerIdIndex index = new CustomerIdIndex();
+        CustomerRecord[] batch = new CustomerRecord[LOAD_BATCH_SIZE];
+
+        try (CustomerStreamReader reader = new CustomerStreamReader(filePath)) {
+            int count;
+            while ((count = reader.nextRecords(batch)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    index.put(batch[i]);
+                }
+            }
+        }
+        index.compact();
+        return index;
+    }
+
+    /**
+     * Adds a record, replacing any record with the same ID.
+     *
+     * @param record The record to add.
+     * @return The record previously stored under the ID, or {@code null} if there was none.
+     */
+    public CustomerRecord put(CustomerRecord record) {
+        int intID = record.getID();
+
+        if (denseRecords != null) {
+            long denseSlot = (long) intID - denseBase;
+            if (denseSlot >= 0 && denseSlot < denseRecords.length) {
+                CustomerRecord previous = denseRecords[(int) denseSlot];
+                denseRecords[(int) denseSlot] = record;
+                if (previous == null) {
+                    size++;
+                }
+                return previous;
+            }
+            if (!growDense(intID)) {
+                // The ID is too far outside the dense range; go back to hashing
+                toHashTable();
+            }
+            return put(record);
+        }
+
+        int slot = hash(intID) & mask;
+        while (records[slot] != null) {
+            if (keys[slot] == intID) {
+                CustomerRecord previous = records[slot];
+                records[slot] = record;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = intID;
+        records[slot] = record;
+        if (++size > resizeThreshold) {
+            resize(keys.length << 1);
+        }
+        return null;
+    }
+
+    /**
+     * Looks up a record by customer ID.
+     *
+     * @param intID The customer ID.
+     * @return The record, or {@code null} if no customer has the ID.
+     */
+    public CustomerRecord get(int intID) {
+        if (denseRecords != null) {
+            long denseSlot = (long) intID - denseBase;
+            return denseSlot >= 0 && denseSlot < denseRecords.length ? denseRecords[(int) denseSlot] : null;
+        }
+
+        int slot = hash(intID) & mask;
+        while (records[slot] != null) {
+            if (keys[slot] == intID) {
+                return records[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a customer ID is in the index.
+     *
+     * @param intID The customer ID.
+     * @return {@code true} if a record is stored under the ID.
+     */
+    public boolean contains(int intID) {
+        return get(intID) != null;
+    }
+
+    /**
+     * Gets the number of records in the index.
+     *
+     * @return The number of records.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Tells whether the index currently uses the dense array.
+     *
+     * @return {@code true} in dense mode, {@code false} in hash mode.
+     */
+    public boolean isDense() {
+        return denseRecords != null;
+    }
+
+    /**
+     * Switches to the dense array if the IDs span no more than twice as many values as
+     * there are records. Called after bulk loading; calling it again after many records
+     * have been added may switch an index that has become contiguous.
+     */
+    public void compact() {
+        if (denseRecords != null || size == 0) {
+            return;
+        }
+
+        int minID = Integer.MAX_VALUE;
+        int maxID = Integer.MIN_VALUE;
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (records[slot] != null) {
+                minID = Math.min(minID, keys[slot]);
+                maxID = Math.max(maxID, keys[slot]);
+            }
+        }
+        long span = (long) maxID - minID + 1;
+        if (span > (long) size * MAX_DENSE_SLOTS_PER_RECORD) {
+            return;
+        }
+
+        CustomerRecord[] dense = new CustomerRecord[(int) span];
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (records[slot] != null) {
+                dense[keys[slot] - minID] = records[slot];
+            }
+        }
+        denseRecords = dense;
+        denseBase = minID;
+        keys = null;
+        records = null;
+    }
+
+    /**
+     * Passes every record in the index to the given action. In dense mode the records
+     * come in ID order; in hash mode the order is unspecified.
+     *
+     * @param action The action invoked for each record.
+     */
+    public void forEach(Consumer<CustomerRecord> action) {
+        CustomerRecord[] table = denseRecords != null ? denseRecords : records;
+        for (CustomerRecord record : table) {
+            if (record != null) {
+                action.accept(record);
+            }
+        }
+    }
+
+    /**
+     * Grows the dense array to cover an ID just outside it, leaving room above for IDs
+     * added in sequence.
+     *
+     * @return {@code false} if covering the ID would leave the array too sparse.
+     */
+    private boolean growDense(int intID) {
+        long newBase = Math.min(denseBase, intID);
+        long newTop = Math.max((long) denseBase + denseRecords.length - 1, intID);
+        long span = newTop - newBase + 1;
+        if (span > (long) (size + 1) * MAX_DENSE_SLOTS_PER_RECORD) {
+            return false;
+        }
+
+        long capacity = Math.min(span + (span >> 1), Integer.MAX_VALUE - 8);
+        CustomerRecord[] dense = new CustomerRecord[(int) capacity];
+        System.arraycopy(denseRecords, 0, dense, (int) (denseBase - newBase), denseRecords.length);
+        denseRecords = dense;
+        denseBase = (int) newBase;
+        return true;
+    }
+
+    private void toHashTable() {
+        CustomerRecord[] dense = denseRecords;
+        allocate(Integer.highestOneBit(Math.max(4, (int) ((size + 1) / LOAD_FACTOR)) - 1) << 1);
+        denseRecords = null;
+        size = 0;
+
+        for (CustomerRecord record : dense) {
+            if (record != null) {
+                put(record);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        records = new CustomerRecord[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void resize(int newCapacity) {
+        int[] oldKeys = keys;
+        CustomerRecord[] oldRecords = records;
+        allocate(newCapacity);
+
+        for (int oldSlot = 0; oldSlot < oldKeys.length; oldSlot++) {
+            if (oldRecords[oldSlot] != null) {
+                int slot = hash(oldKeys[oldSlot]) & mask;
+                while (records[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[oldSlot];
+                records[slot] = oldRecords[oldSlot];
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of an ID so that sequential IDs do not fill neighbouring slots
+     * (finalizer step of MurmurHash3).
+     */
+    private static int hash(int value) {
+        value ^= value >>> 16;
+        value *= 0x85ebca6b;
+        value ^= value >>> 13;
+        value *= 0xc2b2ae35;
+        value ^= value >>> 16;
+        return value;
+    }
+}
@@ -0,0 +1,338 @@
+/**
+ * CustomerMetrics collects low-overhead counters and latency histograms for the read,
+ * modify and write stages of customer processing. Counters are {@link LongAdder}s and
+ * latencies go into {@link LatencyHistogram}s, so recording from many threads never
+ * blocks.
+ *
+ * <p>A single instance, returned by {@link #get()}, is shared by the whole application.
+ * It is registered with the platform MBean server under
+ * {@value #OBJECT_NAME} and can print a text report with {@link #dump(PrintStream)}.
+ * Starting the MBean server loads a few hundred JMX classes, so registration happens on
+ * a background thread rather than delaying the first output; set
+ * {@code -Dcustomers.jmx=false} to skip it entirely.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+public class CustomerMetrics implements CustomerMetricsMBean {
+
+    /** The JMX object name the metrics are registered under. */
+    public static final String OBJECT_NAME = "CustomerListXML:type=CustomerMetrics";
+
+    /**
+     * The timed stages of customer processing.
+     */
+    public enum Stage {
+        /** Opening and parsing an input file. */
+        READ,
+        /** Applying modifications to customers. */
+        MODIFY,
+        /** Serializing and writing an output file. */
+        WRITE
+    }
+
+    private static final CustomerMetrics INSTANCE = new CustomerMetrics();
+
+    static {
+        if (Boolean.parseBoolean(System.getProperty("customers.jmx", "true"))) {
+            Thread registerThread = new Thread(INSTANCE::registerMBean, "customer-metrics-jmx");
+            registerThread.setDaemon(true);
+            registerThread.start();
+        }
+    }
+
+    private final LongAdder recordsParsed = new LongAdder();
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder recordsModified = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<Stage, LatencyHistogram> stageLatencies = new EnumMap<>(Stage.class);
+
+    private CustomerMetrics() {
+        for (Stage stage : Stage.values()) {
+            stageLatencies.put(stage, new LatencyHistogram());
+        }
+    }
+
+    /**
+     * Gets the application-wide metrics instance.
+     *
+     * @return The shared metrics.
+     */
+    public static CustomerMetrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Records how long one run of a stage took.
+     *
+     * @param stage The stage that ran.
+     * @param nanos The elapsed time in nanoseconds, usually a difference of
+     *              {@link System#nanoTime()} values.
+     */
+    public void recordStage(Stage stage, long nanos) {
+        stageLatencies.get(stage).record(nanos);
+    }
+
+    /**
+     * Adds to the number of customer records parsed.
+     *
+     * @param count The number of records.
+     */
+    public void addRecordsParsed(long count) {
+        recordsParsed.add(count);
+    }
+
+    /**
+     * Adds to the number of customer records modified.
+     *
+     * @param count The number of records.
+     */
+    public void addRecordsModified(long count) {
+        recordsModified.add(count);
+    }
+
+    /**
+     * Counts one error reported while processing customers.
+     */
+    public void recordError() {
+        errors.increment();
+    }
+
+    /**
+     * Wraps an input stream so that every byte read from it is counted as bytes read.
+     *
+     * @param inputStream The stream to count.
+     * @return The counting stream, which also reports how many bytes went through it.
+     */
+    public CountingInputStream countBytesRead(InputStream inputStream) {
+        return new CountingInputStream(inputStream, bytesRead);
+    }
+
+    /**
+     * Wraps an output stream so that every byte written to it is counted as bytes written.
+     *
+     * @param outputStream The stream to count.
+     * @return The counting stream, which also reports how many bytes went through it.
+     */
+    public CountingOutputStream countBytesWritten(OutputStream outputStream) {
+        return new CountingOutputStream(outputStream, bytesWritten);
+    }
+
+    @Override
+    public long getRecordsParsed() {
+        return recordsParsed.sum();
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRecordsModified() {
+        return recordsModified.sum();
+    }
+
+    @Override
+    public long getBytesWritten() {
+        return bytesWritten.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public long getReadNanos() {
+        return stageLatencies.get(Stage.READ).getTotalNanos();
+    }
+
+    @Override
+    public long getReadP99Nanos() {
+        return stageLatencies.get(Stage.READ).getPercentileNanos(99);
+    }
+
+    @Override
+    public long getModifyNanos() {
+        return stageLatencies.get(Stage.MODIFY).getTotalNanos();
+    }
+
+    @Override
+    public long getModifyP99Nanos() {
+        return stageLatencies.get(Stage.MODIFY).getPercentileNanos(99);
+    }
+
+    @Override
+    public long getWriteNanos() {
+        return stageLatencies.get(Stage.WRITE).getTotalNanos();
+    }
+
+    @Override
+    public long getWriteP99Nanos() {
+        return stageLatencies.get(Stage.WRITE).getPercentileNanos(99);
+    }
+
+    /**
+     * Prints all metrics as a text report.
+     *
+     * @param output The stream the report is printed to.
+     */
+    public void dump(PrintStream output) {
+        output.println("Customer metrics");
+        output.printf("  records parsed:   %d%n", getRecordsParsed());
+        output.printf("  bytes read:       %d%n", getBytesRead());
+        output.printf("  records modified: %d%n", getRecordsModified());
+        output.printf("  bytes written:    %d%n", getBytesWritten());
+        output.printf("  errors:           %d%n", getErrors());
+        output.printf("  %-8s %8s %14s %12s %12s %12s %12s%n",
+                "stage", "count", "total ms", "p50 us", "p99 us", "p99.9 us", "max us");
+
+        for (Stage stage : Stage.values()) {
+            LatencyHistogram histogram = stageLatencies.get(stage);
+            output.printf("  %-8s %8d %14.3f %12.1f %12.1f %12.1f %12.1f%n",
+                    stage.name().toLowerCase(),
+                    histogram.getCount(),
+                    histogram.getTotalNanos() / 1e6,
+                    histogram.getPercentileNanos(50) / 1e3,
+                    histogram.getPercentileNanos(99) / 1e3,
+                    histogram.getPercentileNanos(99.9) / 1e3,
+                    histogram.getMaxNanos() / 1e3);
+        }
+    }
+
+    @Override
+    public String dump() {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        try (PrintStream output = new PrintStream(buffer, true)) {
+            dump(output);
+        }
+        return buffer.toString();
+    }
+
+    @Override
+    public void reset() {
+        recordsParsed.reset();
+        bytesRead.reset();
+        recordsModified.reset();
+        bytesWritten.reset();
+        errors.reset();
+        for (LatencyHistogram histogram : stageLatencies.values()) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server. Failure to register is
+     * reported but does not stop the application.
+     */
+    private void registerMBean() {
+        try {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!mBeanServer.isRegistered(objectName)) {
+                mBeanServer.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            System.err.println("Error registering customer metrics with JMX: " + e.getMessage());
+        }
+    }
+
+    /**
+     * An input stream that counts the bytes read through it, both for itself and into
+     * an application-wide counter.
+     */
+    public static final class CountingInputStream extends FilterInputStream {
+        private final LongAdder totalCounter;
+        private long byteCount;
+
+        CountingInputStream(InputStream inputStream, LongAdder totalCounter) {
+            super(inputStream);
+            this.totalCounter = totalCounter;
+        }
+
+        /**
+         * Gets the number of bytes read through this stream.
+         *
+         * @return The byte count.
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value >= 0) {
+                byteCount++;
+                totalCounter.increment();
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int count = super.read(buffer, offset, length);
+            if (count > 0) {
+                byteCount += count;
+                totalCounter.add(count);
+            }
+            return count;
+        }
+    }
+
+    /**
+     * An output stream that counts the bytes written through it, both for itself and into
+     * an application-wide counter.
+     */
+    public static final class CountingOutputStream extends FilterOutputStream {
+        private final LongAdder totalCounter;
+        private long byteCount;
+
+        CountingOutputStream(OutputStream outputStream, LongAdder totalCounter) {
+            super(outputStream);
+            this.totalCounter = totalCounter;
+        }
+
+        /**
+         * Gets the number of bytes written through this stream.
+         *
+         * @return The byte count.
+         */
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            out.write(value);
+            byteCount++;
+            totalCounter.increment();
+        }
+
+        @Override
+        public void write(byte[] buffer, int offset, int length) throws IOException {
+            out.write(buffer, offset, length);
+            byteCount += length;
+            totalCounter.add(length);
+        }
+    }
+}
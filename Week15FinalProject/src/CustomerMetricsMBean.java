@@ -0,0 +1,56 @@
+/**
+ * CustomerMetricsMBean is the JMX management interface of {@link CustomerMetrics}. It
+ * exposes the record and byte counters and the per-stage latencies of the read, modify
+ * and write stages so they can be watched from JConsole or any JMX client.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public interface CustomerMetricsMBean {
+
+    /** @return The number of customer records parsed from input files. */
+    long getRecordsParsed();
+
+    /** @return The number of bytes read from input files. */
+    long getBytesRead();
+
+    /** @return The number of customer records modified. */
+    long getRecordsModified();
+
+    /** @return The number of bytes written to output files. */
+    long getBytesWritten();
+
+    /** @return The number of errors reported while processing customers. */
+    long getErrors();
+
+    /** @return The total nanoseconds spent reading and parsing input. */
+    long getReadNanos();
+
+    /** @return The 99th percentile latency of a read stage, in nanoseconds. */
+    long getReadP99Nanos();
+
+    /** @return The total nanoseconds spent modifying customers. */
+    long getModifyNanos();
+
+    /** @return The 99th percentile latency of a modify stage, in nanoseconds. */
+    long getModifyP99Nanos();
+
+    /** @return The total nanoseconds spent serializing and writing output. */
+    long getWriteNanos();
+
+    /** @return The 99th percentile latency of a write stage, in nanoseconds. */
+    long getWriteP99Nanos();
+
+    /**
+     * Formats all metrics as text.
+     *
+     * @return The same report printed at the end of each run, unless
+     *         {@code -Dcustomers.metrics=false} turns it off.
+     */
+    String dump();
+
+    /**
+     * Clears all counters and histograms.
+     */
+    void reset();
+}
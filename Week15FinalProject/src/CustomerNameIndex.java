@@ -0,0 +1,440 @@
+/**
+ * CustomerNameIndex finds customers by partial or misspelled names. It is an inverted
+ * index of the trigrams (three-character sequences) of every word in each customer's
+ * name, contact name and email address. Each trigram has a sorted {@code int[]} posting
+ * list of the customers containing it, and postings are addressed directly by trigram
+ * code, so no hashing or boxing is involved in a search.
+ *
+ * <p>Text is folded to lower case letters and digits; other characters separate words.
+ * Every word is indexed with leading spaces, so the first trigrams of a query word only
+ * match at the start of a word and a query such as "bak" works as a type-ahead prefix.
+ * A search first intersects the query trigrams' posting lists, shortest list first, to
+ * find prefix matches, checking the query words against the folded text kept for every
+ * customer. If there are too few, it merges posting lists in customer order through a
+ * heap, counting how many of the query's trigrams each customer shares. A fuzzy match
+ * must share at least half of them, so it is on at least one of the shortest lists
+ * that make up the other half; only those lists are merged, and the long lists of
+ * common trigrams are probed for the customers found instead of being walked. Results
+ * are ranked as follows:</p>
+ *
+ * <ol>
+ * <li>customers in which every query word starts some word (prefix matches),</li>
+ * <li>then other customers by the number of shared trigrams, down to half of the query's
+ *     trigrams (fuzzy matches, which tolerate a typo or a missing letter),</li>
+ * <li>with ties in input order.</li>
+ * </ol>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class CustomerNameIndex {
+
+    /** Number of distinct symbols after folding: separator, a-z, 0-9 and other letters. */
+    private static final int ALPHABET_SIZE = 38;
+
+    /** Symbol of word separators. */
+    private static final int SEPARATOR = 0;
+
+    /** Symbol shared by all letters outside a-z. */
+    private static final int OTHER_LETTER = 37;
+
+    /** Number of distinct trigram codes. */
+    private static final int TRIGRAM_COUNT = ALPHABET_SIZE * ALPHABET_SIZE * ALPHABET_SIZE;
+
+    /** Longest query considered; longer queries are truncated. */
+    private static final int MAX_QUERY_LENGTH = 64;
+
+    /** Number of records read from the file per bulk decode while loading. */
+    private static final int LOAD_BATCH_SIZE = 1024;
+
+    /** Posting lists by trigram code; each holds ascending customer positions. */
+    private final int[][] postings;
+
+    /** The indexed customers; posting lists refer to positions in this array. */
+    private final CustomerRecord[] customers;
+
+    /**
+     * The folded name, contact name and email address of every customer, each preceded
+     * by a space, one customer after another.
+     */
+    private final char[] foldedText;
+
+    /** Start of each customer's text in {@link #foldedText}, plus the end of the last. */
+    private final int[] textStarts;
+
+    /**
+     * Builds an index over the given customers.
+     *
+     * @param customers The customers to index.
+     */
+    public CustomerNameIndex(List<CustomerRecord> customers) {
+        this.customers = customers.toArray(new CustomerRecord[0]);
+        this.postings = new int[TRIGRAM_COUNT][];
+
+        StringBuilder text = new StringBuilder();
+        textStarts = new int[this.customers.length + 1];
+        for (int position = 0; position < this.customers.length; position++) {
+            CustomerRecord customer = this.customers[position];
+            textStarts[position] = text.length();
+            text.append(' ').append(fold(customer.getName())).append(' ').append(fold(customer.getContactName()))
+                    .append(' ').append(fold(customer.getEmailAddress()));
+        }
+        textStarts[this.customers.length] = text.length();
+        foldedText = new char[text.length()];
+        text.getChars(0, text.length(), foldedText, 0);
+
+        // Size every posting list first, then fill them in customer order so they come out sorted
+        int[] postingCounts = new int[TRIGRAM_COUNT];
+        int[] lastCustomer = new int[TRIGRAM_COUNT];
+        Arrays.fill(lastCustomer, -1);
+        for (int position = 0; position < this.customers.length; position++) {
+            for (int trigram : customerTrigrams(position)) {
+                if (lastCustomer[trigram] != position) {
+                    lastCustomer[trigram] = position;
+                    postingCounts[trigram]++;
+                }
+            }
+        }
+
+        for (int trigram = 0; trigram < TRIGRAM_COUNT; trigram++) {
+            if (postingCounts[trigram] > 0) {
+                postings[trigram] = new int[postingCounts[trigram]];
+                postingCounts[trigram] = 0;
+            }
+        }
+        for (int position = 0; position < this.customers.length; position++) {
+            for (int trigram : customerTrigrams(position)) {
+                int[] postingList = postings[trigram];
+                int count = postingCounts[trigram];
+                if (count == 0 || postingList[count - 1] != position) {
+                    postingList[count] = position;
+                    postingCounts[trigram] = count + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds an index of every customer in a customers XML file.
+     *
+     * @param filePath The customers XML file.
+     * @return The index.
+     * @throws Exception If the file cannot be read.
+     */
+    public static CustomerNameIndex load(String filePath) throws Exception {
+        List<CustomerRecord> customers = new ArrayList<>();
+        CustomerRecord[] batch = new CustomerRecord[LOAD_BATCH_SIZE];
+
+        try (CustomerStreamReader reader = new CustomerStreamReader(filePath)) {
+            int count;
+            while ((count = reader.nextRecords(batch)) > 0) {
+                for (int i = 0; i < count; i++) {
+                    customers.add(batch[i]);
+                }
+            }
+        }
+        return new CustomerNameIndex(customers);
+    }
+
+    /**
+     * Gets the number of indexed customers.
+     *
+     * @return The number of customers.
+     */
+    public int size() {
+        return customers.length;
+    }
+
+    /**
+     * Finds the customers best matching a query.
+     *
+     * @param query One or more words or word prefixes, e.g. "foster" or "acme haul".
+     * @param limit The maximum number of results.
+     * @return The matching customers, best match first; empty if the query has no letters
+     *         or digits.
+     */
+    public List<CustomerRecord> search(String query, int limit) {
+        String foldedQuery = fold(query.length() > MAX_QUERY_LENGTH ? query.substring(0, MAX_QUERY_LENGTH) : query);
+        int[] queryTrigrams = distinct(trigrams(foldedQuery.toCharArray(), 0, foldedQuery.length()));
+        List<CustomerRecord> results = new ArrayList<>();
+        if (queryTrigrams.length == 0 || limit <= 0) {
+            return results;
+        }
+        String[] words = foldedQuery.split(" ");
+        char[][] queryWords = new char[words.length][];
+        for (int i = 0; i < words.length; i++) {
+            queryWords[i] = words[i].toCharArray();
+        }
+
+        int[][] queryPostings = new int[queryTrigrams.length][];
+        int listCount = 0;
+        for (int trigram : queryTrigrams) {
+            if (postings[trigram] != null) {
+                queryPostings[listCount++] = postings[trigram];
+            }
+        }
+        queryPostings = Arrays.copyOf(queryPostings, listCount);
+        Arrays.sort(queryPostings, (first, second) -> Integer.compare(first.length, second.length));
+
+        // Prefix matches contain every query trigram; intersect the posting lists, shortest first
+        List<CustomerRecord> prefixMatches = new ArrayList<>(limit);
+        int[] prefixPositions = new int[limit];
+        if (listCount == queryTrigrams.length) {
+            int[] cursors = new int[listCount];
+            for (int position : queryPostings[0]) {
+                if (prefixMatches.size() == limit) {
+                    break;
+                }
+                if (onAllLists(queryPostings, cursors, position) && matchesPrefixes(position, queryWords)) {
+                    prefixPositions[prefixMatches.size()] = position;
+                    prefixMatches.add(customers[position]);
+                }
+            }
+        }
+        results.addAll(prefixMatches);
+        if (results.size() == limit) {
+            return results;
+        }
+
+        // Fuzzy matches share at least minShared of the listCount lists, so each is on one
+        // of the mergeCount shortest lists. Merge those in customer order through a heap
+        // and probe the longer lists only for the customers found, until enough customers
+        // share every trigram that occurs
+        int minShared = (queryTrigrams.length + 1) / 2;
+        if (listCount < minShared) {
+            return results;
+        }
+        int mergeCount = listCount - minShared + 1;
+        int wanted = limit - results.size();
+        List<List<CustomerRecord>> byShared = new ArrayList<>();
+        for (int shared = 0; shared <= queryTrigrams.length; shared++) {
+            byShared.add(new ArrayList<>());
+        }
+        int[] cursors = new int[listCount];
+        int[] heap = new int[mergeCount];
+        int heapSize = 0;
+        for (int list = 0; list < mergeCount; list++) {
+            heap[heapSize++] = list;
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, queryPostings, cursors);
+        }
+        int prefixCursor = 0;
+
+        while (heapSize > 0 && byShared.get(listCount).size() < wanted) {
+            int position = queryPostings[heap[0]][cursors[heap[0]]];
+            int shared = 0;
+            do {
+                int list = heap[0];
+                shared++;
+                if (++cursors[list] == queryPostings[list].length) {
+                    heap[0] = heap[--heapSize];
+                }
+                if (heapSize > 0) {
+                    siftDown(heap, heapSize, 0, queryPostings, cursors);
+                }
+            } while (heapSize > 0 && queryPostings[heap[0]][cursors[heap[0]]] == position);
+
+            if (prefixCursor < prefixMatches.size() && prefixPositions[prefixCursor] == position) {
+                prefixCursor++;
+                continue;
+            }
+            for (int list = mergeCount; list < listCount; list++) {
+                if (advanceTo(queryPostings[list], cursors, list, position)) {
+                    shared++;
+                }
+            }
+            if (shared >= minShared && byShared.get(shared).size() < wanted) {
+                byShared.get(shared).add(customers[position]);
+            }
+        }
+
+        for (int shared = queryTrigrams.length; shared >= minShared && results.size() < limit; shared--) {
+            List<CustomerRecord> candidates = byShared.get(shared);
+            results.addAll(candidates.subList(0, Math.min(candidates.size(), limit - results.size())));
+        }
+        return results;
+    }
+
+    /**
+     * Checks whether a customer is on every posting list but the first, which it is
+     * taken from. Each list's cursor only moves forward, galloping ahead and then
+     * binary searching, so long lists are mostly skipped over.
+     */
+    private static boolean onAllLists(int[][] postingLists, int[] cursors, int position) {
+        for (int list = 1; list < postingLists.length; list++) {
+            if (!advanceTo(postingLists[list], cursors, list, position)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Moves a list's cursor forward to the first customer at or after a position,
+     * galloping ahead and then binary searching, and tells whether the list holds the
+     * position itself.
+     */
+    private static boolean advanceTo(int[] postingList, int[] cursors, int list, int position) {
+        int low = cursors[list];
+        int step = 1;
+        while (low + step < postingList.length && postingList[low + step] < position) {
+            low += step;
+            step <<= 1;
+        }
+        int found = Arrays.binarySearch(postingList, low, Math.min(low + step + 1, postingList.length), position);
+        cursors[list] = found >= 0 ? found : -found - 1;
+        return found >= 0;
+    }
+
+    /**
+     * Restores the heap order below a slot of the merge heap, which holds list numbers
+     * ordered by the customer at each list's cursor.
+     */
+    private static void siftDown(int[] heap, int heapSize, int slot, int[][] postingLists, int[] cursors) {
+        int list = heap[slot];
+        int position = postingLists[list][cursors[list]];
+        while (true) {
+            int child = 2 * slot + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            int childPosition = postingLists[heap[child]][cursors[heap[child]]];
+            if (child + 1 < heapSize) {
+                int rightPosition = postingLists[heap[child + 1]][cursors[heap[child + 1]]];
+                if (rightPosition < childPosition) {
+                    child++;
+                    childPosition = rightPosition;
+                }
+            }
+            if (position <= childPosition) {
+                break;
+            }
+            heap[slot] = heap[child];
+            slot = child;
+        }
+        heap[slot] = list;
+    }
+
+    /**
+     * Checks that every query word starts a word of the customer's folded text, reading
+     * the stored characters in place.
+     */
+    private boolean matchesPrefixes(int position, char[][] queryWords) {
+        int start = textStarts[position];
+        int end = textStarts[position + 1];
+        for (char[] queryWord : queryWords) {
+            if (!startsWord(start, end, queryWord)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a word follows some space in a range of {@link #foldedText}.
+     */
+    private boolean startsWord(int start, int end, char[] word) {
+        for (int i = start; i + word.length < end; i++) {
+            if (foldedText[i] != ' ') {
+                continue;
+            }
+            int matched = 0;
+            while (matched < word.length && foldedText[i + 1 + matched] == word[matched]) {
+                matched++;
+            }
+            if (matched == word.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Collects the trigram codes of the indexed fields of a customer, possibly with
+     * repeats.
+     */
+    private int[] customerTrigrams(int position) {
+        return trigrams(foldedText, textStarts[position], textStarts[position + 1]);
+    }
+
+    /**
+     * Folds text to lower case letters and digits separated by single spaces. Letters
+     * outside a-z are kept (lower-cased) and all share one trigram symbol.
+     *
+     * @param text The text, possibly {@code null}.
+     * @return The folded text.
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        StringBuilder folded = new StringBuilder(text.length());
+        boolean separator = true;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+                separator = false;
+            } else if (!separator) {
+                folded.append(' ');
+                separator = true;
+            }
+        }
+        return folded.toString().trim();
+    }
+
+    /**
+     * Gets the trigram codes of the words in a range of folded text. Each word is preceded by two
+     * spaces, so its first letter alone forms a trigram and one-letter queries work.
+     */
+    private static int[] trigrams(char[] text, int start, int end) {
+        int[] codes = new int[end - start];
+        int count = 0;
+        int previous2 = SEPARATOR;
+        int previous1 = SEPARATOR;
+        for (int i = start; i < end; i++) {
+            int symbol = symbol(text[i]);
+            if (symbol == SEPARATOR) {
+                previous2 = SEPARATOR;
+            } else {
+                codes[count++] = code(previous2, previous1, symbol);
+                previous2 = previous1;
+            }
+            previous1 = symbol;
+        }
+        return Arrays.copyOf(codes, count);
+    }
+
+    private static int symbol(char c) {
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        } else if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        } else if (c == ' ') {
+            return SEPARATOR;
+        }
+        return OTHER_LETTER;
+    }
+
+    private static int code(int first, int second, int third) {
+        return (first * ALPHABET_SIZE + second) * ALPHABET_SIZE + third;
+    }
+
+    private static int[] distinct(int[] codes) {
+        int[] sorted = codes.clone();
+        Arrays.sort(sorted);
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return Arrays.copyOf(sorted, count);
+    }
+}
@@ -0,0 +1,496 @@
+/**
+ * CustomerOffsetIndex gives random access to individual customers of a large customers
+ * XML file without parsing the whole document. The first time a file is opened, its
+ * bytes are scanned once for "Customer" elements, and the ID, byte offset and length of
+ * each are recorded. The index is saved next to the file as "&lt;file&gt;.idx" and reused
+ * by later runs for as long as the file is unchanged: it must have the same size,
+ * modification time to the nanosecond, file key (the inode on Unix, so a file replaced
+ * by a rename is never mistaken for the old one) and checksum of its first and last
+ * blocks as when it was indexed. A lookup reads just the bytes of one element and
+ * decodes them with {@link CustomerStreamReader}, in the encoding named by the file's XML
+ * declaration (UTF-8 if it has none), which the scan records with the offsets.
+ *
+ * <p>The scan looks for tags rather than parsing XML, so it expects the layout written by
+ * this application: "Customer" elements, possibly self-closing, that are not nested in
+ * comments or CDATA sections, in an encoding that writes markup as ASCII, such as UTF-8
+ * or ISO-8859-1. A customer without a valid ID is indexed under ID 0.
+ * Entries are kept sorted by ID in three primitive arrays, which is also the layout of
+ * the saved index.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+public class CustomerOffsetIndex implements Closeable {
+
+    /** Identifies a saved offset index ("CIDX"). */
+    private static final int MAGIC = 0x43494458;
+
+    /** Version of the saved index layout. */
+    private static final int FORMAT_VERSION = 3;
+
+    /** Suffix added to the customers file path to name its saved index. */
+    public static final String INDEX_SUFFIX = ".idx";
+
+    /** Initial size of the scan buffer; it grows if a single tag does not fit. */
+    private static final int SCAN_BUFFER_SIZE = 256 * 1024;
+
+    /** Bytes at each end of the customers file covered by the checksum in the saved index. */
+    private static final int STAMP_BLOCK_SIZE = 64 * 1024;
+
+    private static final byte[] CUSTOMER_START_TAG = "<Customer".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] CUSTOMER_END_TAG = "</Customer".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] XML_DECLARATION = "<?xml".getBytes(StandardCharsets.US_ASCII);
+
+    private final String filePath;
+
+    /** Name of the character encoding the customers file declares, or {@code null} if it declares none. */
+    private final String encoding;
+
+    /** Customer IDs in ascending order. */
+    private final int[] ids;
+
+    /** Byte offset of each customer's start tag. */
+    private final long[] offsets;
+
+    /** Byte length of each customer's element, from start tag to end tag. */
+    private final int[] lengths;
+
+    /** Whether the index was read from its saved file instead of scanning the customers file. */
+    private final boolean loadedFromDisk;
+
+    /** The customers file, opened on the first lookup. */
+    private RandomAccessFile customerFile;
+
+    private CustomerOffsetIndex(String filePath, String encoding, int[] ids, long[] offsets, int[] lengths,
+            boolean loadedFromDisk) {
+        this.filePath = filePath;
+        this.encoding = encoding;
+        this.ids = ids;
+        this.offsets = offsets;
+        this.lengths = lengths;
+        this.loadedFromDisk = loadedFromDisk;
+    }
+
+    /**
+     * Opens the offset index of a customers file, reading the saved index if it is up to
+     * date and otherwise scanning the file and saving a new one. Failing to save the
+     * index is reported but does not prevent lookups.
+     *
+     * @param filePath The customers XML file.
+     * @return The index.
+     * @throws IOException If the customers file cannot be read.
+     */
+    public static CustomerOffsetIndex open(String filePath) throws IOException {
+        File indexFile = new File(filePath + INDEX_SUFFIX);
+        FileStamp fileStamp = FileStamp.of(filePath);
+
+        if (indexFile.isFile()) {
+            try {
+                CustomerOffsetIndex savedIndex = load(filePath, indexFile, fileStamp);
+                if (savedIndex != null) {
+                    return savedIndex;
+                }
+            } catch (IOException e) {
+                // An unreadable index is rebuilt below
+                System.err.println("Error reading customer index " + indexFile + ": " + e.getMessage());
+            }
+        }
+
+        CustomerOffsetIndex index = scan(filePath);
+        try {
+            index.save(indexFile, fileStamp);
+        } catch (IOException e) {
+            System.err.println("Error saving customer index " + indexFile + ": " + e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Scans a customers file for the offsets of its "Customer" elements.
+     *
+     * @param filePath The customers XML file.
+     * @return The index, not yet saved.
+     * @throws IOException If the file cannot be read.
+     */
+    public static CustomerOffsetIndex scan(String filePath) throws IOException {
+        int count = 0;
+        int[] ids = new int[1024];
+        long[] offsets = new long[1024];
+        int[] lengths = new int[1024];
+        String encoding = null;
+
+        try (InputStream input = CustomerStreamReader.openFile(filePath)) {
+            byte[] buffer = new byte[SCAN_BUFFER_SIZE];
+            long bufferOffset = 0;
+            int bufferEnd = 0;
+            int position = 0;
+            boolean endOfFile = false;
+
+            long openOffset = -1;
+            int openID = 0;
+            boolean firstTag = true;
+
+            while (true) {
+                int tagStart = indexOf(buffer, (byte) '<', position, bufferEnd);
+                int tagEnd = tagStart < 0 ? -1 : indexOf(buffer, (byte) '>', tagStart, bufferEnd);
+                if (tagEnd < 0) {
+                    if (endOfFile) {
+                        break;
+                    }
+                    // Keep any partial tag and read more
+                    int keepFrom = tagStart < 0 ? bufferEnd : tagStart;
+                    if (keepFrom == 0 && bufferEnd == buffer.length) {
+                        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                    }
+                    System.arraycopy(buffer, keepFrom, buffer, 0, bufferEnd - keepFrom);
+                    bufferOffset += keepFrom;
+                    bufferEnd -= keepFrom;
+                    position = 0;
+
+                    int read = input.read(buffer, bufferEnd, buffer.length - bufferEnd);
+                    if (read < 0) {
+                        endOfFile = true;
+                    } else {
+                        bufferEnd += read;
+                    }
+                    continue;
+                }
+
+                // Only the very first tag can be the XML declaration
+                if (firstTag) {
+                    firstTag = false;
+                    if (isTag(buffer, tagStart, tagEnd, XML_DECLARATION)) {
+                        encoding = parseAttribute(buffer, tagStart + XML_DECLARATION.length, tagEnd, "encoding");
+                    }
+                }
+
+                boolean startTag = isTag(buffer, tagStart, tagEnd, CUSTOMER_START_TAG);
+                if (startTag) {
+                    openOffset = bufferOffset + tagStart;
+                    openID = parseID(buffer, tagStart + CUSTOMER_START_TAG.length, tagEnd);
+                }
+                // A self-closing start tag is the whole element
+                if ((startTag && buffer[tagEnd - 1] == '/')
+                        || (isTag(buffer, tagStart, tagEnd, CUSTOMER_END_TAG) && openOffset >= 0)) {
+                    if (count == ids.length) {
+                        ids = Arrays.copyOf(ids, count * 2);
+                        offsets = Arrays.copyOf(offsets, count * 2);
+                        lengths = Arrays.copyOf(lengths, count * 2);
+                    }
+                    ids[count] = openID;
+                    offsets[count] = openOffset;
+                    lengths[count] = Math.toIntExact(bufferOffset + tagEnd + 1 - openOffset);
+                    count++;
+                    openOffset = -1;
+                }
+                position = tagEnd + 1;
+            }
+
+        }
+
+        return sortedByID(filePath, encoding, ids, offsets, lengths, count);
+    }
+
+    /**
+     * Reads a saved index.
+     *
+     * @return The index, or {@code null} if it was made for a different version of the file
+     *         or in an older layout.
+     */
+    private static CustomerOffsetIndex load(String filePath, File indexFile, FileStamp fileStamp)
+            throws IOException {
+        try (DataInputStream input = new DataInputStream(
+                new BufferedInputStream(new FileInputStream(indexFile), SCAN_BUFFER_SIZE))) {
+            if (input.readInt() != MAGIC || input.readInt() != FORMAT_VERSION || !fileStamp.matches(input)) {
+                return null;
+            }
+
+            String encoding = input.readUTF();
+            int count = input.readInt();
+            int[] ids = new int[count];
+            long[] offsets = new long[count];
+            int[] lengths = new int[count];
+            for (int i = 0; i < count; i++) {
+                ids[i] = input.readInt();
+                offsets[i] = input.readLong();
+                lengths[i] = input.readInt();
+            }
+            return new CustomerOffsetIndex(filePath, encoding.isEmpty() ? null : encoding, ids, offsets, lengths,
+                    true);
+        }
+    }
+
+    /**
+     * Saves the index, recording the stamp of the customers file it was built from. The
+     * saved file is replaced atomically, so a concurrent run never reads a partial index.
+     */
+    private void save(File indexFile, FileStamp fileStamp) throws IOException {
+        try (AtomicFileOutput fileOutput = new AtomicFileOutput(indexFile.getPath());
+                DataOutputStream output = new DataOutputStream(fileOutput)) {
+            output.writeInt(MAGIC);
+            output.writeInt(FORMAT_VERSION);
+            fileStamp.write(output);
+            output.writeUTF(encoding == null ? "" : encoding);
+            output.writeInt(ids.length);
+            for (int i = 0; i < ids.length; i++) {
+                output.writeInt(ids[i]);
+                output.writeLong(offsets[i]);
+                output.writeInt(lengths[i]);
+            }
+            output.flush();
+            fileOutput.commit();
+        }
+    }
+
+    /**
+     * Reads and decodes the customer with the given ID.
+     *
+     * @param intID The customer ID.
+     * @return The customer, or {@code null} if no customer has the ID.
+     * @throws Exception If the customer cannot be read or decoded.
+     */
+    public CustomerRecord get(int intID) throws Exception {
+        int entry = Arrays.binarySearch(ids, intID);
+        if (entry < 0) {
+            return null;
+        }
+
+        byte[] element = new byte[lengths[entry]];
+        synchronized (this) {
+            if (customerFile == null) {
+                customerFile = new RandomAccessFile(filePath, "r");
+            }
+            customerFile.seek(offsets[entry]);
+            customerFile.readFully(element);
+        }
+
+        // The element has no XML declaration of its own, so give the reader the file's encoding
+        try (CustomerStreamReader reader = new CustomerStreamReader(new ByteArrayInputStream(element),
+                encoding == null ? "UTF-8" : encoding)) {
+            return reader.nextRecord();
+        }
+    }
+
+    /**
+     * Checks whether a customer ID is in the index.
+     *
+     * @param intID The customer ID.
+     * @return {@code true} if a customer has the ID.
+     */
+    public boolean contains(int intID) {
+        return Arrays.binarySearch(ids, intID) >= 0;
+    }
+
+    /**
+     * Gets the number of customers in the index.
+     *
+     * @return The number of customers.
+     */
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Tells whether the index was read from its saved file.
+     *
+     * @return {@code true} if the saved index was up to date, {@code false} if the
+     *         customers file was scanned.
+     */
+    public boolean isLoadedFromDisk() {
+        return loadedFromDisk;
+    }
+
+    /**
+     * Closes the customers file if a lookup opened it.
+     *
+     * @throws IOException If the file cannot be closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (customerFile != null) {
+            customerFile.close();
+            customerFile = null;
+        }
+    }
+
+    /**
+     * Orders the scanned entries by ID. Each ID is packed with its entry number into one
+     * {@code long} so that a primitive sort does the work.
+     */
+    private static CustomerOffsetIndex sortedByID(String filePath, String encoding, int[] ids, long[] offsets,
+            int[] lengths, int count) {
+        long[] order = new long[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = ((long) ids[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        int[] sortedIDs = new int[count];
+        long[] sortedOffsets = new long[count];
+        int[] sortedLengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            int entry = (int) order[i];
+            sortedIDs[i] = ids[entry];
+            sortedOffsets[i] = offsets[entry];
+            sortedLengths[i] = lengths[entry];
+        }
+        return new CustomerOffsetIndex(filePath, encoding, sortedIDs, sortedOffsets, sortedLengths, false);
+    }
+
+    /**
+     * Checks whether the tag between {@code tagStart} and {@code tagEnd} has the given
+     * name, followed by whitespace or the end of the tag.
+     */
+    private static boolean isTag(byte[] buffer, int tagStart, int tagEnd, byte[] tagName) {
+        if (tagEnd - tagStart < tagName.length) {
+            return false;
+        }
+        for (int i = 0; i < tagName.length; i++) {
+            if (buffer[tagStart + i] != tagName[i]) {
+                return false;
+            }
+        }
+        byte next = buffer[tagStart + tagName.length];
+        return next == '>' || next == '/' || next == ' ' || next == '\t' || next == '\r' || next == '\n';
+    }
+
+    /**
+     * Parses the ID attribute of a customer start tag.
+     *
+     * @return The ID, or 0 if the tag has no valid ID attribute.
+     */
+    private static int parseID(byte[] buffer, int from, int tagEnd) {
+        String value = parseAttribute(buffer, from, tagEnd, "ID");
+        try {
+            return value == null ? 0 : Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Finds the value of an attribute in the rest of a tag.
+     *
+     * @return The value, or {@code null} if the tag has no such attribute.
+     */
+    private static String parseAttribute(byte[] buffer, int from, int tagEnd, String attributeName) {
+        String attributes = new String(buffer, from, tagEnd - from, StandardCharsets.ISO_8859_1);
+        String prefix = attributeName + "=";
+        int nameStart = attributes.indexOf(prefix);
+        while (nameStart > 0 && !Character.isWhitespace(attributes.charAt(nameStart - 1))) {
+            nameStart = attributes.indexOf(prefix, nameStart + 1);
+        }
+        int valueStart = nameStart + prefix.length() + 1;
+        if (nameStart <= 0 || valueStart > attributes.length()) {
+            return null;
+        }
+        int valueEnd = attributes.indexOf(attributes.charAt(valueStart - 1), valueStart);
+        return valueEnd < 0 ? null : attributes.substring(valueStart, valueEnd);
+    }
+
+    /**
+     * Identifies one version of a customers file. Size and modification time alone miss
+     * a rewrite within the timestamp resolution of the file system that keeps the size,
+     * so the stamp also holds the file key and a CRC-32 of the first and last
+     * {@link #STAMP_BLOCK_SIZE} bytes, where the root element and the most recently
+     * appended customers are.
+     */
+    private static final class FileStamp {
+        private final long size;
+        private final long lastModifiedNanos;
+        private final String fileKey;
+        private final long checksum;
+
+        private FileStamp(long size, long lastModifiedNanos, String fileKey, long checksum) {
+            this.size = size;
+            this.lastModifiedNanos = lastModifiedNanos;
+            this.fileKey = fileKey;
+            this.checksum = checksum;
+        }
+
+        /**
+         * Takes the stamp of a file as it is now.
+         *
+         * @throws IOException If the file cannot be read.
+         */
+        static FileStamp of(String filePath) throws IOException {
+            Path path = Paths.get(filePath);
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            long size = attributes.size();
+
+            CRC32 crc = new CRC32();
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                ByteBuffer block = ByteBuffer.allocate(STAMP_BLOCK_SIZE);
+                updateChecksum(crc, channel, block, 0);
+                if (size > STAMP_BLOCK_SIZE) {
+                    updateChecksum(crc, channel, block, Math.max(STAMP_BLOCK_SIZE, size - STAMP_BLOCK_SIZE));
+                }
+            }
+            return new FileStamp(size, attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS),
+                    String.valueOf(attributes.fileKey()), crc.getValue());
+        }
+
+        private static void updateChecksum(CRC32 crc, FileChannel channel, ByteBuffer block, long position)
+                throws IOException {
+            block.clear();
+            while (block.hasRemaining()) {
+                int read = channel.read(block, position + block.position());
+                if (read < 0) {
+                    break;
+                }
+            }
+            block.flip();
+            crc.update(block);
+        }
+
+        void write(DataOutputStream output) throws IOException {
+            output.writeLong(size);
+            output.writeLong(lastModifiedNanos);
+            output.writeUTF(fileKey);
+            output.writeLong(checksum);
+        }
+
+        /**
+         * Reads a stamp written by {@link #write(DataOutputStream)} and compares it with
+         * this one.
+         */
+        boolean matches(DataInputStream input) throws IOException {
+            return input.readLong() == size
+                    && input.readLong() == lastModifiedNanos
+                    && input.readUTF().equals(fileKey)
+                    && input.readLong() == checksum;
+        }
+    }
+
+    private static int indexOf(byte[] buffer, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
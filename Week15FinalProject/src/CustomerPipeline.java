@@ -0,0 +1,331 @@
+/**
+ * CustomerPipeline modifies a customers XML file in three concurrent stages instead of
+ * parsing, modifying and saving one after another:
+ *
+ * <ol>
+ * <li>a reader thread streams customers from the input file into numbered batches,</li>
+ * <li>a pool of transform workers adds each customer's modified data to its record, and</li>
+ * <li>a writer thread serializes the batches to the output file.</li>
+ * </ol>
+ *
+ * <p>The stages are connected by bounded lock-free {@link RingBuffer}s, so parsing,
+ * transforming and writing overlap and a slow stage holds back the others without
+ * letting memory grow. Workers may finish batches out of order; the writer holds early
+ * batches back and writes them strictly by sequence number, so the output keeps the
+ * input order. The reader takes a permit for every batch it starts and the writer
+ * returns it once the batch is written, so no more than the ring capacity of batches is
+ * ever in flight. A slow worker therefore holds back the reader instead of letting the
+ * writer collect an unbounded number of early batches. Throughput approaches that of
+ * the slowest stage rather than the sum of all three.</p>
+ *
+ * <p>If any stage fails, the other stages are interrupted and the ring buffers cancelled,
+ * so no stage is left waiting for a batch that will never come. The output file is left
+ * as it was, and {@link #run()} reports the first failure.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class CustomerPipeline {
+
+    /** Default number of customers per batch. */
+    public static final int DEFAULT_BATCH_SIZE = 512;
+
+    /** Default number of batches each ring buffer holds. */
+    public static final int DEFAULT_RING_CAPACITY = 16;
+
+    private final String inputPath;
+    private final String outputPath;
+    private final CModifiedCustomerData[] modifiedCustomerDataArray;
+    private final int workerCount;
+    private final int batchSize;
+
+    private final RingBuffer<Batch> readRing;
+    private final RingBuffer<Batch> writeRing;
+
+    /** Number of batches that may be between the reader and the writer at once. */
+    private final int reorderWindow;
+
+    /** Permits for batches in flight; taken by the reader, returned by the writer. */
+    private final Semaphore inFlightPermits;
+
+    /** The first failure of any stage. */
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private final List<Thread> stageThreads = new ArrayList<>();
+
+    private long recordsWritten;
+
+    /** Receives every record written, or {@code null} if no index is kept. */
+    private CustomerIdIndex idIndex;
+
+    /**
+     * A numbered batch of customers travelling through the pipeline. A batch without
+     * customers marks the end of a worker's input or output.
+     */
+    private static final class Batch {
+        final long sequence;
+        final int firstIndex;
+        final CustomerRecord[] customers;
+        CustomerRecord[] modifiedCustomers;
+
+        Batch(long sequence, int firstIndex, CustomerRecord[] customers) {
+            this.sequence = sequence;
+            this.firstIndex = firstIndex;
+            this.customers = customers;
+        }
+
+        boolean isEndMarker() {
+            return customers == null;
+        }
+    }
+
+    /** Marks the end of the input for a worker, or the end of a worker's output. */
+    private static final Batch END_MARKER = new Batch(-1, -1, null);
+
+    /**
+     * Creates a pipeline with the default batch size and ring capacity.
+     *
+     * @param inputPath The customers XML file to modify.
+     * @param outputPath The file the modified customers are written to.
+     * @param modifiedCustomerDataArray The modified data; element i applies to the i-th customer.
+     * @param workerCount The number of transform workers; at least one.
+     */
+    public CustomerPipeline(String inputPath, String outputPath,
+            CModifiedCustomerData[] modifiedCustomerDataArray, int workerCount) {
+        this(inputPath, outputPath, modifiedCustomerDataArray, workerCount, DEFAULT_BATCH_SIZE, DEFAULT_RING_CAPACITY);
+    }
+
+    /**
+     * Creates a pipeline.
+     *
+     * @param inputPath The customers XML file to modify.
+     * @param outputPath The file the modified customers are written to.
+     * @param modifiedCustomerDataArray The modified data; element i applies to the i-th customer.
+     * @param workerCount The number of transform workers; at least one.
+     * @param batchSize The number of customers per batch; at least one.
+     * @param ringCapacity The number of batches each ring buffer holds, which is also the
+     *        most batches in flight at once; a power of two.
+     * @throws IllegalArgumentException If a count or size is out of range.
+     */
+    public CustomerPipeline(String inputPath, String outputPath, CModifiedCustomerData[] modifiedCustomerDataArray,
+            int workerCount, int batchSize, int ringCapacity) {
+        if (workerCount < 1) {
+            throw new IllegalArgumentException("Worker count must be positive: " + workerCount);
+        }
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+        }
+        this.inputPath = inputPath;
+        this.outputPath = outputPath;
+        this.modifiedCustomerDataArray = modifiedCustomerDataArray.clone();
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.readRing = new RingBuffer<>(ringCapacity);
+        this.writeRing = new RingBuffer<>(ringCapacity);
+        this.reorderWindow = ringCapacity;
+        this.inFlightPermits = new Semaphore(ringCapacity);
+    }
+
+    /**
+     * Sets an index to be updated with every modified record, so lookups by ID see the
+     * modified data once the run completes. The records are added only after the output
+     * file has been committed; a run that fails leaves the index as it was. The index is
+     * only touched by the writer thread.
+     *
+     * @param idIndex The index to update, or {@code null} to keep none.
+     */
+    public void setIdIndex(CustomerIdIndex idIndex) {
+        this.idIndex = idIndex;
+    }
+
+    /**
+     * Runs the pipeline to completion.
+     *
+     * @return The number of customers written.
+     * @throws Exception The first failure of any stage.
+     */
+    public long run() throws Exception {
+        // Create every stage before starting any, so a stage that fails at once can
+        // still stop all the others
+        addStage("customer-pipeline-reader", this::readStage);
+        for (int i = 0; i < workerCount; i++) {
+            addStage("customer-pipeline-worker-" + i, this::transformStage);
+        }
+        addStage("customer-pipeline-writer", this::writeStage);
+
+        for (Thread stageThread : stageThreads) {
+            stageThread.start();
+        }
+        for (Thread stageThread : stageThreads) {
+            stageThread.join();
+        }
+
+        Throwable firstFailure = failure.get();
+        if (firstFailure instanceof Exception) {
+            throw (Exception) firstFailure;
+        } else if (firstFailure != null) {
+            throw new IllegalStateException("Customer pipeline failed: " + firstFailure, firstFailure);
+        }
+        return recordsWritten;
+    }
+
+    /**
+     * A stage body that may throw any exception.
+     */
+    private interface Stage {
+        void run() throws Exception;
+    }
+
+    private void addStage(String threadName, Stage stage) {
+        Thread stageThread = new Thread(() -> {
+            try {
+                stage.run();
+            } catch (InterruptedException e) {
+                if (failure.get() == null) {
+                    fail(e);
+                }
+            } catch (Throwable t) {
+                fail(t);
+            }
+        }, threadName);
+        stageThreads.add(stageThread);
+    }
+
+    /**
+     * Records the first failure and stops every stage: waiting stages see the cancelled
+     * ring buffers, and the interrupt stops a stage blocked in file I/O or on a permit.
+     */
+    private void fail(Throwable t) {
+        if (failure.compareAndSet(null, t)) {
+            readRing.cancel();
+            writeRing.cancel();
+            for (Thread stageThread : stageThreads) {
+                if (stageThread != Thread.currentThread()) {
+                    stageThread.interrupt();
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams customers from the input file into numbered batches.
+     */
+    private void readStage() throws Exception {
+        try (CustomerStreamReader reader = new CustomerStreamReader(inputPath)) {
+            long sequence = 0;
+            int customerIndex = 0;
+            CustomerRecord[] customers = new CustomerRecord[batchSize];
+
+            int count;
+            while ((count = reader.nextRecords(customers)) > 0) {
+                if (count < batchSize) {
+                    customers = Arrays.copyOf(customers, count);
+                }
+                inFlightPermits.acquire();
+                readRing.put(new Batch(sequence++, customerIndex, customers));
+                customerIndex += count;
+                customers = new CustomerRecord[batchSize];
+            }
+        }
+
+        for (int i = 0; i < workerCount; i++) {
+            readRing.put(END_MARKER);
+        }
+    }
+
+    /**
+     * Pairs the customers of each batch with their modified data.
+     */
+    private void transformStage() throws Exception {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        Batch batch;
+
+        while (!(batch = readRing.take()).isEndMarker()) {
+            long modifyStart = System.nanoTime();
+            CustomerEvents.ModifyApply modifyEvent =
+                    CustomerEvents.isRecording() ? new CustomerEvents.ModifyApply() : null;
+            if (modifyEvent != null) {
+                modifyEvent.begin();
+            }
+
+            CustomerRecord[] modifiedCustomers = new CustomerRecord[batch.customers.length];
+            CustomerRecord.patchAll(batch.customers, batch.firstIndex, modifiedCustomerDataArray, modifiedCustomers);
+            batch.modifiedCustomers = modifiedCustomers;
+
+            metrics.recordStage(CustomerMetrics.Stage.MODIFY, System.nanoTime() - modifyStart);
+            metrics.addRecordsModified(modifiedCustomers.length);
+            if (modifyEvent != null) {
+                modifyEvent.end();
+                if (modifyEvent.shouldCommit()) {
+                    modifyEvent.recordCount = modifiedCustomers.length;
+                    modifyEvent.commit();
+                }
+            }
+
+            writeRing.put(batch);
+        }
+        writeRing.put(END_MARKER);
+    }
+
+    /**
+     * Writes the transformed batches to the output file in sequence order. At most
+     * {@link #reorderWindow} batches are in flight, so every batch that arrives early
+     * has a slot of its own in the reorder array.
+     */
+    private void writeStage() throws Exception {
+        Batch[] earlyBatches = new Batch[reorderWindow];
+        int earlyCount = 0;
+        List<CustomerRecord[]> indexUpdates = idIndex != null ? new ArrayList<>() : null;
+        long nextSequence = 0;
+        int finishedWorkers = 0;
+
+        try (CustomerStreamWriter writer = new CustomerStreamWriter(outputPath)) {
+            while (finishedWorkers < workerCount) {
+                Batch batch = writeRing.take();
+                if (batch.isEndMarker()) {
+                    finishedWorkers++;
+                    continue;
+                }
+                earlyBatches[(int) (batch.sequence % reorderWindow)] = batch;
+                earlyCount++;
+
+                // Write every batch that is now next in line
+                Batch nextBatch;
+                while ((nextBatch = earlyBatches[(int) (nextSequence % reorderWindow)]) != null) {
+                    earlyBatches[(int) (nextSequence % reorderWindow)] = null;
+                    earlyCount--;
+                    for (CustomerRecord record : nextBatch.modifiedCustomers) {
+                        writer.write(record);
+                    }
+                    if (indexUpdates != null) {
+                        indexUpdates.add(nextBatch.modifiedCustomers);
+                    }
+                    recordsWritten += nextBatch.modifiedCustomers.length;
+                    nextSequence++;
+                    inFlightPermits.release();
+                }
+            }
+
+            if (earlyCount != 0) {
+                throw new IllegalStateException("Customer pipeline lost batch " + nextSequence);
+            }
+            writer.finish();
+        }
+
+        // The output is committed, so the index may now reflect it
+        if (indexUpdates != null) {
+            for (CustomerRecord[] records : indexUpdates) {
+                for (CustomerRecord record : records) {
+                    idIndex.put(record);
+                }
+            }
+        }
+    }
+}
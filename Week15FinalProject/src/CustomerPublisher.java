@@ -0,0 +1,159 @@
+/**
+ * CustomerPublisher is a {@link Flow.Publisher} of the customers in an XML file. Records
+ * are read with a {@link CustomerStreamReader} only as the subscriber requests them, so a
+ * slow subscriber throttles the parser instead of letting buffered records pile up in
+ * memory.
+ *
+ * <p>The file is read on the given executor. A publisher reads its file once and accepts
+ * a single subscriber; later subscribers receive an {@link IllegalStateException}.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class CustomerPublisher implements Flow.Publisher<CustomerRecord> {
+
+    /** The customers XML file to publish. */
+    private final String inputPath;
+
+    /** Runs the reading and delivery of records. */
+    private final Executor executor;
+
+    /** Set once the single subscriber has subscribed. */
+    private final AtomicBoolean subscribed = new AtomicBoolean();
+
+    /**
+     * Creates a publisher of the customers in the given file.
+     *
+     * @param inputPath The customers XML file.
+     * @param executor Runs the reading and delivery of records.
+     */
+    public CustomerPublisher(String inputPath, Executor executor) {
+        this.inputPath = inputPath;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super CustomerRecord> subscriber) {
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("A customer publisher accepts only one subscriber"));
+            return;
+        }
+        subscriber.onSubscribe(new ReaderSubscription(subscriber));
+    }
+
+    /**
+     * Delivers records to the subscriber as demand allows. All reading and signalling
+     * happens in {@link #drain()}, which only one thread runs at a time.
+     */
+    private final class ReaderSubscription implements Flow.Subscription {
+        private final Flow.Subscriber<? super CustomerRecord> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile Throwable invalidRequest;
+
+        /** Only accessed from {@link #drain()}. */
+        private CustomerStreamReader reader;
+        private boolean done;
+
+        ReaderSubscription(Flow.Subscriber<? super CustomerRecord> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("Requested " + n + " customers; must be positive");
+            } else {
+                demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            }
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            scheduleDrain();
+        }
+
+        private void scheduleDrain() {
+            if (pendingDrains.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    try {
+                        if (cancelled) {
+                            finish();
+                        } else if (invalidRequest != null) {
+                            finish();
+                            subscriber.onError(invalidRequest);
+                        } else {
+                            emit();
+                        }
+                    } catch (Exception e) {
+                        finish();
+                        subscriber.onError(e);
+                    }
+                }
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        /**
+         * Reads and delivers records while there is demand.
+         */
+        private void emit() throws Exception {
+            if (reader == null) {
+                reader = new CustomerStreamReader(inputPath);
+            }
+
+            while (demand.get() > 0 && !cancelled && invalidRequest == null) {
+                CustomerRecord customer = reader.nextRecord();
+                if (customer == null) {
+                    finish();
+                    subscriber.onComplete();
+                    return;
+                }
+                demand.decrementAndGet();
+                subscriber.onNext(customer);
+            }
+        }
+
+        /**
+         * Marks the subscription finished and closes the reader.
+         */
+        private void finish() {
+            done = true;
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (IOException e) {
+                    System.err.println("Error closing customer file: " + e.getMessage());
+                }
+                reader = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,416 @@
+/**
+ * CustomerRecord is an immutable customer: the seven fields of {@link CCustomers} plus
+ * the phone, contact name and email address that {@link CModifiedCustomerData} adds to
+ * it. Because a record never changes after it is built, it can be handed from thread to
+ * thread, as the flow and pipeline stages do, without copying or locking.
+ *
+ * <p>Records are built with a {@link Builder}, or straight from the field slices decoded
+ * by {@link CustomerStreamReader} with {@link #fromFields(int, String[], int)} and, in
+ * bulk, {@link #fromFieldBlock(int[], String[], int, CustomerRecord[])}. The slices are
+ * laid out in the order of {@link #FIELD_NAMES}. {@link #toCustomer()} converts a record
+ * back to a {@link CCustomers} for the menu code, which works on the mutable bean.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.Objects;
+
+public final class CustomerRecord {
+
+    /** Element names of the customer fields, in field slice order. */
+    static final String[] FIELD_NAMES = {
+        "name", "type", "address", "city", "state", "zip", "phone", "contactName", "email"
+    };
+
+    /** Number of fields in one field slice. */
+    public static final int FIELD_COUNT = FIELD_NAMES.length;
+
+    private final int intID;
+    private final String strName;
+    private final String strType;
+    private final String strAddress;
+    private final String strCity;
+    private final String strState;
+    private final String strZip;
+
+    /** The contact data; each is {@code null} when the customer has none. */
+    private final String strPhoneNumber;
+    private final String strContactName;
+    private final String strEmailAddress;
+
+    private CustomerRecord(int intID, String strName, String strType, String strAddress, String strCity,
+            String strState, String strZip, String strPhoneNumber, String strContactName, String strEmailAddress) {
+        this.intID = intID;
+        this.strName = emptyIfNull(strName);
+        this.strType = emptyIfNull(strType);
+        this.strAddress = emptyIfNull(strAddress);
+        this.strCity = emptyIfNull(strCity);
+        this.strState = emptyIfNull(strState);
+        this.strZip = emptyIfNull(strZip);
+        this.strPhoneNumber = strPhoneNumber;
+        this.strContactName = strContactName;
+        this.strEmailAddress = strEmailAddress;
+    }
+
+    /**
+     * Creates a record from one field slice.
+     *
+     * @param intID The customer ID.
+     * @param fields The field values, in {@link #FIELD_NAMES} order; {@code null} for a
+     *        missing field.
+     * @param offset Index of the slice's first field in {@code fields}.
+     * @return The record.
+     */
+    public static CustomerRecord fromFields(int intID, String[] fields, int offset) {
+        return new CustomerRecord(intID, fields[offset], fields[offset + 1], fields[offset + 2],
+                fields[offset + 3], fields[offset + 4], fields[offset + 5],
+                fields[offset + 6], fields[offset + 7], fields[offset + 8]);
+    }
+
+    /**
+     * Creates records from a block of consecutive field slices: record i takes its ID
+     * from {@code ids[i]} and its fields from {@code fields[i * FIELD_COUNT]} onwards.
+     *
+     * @param ids The customer IDs.
+     * @param fields The field slices, one after another.
+     * @param count The number of records to create.
+     * @param records Receives the records, starting at index 0.
+     * @return The number of records created.
+     */
+    public static int fromFieldBlock(int[] ids, String[] fields, int count, CustomerRecord[] records) {
+        for (int i = 0; i < count; i++) {
+            records[i] = fromFields(ids[i], fields, i * FIELD_COUNT);
+        }
+        return count;
+    }
+
+    /**
+     * Creates records pairing consecutive customers with their modified data, where
+     * element i of {@code modifiedCustomerDataArray} applies to the i-th customer of the
+     * whole input.
+     *
+     * @param customers The customers.
+     * @param firstIndex Position of the first customer in the whole input.
+     * @param modifiedCustomerDataArray The modified data of the whole input.
+     * @param records Receives the records, starting at index 0.
+     * @return The number of records created.
+     */
+    public static int patchAll(CustomerRecord[] customers, long firstIndex,
+            CModifiedCustomerData[] modifiedCustomerDataArray, CustomerRecord[] records) {
+        for (int i = 0; i < customers.length; i++) {
+            long customerIndex = firstIndex + i;
+            records[i] = customerIndex < modifiedCustomerDataArray.length
+                    ? customers[i].withModifiedData(modifiedCustomerDataArray[(int) customerIndex]) : customers[i];
+        }
+        return customers.length;
+    }
+
+    /**
+     * Returns a copy of this record with the contact data of the given modified data.
+     *
+     * @param modifiedData The modified data, or {@code null} to remove the contact data.
+     * @return The new record.
+     */
+    public CustomerRecord withModifiedData(CModifiedCustomerData modifiedData) {
+        return new CustomerRecord(intID, strName, strType, strAddress, strCity, strState, strZip,
+                modifiedData == null ? null : modifiedData.getPhoneNumber(),
+                modifiedData == null ? null : modifiedData.getContactName(),
+                modifiedData == null ? null : modifiedData.getEmailAddress());
+    }
+
+    /**
+     * Creates a builder initialized with the fields of this record.
+     *
+     * @return The builder.
+     */
+    public Builder toBuilder() {
+        return new Builder().id(intID).name(strName).type(strType).address(strAddress).city(strCity)
+                .state(strState).zipcode(strZip).phoneNumber(strPhoneNumber).contactName(strContactName)
+                .emailAddress(strEmailAddress);
+    }
+
+    /**
+     * Creates a mutable customer with the seven customer fields of this record.
+     *
+     * @return The customer.
+     */
+    public CCustomers toCustomer() {
+        return new CCustomers(intID, strName, strType, strAddress, strCity, strState, strZip);
+    }
+
+    /**
+     * Creates modified customer data with the contact data of this record.
+     *
+     * @return The modified data, or {@code null} if the record has no contact data.
+     */
+    public CModifiedCustomerData toModifiedData() {
+        return hasContactData() ? new CModifiedCustomerData(strPhoneNumber, strContactName, strEmailAddress) : null;
+    }
+
+    /**
+     * Gets the ID of the customer.
+     *
+     * @return The ID of the customer.
+     */
+    public int getID() {
+        return intID;
+    }
+
+    /**
+     * Gets the name of the customer.
+     *
+     * @return The name of the customer.
+     */
+    public String getName() {
+        return strName;
+    }
+
+    /**
+     * Gets the type of the customer.
+     *
+     * @return The type of the customer.
+     */
+    public String getType() {
+        return strType;
+    }
+
+    /**
+     * Gets the address of the customer.
+     *
+     * @return The address of the customer.
+     */
+    public String getAddress() {
+        return strAddress;
+    }
+
+    /**
+     * Gets the city of the customer.
+     *
+     * @return The city of the customer.
+     */
+    public String getCity() {
+        return strCity;
+    }
+
+    /**
+     * Gets the state of the customer.
+     *
+     * @return The state of the customer.
+     */
+    public String getState() {
+        return strState;
+    }
+
+    /**
+     * Gets the ZIP code of the customer.
+     *
+     * @return The ZIP code of the customer.
+     */
+    public String getZipcode() {
+        return strZip;
+    }
+
+    /**
+     * Gets the customer's phone number.
+     *
+     * @return The phone number, or {@code null} if the customer has none.
+     */
+    public String getPhoneNumber() {
+        return strPhoneNumber;
+    }
+
+    /**
+     * Gets the contact name associated with the customer.
+     *
+     * @return The contact name, or {@code null} if the customer has none.
+     */
+    public String getContactName() {
+        return strContactName;
+    }
+
+    /**
+     * Gets the email address associated with the customer.
+     *
+     * @return The email address, or {@code null} if the customer has none.
+     */
+    public String getEmailAddress() {
+        return strEmailAddress;
+    }
+
+    /**
+     * Tells whether the customer has any contact data.
+     *
+     * @return {@code true} if the phone number, contact name or email address is set.
+     */
+    public boolean hasContactData() {
+        return strPhoneNumber != null || strContactName != null || strEmailAddress != null;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof CustomerRecord)) {
+            return false;
+        }
+        CustomerRecord record = (CustomerRecord) other;
+        return intID == record.intID
+                && strName.equals(record.strName)
+                && strType.equals(record.strType)
+                && strAddress.equals(record.strAddress)
+                && strCity.equals(record.strCity)
+                && strState.equals(record.strState)
+                && strZip.equals(record.strZip)
+                && Objects.equals(strPhoneNumber, record.strPhoneNumber)
+                && Objects.equals(strContactName, record.strContactName)
+                && Objects.equals(strEmailAddress, record.strEmailAddress);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(intID, strName, strType, strAddress, strCity, strState, strZip,
+                strPhoneNumber, strContactName, strEmailAddress);
+    }
+
+    @Override
+    public String toString() {
+        return "CustomerRecord[ID=" + intID + ", name=" + strName + ", type=" + strType
+                + ", address=" + strAddress + ", city=" + strCity + ", state=" + strState
+                + ", zip=" + strZip + (hasContactData() ? ", phone=" + strPhoneNumber
+                + ", contactName=" + strContactName + ", email=" + strEmailAddress : "") + "]";
+    }
+
+    private static String emptyIfNull(String value) {
+        return value == null ? "" : value;
+    }
+
+    /**
+     * Builder collects the fields of a {@link CustomerRecord}. Customer fields left unset
+     * are empty; contact data fields left unset are absent.
+     */
+    public static final class Builder {
+        private int intID;
+        private final String[] fields = new String[FIELD_COUNT];
+
+        /**
+         * Sets the ID of the customer.
+         *
+         * @param intID The ID.
+         * @return This builder.
+         */
+        public Builder id(int intID) {
+            this.intID = intID;
+            return this;
+        }
+
+        /**
+         * Sets the name of the customer.
+         *
+         * @param strName The name.
+         * @return This builder.
+         */
+        public Builder name(String strName) {
+            fields[0] = strName;
+            return this;
+        }
+
+        /**
+         * Sets the type of the customer.
+         *
+         * @param strType The type.
+         * @return This builder.
+         */
+        public Builder type(String strType) {
+            fields[1] = strType;
+            return this;
+        }
+
+        /**
+         * Sets the address of the customer.
+         *
+         * @param strAddress The address.
+         * @return This builder.
+         */
+        public Builder address(String strAddress) {
+            fields[2] = strAddress;
+            return this;
+        }
+
+        /**
+         * Sets the city of the customer.
+         *
+         * @param strCity The city.
+         * @return This builder.
+         */
+        public Builder city(String strCity) {
+            fields[3] = strCity;
+            return this;
+        }
+
+        /**
+         * Sets the state of the customer.
+         *
+         * @param strState The state.
+         * @return This builder.
+         */
+        public Builder state(String strState) {
+            fields[4] = strState;
+            return this;
+        }
+
+        /**
+         * Sets the ZIP code of the customer.
+         *
+         * @param strZip The ZIP code.
+         * @return This builder.
+         */
+        public Builder zipcode(String strZip) {
+            fields[5] = strZip;
+            return this;
+        }
+
+        /**
+         * Sets the customer's phone number.
+         *
+         * @param strPhoneNumber The phone number, or {@code null} for none.
+         * @return This builder.
+         */
+        public Builder phoneNumber(String strPhoneNumber) {
+            fields[6] = strPhoneNumber;
+            return this;
+        }
+
+        /**
+         * Sets the contact name associated with the customer.
+         *
+         * @param strContactName The contact name, or {@code null} for none.
+         * @return This builder.
+         */
+        public Builder contactName(String strContactName) {
+            fields[7] = strContactName;
+            return this;
+        }
+
+        /**
+         * Sets the email address associated with the customer.
+         *
+         * @param strEmailAddress The email address, or {@code null} for none.
+         * @return This builder.
+         */
+        public Builder emailAddress(String strEmailAddress) {
+            fields[8] = strEmailAddress;
+            return this;
+        }
+
+        /**
+         * Builds the record. The builder can be reused afterwards.
+         *
+         * @return The record.
+         */
+        public CustomerRecord build() {
+            return fromFields(intID, fields, 0);
+        }
+    }
+}
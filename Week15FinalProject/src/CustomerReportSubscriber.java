@@ -0,0 +1,28 @@
+/**
+ * CustomerReportSubscriber prints each customer it receives to the console in the
+ * layout of the "View Customers" report, followed by its contact data if it has any.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+public class CustomerReportSubscriber extends CustomerSinkSubscriber<CustomerRecord> {
+
+    /**
+     * Creates a report subscriber.
+     *
+     * @param window The number of customers requested ahead of printing.
+     */
+    public CustomerReportSubscriber(int window) {
+        super(window);
+    }
+
+    @Override
+    protected void consume(CustomerRecord customer) {
+        ViewCustomers.printCustomer(customer);
+    }
+
+    @Override
+    protected void finish() {
+        System.out.flush();
+    }
+}
@@ -0,0 +1,140 @@
+/**
+ * CustomerSinkSubscriber is the base of the subscribers at the end of a customer flow.
+ * It requests items in a bounded window, asking for more only as it finishes consuming
+ * them, so a slow sink slows the whole flow down to its own pace. Completion, and any
+ * error from upstream or from the sink itself, is reported through
+ * {@link #getCompletion()}.
+ *
+ * @param <T> The type of items consumed.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+public abstract class CustomerSinkSubscriber<T> implements Flow.Subscriber<T> {
+
+    /** Default number of items requested ahead of consumption. */
+    public static final int DEFAULT_WINDOW = 64;
+
+    /** Number of items requested ahead of consumption. */
+    private final int window;
+
+    /** Completes with the number of items consumed, or with the error that ended the flow. */
+    private final CompletableFuture<Long> completion = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private long consumedSinceRequest;
+    private long consumedCount;
+
+    /**
+     * Creates a subscriber with the given request window.
+     *
+     * @param window The number of items requested ahead of consumption; at least 2.
+     * @throws IllegalArgumentException If the window is smaller than 2.
+     */
+    protected CustomerSinkSubscriber(int window) {
+        if (window < 2) {
+            throw new IllegalArgumentException("Request window must be at least 2: " + window);
+        }
+        this.window = window;
+    }
+
+    /**
+     * Consumes one item.
+     *
+     * @param item The item.
+     * @throws Exception If the item cannot be consumed; the flow is then cancelled.
+     */
+    protected abstract void consume(T item) throws Exception;
+
+    /**
+     * Releases the sink's resources. Called once, when the flow completes.
+     *
+     * @throws Exception If the sink cannot be finished cleanly.
+     */
+    protected abstract void finish() throws Exception;
+
+    /**
+     * Releases the sink's resources after the flow has failed. Called once, instead of
+     * {@link #finish()}. By default the sink is finished as usual.
+     *
+     * @throws Exception If the sink cannot be released cleanly.
+     */
+    protected void abort() throws Exception {
+        finish();
+    }
+
+    /**
+     * Gets a future that completes when the flow ends.
+     *
+     * @return A future completing with the number of items consumed, or exceptionally
+     *         with the error that ended the flow.
+     */
+    public CompletableFuture<Long> getCompletion() {
+        return completion;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        if (this.subscription != null) {
+            subscription.cancel();
+            return;
+        }
+        this.subscription = subscription;
+        subscription.request(window);
+    }
+
+    @Override
+    public void onNext(T item) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            consume(item);
+        } catch (Exception e) {
+            subscription.cancel();
+            fail(e);
+            return;
+        }
+
+        consumedCount++;
+        // Top the window back up once half of it has been consumed
+        if (++consumedSinceRequest >= window / 2) {
+            subscription.request(consumedSinceRequest);
+            consumedSinceRequest = 0;
+        }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        fail(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            finish();
+            completion.complete(consumedCount);
+        } catch (Exception e) {
+            completion.completeExceptionally(e);
+        }
+    }
+
+    private void fail(Throwable throwable) {
+        if (completion.isDone()) {
+            return;
+        }
+        try {
+            abort();
+        } catch (Exception e) {
+            throwable.addSuppressed(e);
+        }
+        completion.completeExceptionally(throwable);
+    }
+}
@@ -0,0 +1,75 @@
+/**
+ * CustomerSortKey lists the fields customer records can be sorted by. Each key provides
+ * a comparator that orders customers by that field and breaks ties by customer ID, so
+ * the resulting order is always fully deterministic.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.Comparator;
+
+public enum CustomerSortKey {
+
+    /** Orders customers by their numeric ID. */
+    ID("id", Comparator.comparingInt(CustomerRecord::getID)),
+
+    /** Orders customers by name, then ID. */
+    NAME("name", Comparator.comparing(CustomerRecord::getName)
+            .thenComparingInt(CustomerRecord::getID)),
+
+    /** Orders customers by state, then city, then ID. */
+    STATE_CITY("state-city", Comparator.comparing(CustomerRecord::getState)
+            .thenComparing(CustomerRecord::getCity)
+            .thenComparingInt(CustomerRecord::getID)),
+
+    /** Orders customers by ZIP code, then ID. */
+    ZIP("zip", Comparator.comparing(CustomerRecord::getZipcode)
+            .thenComparingInt(CustomerRecord::getID));
+
+    /** The name used to select this key on the command line. */
+    private final String strKeyName;
+
+    /** The comparator implementing this sort order. */
+    private final Comparator<CustomerRecord> comparator;
+
+    CustomerSortKey(String strKeyName, Comparator<CustomerRecord> comparator) {
+        this.strKeyName = strKeyName;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Gets the comparator implementing this sort order.
+     *
+     * @return The comparator for this key.
+     */
+    public Comparator<CustomerRecord> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Gets the name used to select this key on the command line.
+     *
+     * @return The key name, for example "state-city".
+     */
+    public String getKeyName() {
+        return strKeyName;
+    }
+
+    /**
+     * Looks up a sort key by its command-line name (case-insensitive).
+     *
+     * @param strKeyName The key name, for example "id" or "state-city".
+     * @return The matching sort key.
+     * @throws IllegalArgumentException If no key has the given name.
+     */
+    public static CustomerSortKey fromKeyName(String strKeyName) {
+        for (CustomerSortKey sortKey : values()) {
+            if (sortKey.strKeyName.equalsIgnoreCase(strKeyName)) {
+                return sortKey;
+            }
+        }
+        throw new IllegalArgumentException("Unknown sort key: " + strKeyName
+                + " (expected id, name, state-city or zip)");
+    }
+}
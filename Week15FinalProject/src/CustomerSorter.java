@@ -0,0 +1,392 @@
+/**
+ * CustomerSorter sorts the customers of an XML file by a {@link CustomerSortKey} using an
+ * external merge sort. Customers are streamed from the input file into an in-memory
+ * buffer; whenever the estimated size of the buffer exceeds the memory budget, the
+ * buffer is sorted and spilled to a temporary run file. The runs are then combined with a
+ * k-way merge, so files far larger than the heap can be sorted. When everything fits in
+ * the budget no temporary files are written at all.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+import javax.xml.stream.XMLStreamException;
+
+public class CustomerSorter {
+
+    /** Default number of bytes of customer data held in memory before a run is spilled. */
+    public static final long DEFAULT_MEMORY_BUDGET = 64L * 1024 * 1024;
+
+    /** Maximum number of runs merged at once; more runs are merged in several passes. */
+    private static final int MAX_MERGE_FAN_IN = 64;
+
+    /** Buffer size of each run file reader and writer. */
+    private static final int RUN_BUFFER_SIZE = 64 * 1024;
+
+    /** Marker written before every record in a run file. */
+    private static final byte RECORD_MARKER = 1;
+
+    /** Marker written after the last record in a run file. */
+    private static final byte END_MARKER = 0;
+
+    /** The order the customers are sorted in. */
+    private final Comparator<CustomerRecord> comparator;
+
+    /** Estimated number of bytes of customer data kept in memory before spilling. */
+    private final long memoryBudget;
+
+    /** Directory for temporary run files, or {@code null} for the system default. */
+    private final File tempDirectory;
+
+    /**
+     * Receives sorted customers. Unlike {@link Consumer} it may throw the checked
+     * exceptions raised by file and XML output.
+     */
+    private interface CustomerSink {
+        void accept(CustomerRecord customer) throws IOException, XMLStreamException;
+    }
+
+    /**
+     * Creates a sorter with the default memory budget and temporary directory.
+     *
+     * @param sortKey The field to sort customers by.
+     */
+    public CustomerSorter(CustomerSortKey sortKey) {
+        this(sortKey, DEFAULT_MEMORY_BUDGET, null);
+    }
+
+    /**
+     * Creates a sorter with the given memory budget and temporary directory.
+     *
+     * @param sortKey The field to sort customers by.
+     * @param memoryBudget Estimated number of bytes of customer data kept in memory
+     *                     before a sorted run is spilled to disk.
+     * @param tempDirectory Directory for temporary run files, or {@code null} for the
+     *                      system default.
+     * @throws IllegalArgumentException If the memory budget is not positive.
+     */
+    public CustomerSorter(CustomerSortKey sortKey, long memoryBudget, File tempDirectory) {
+        if (memoryBudget <= 0) {
+            throw new IllegalArgumentException("Memory budget must be positive: " + memoryBudget);
+        }
+        this.comparator = sortKey.comparator();
+        this.memoryBudget = memoryBudget;
+        this.tempDirectory = tempDirectory;
+    }
+
+    /**
+     * Sorts the customers in the input file and writes them to a new customers XML file.
+     * The output file is replaced atomically once the sort is complete.
+     *
+     * @param inputPath The customers XML file to sort.
+     * @param outputPath The file the sorted customers are written to.
+     * @throws IOException If a file cannot be read or written.
+     * @throws XMLStreamException If the input is malformed or the output cannot be written.
+     */
+    public void sort(String inputPath, String outputPath) throws IOException, XMLStreamException {
+        try (CustomerStreamWriter writer = new CustomerStreamWriter(outputPath)) {
+            sortInto(inputPath, writer::write);
+            writer.finish();
+        }
+    }
+
+    /**
+     * Sorts the customers in the input file and passes them, in order, to the given action.
+     *
+     * @param inputPath The customers XML file to sort.
+     * @param action The action invoked for every customer in sorted order.
+     * @throws IOException If a file cannot be read or written.
+     * @throws XMLStreamException If the input is malformed.
+     */
+    public void sort(String inputPath, Consumer<CustomerRecord> action) throws IOException, XMLStreamException {
+        sortInto(inputPath, action::accept);
+    }
+
+    /**
+     * Reads the input into memory-bounded sorted runs and merges them into the sink.
+     *
+     * @param inputPath The customers XML file to sort.
+     * @param sink Receives the customers in sorted order.
+     * @throws IOException If a file cannot be read or written.
+     * @throws XMLStreamException If the input is malformed or the sink fails.
+     */
+    private void sortInto(String inputPath, CustomerSink sink) throws IOException, XMLStreamException {
+        List<File> runFiles = new ArrayList<>();
+        try {
+            List<CustomerRecord> buffer = new ArrayList<>();
+            long bufferedBytes = 0;
+
+            try (CustomerStreamReader reader = new CustomerStreamReader(inputPath)) {
+                CustomerRecord customer;
+                while ((customer = reader.nextRecord()) != null) {
+                    buffer.add(customer);
+                    bufferedBytes += estimateSize(customer);
+
+                    if (bufferedBytes >= memoryBudget) {
+                        runFiles.add(spillRun(buffer));
+                        buffer.clear();
+                        bufferedBytes = 0;
+                    }
+                }
+            }
+
+            // Everything fit in memory, so there is nothing to merge
+            if (runFiles.isEmpty()) {
+                buffer.sort(comparator);
+                for (CustomerRecord sortedCustomer : buffer) {
+                    sink.accept(sortedCustomer);
+                }
+                return;
+            }
+
+            if (!buffer.isEmpty()) {
+                runFiles.add(spillRun(buffer));
+                buffer.clear();
+            }
+
+            // Reduce the number of runs until they can all be merged at once
+            while (runFiles.size() > MAX_MERGE_FAN_IN) {
+                List<File> mergedRuns = new ArrayList<>();
+                boolean passComplete = false;
+                try {
+                    for (int i = 0; i < runFiles.size(); i += MAX_MERGE_FAN_IN) {
+                        List<File> group = runFiles.subList(i, Math.min(i + MAX_MERGE_FAN_IN, runFiles.size()));
+                        File mergedRun = createRunFile();
+                        mergedRuns.add(mergedRun);
+
+                        try (DataOutputStream output = openRunOutput(mergedRun)) {
+                            mergeRuns(group, customerToWrite -> writeRecord(output, customerToWrite));
+                            output.writeByte(END_MARKER);
+                        }
+                    }
+                    passComplete = true;
+                } finally {
+                    // A failed pass leaves its partial runs behind; the outer finally
+                    // only knows about the runs of the previous pass
+                    if (!passComplete) {
+                        deleteRuns(mergedRuns);
+                    }
+                }
+                deleteRuns(runFiles);
+                runFiles = mergedRuns;
+            }
+
+            mergeRuns(runFiles, sink);
+        } finally {
+            deleteRuns(runFiles);
+        }
+    }
+
+    /**
+     * Sorts the buffered customers and writes them to a new temporary run file.
+     *
+     * @param buffer The customers to sort and spill.
+     * @return The run file containing the sorted customers.
+     * @throws IOException If the run file cannot be written.
+     */
+    private File spillRun(List<CustomerRecord> buffer) throws IOException {
+        buffer.sort(comparator);
+
+        File runFile = createRunFile();
+        try (DataOutputStream output = openRunOutput(runFile)) {
+            for (CustomerRecord customer : buffer) {
+                writeRecord(output, customer);
+            }
+            output.writeByte(END_MARKER);
+        } catch (IOException | RuntimeException e) {
+            // The run was never added to the run list, so nothing else will delete it
+            runFile.delete();
+            throw e;
+        }
+        return runFile;
+    }
+
+    /**
+     * Performs a k-way merge of sorted run files into the sink.
+     *
+     * @param runFiles The sorted runs to merge.
+     * @param sink Receives the merged customers in sorted order.
+     * @throws IOException If a run file cannot be read.
+     * @throws XMLStreamException If the sink fails.
+     */
+    private void mergeRuns(List<File> runFiles, CustomerSink sink) throws IOException, XMLStreamException {
+        PriorityQueue<RunCursor> queue = new PriorityQueue<>(runFiles.size(),
+                (left, right) -> comparator.compare(left.current, right.current));
+        List<RunCursor> cursors = new ArrayList<>();
+
+        try {
+            for (File runFile : runFiles) {
+                RunCursor cursor = new RunCursor(runFile);
+                cursors.add(cursor);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+
+            while (!queue.isEmpty()) {
+                RunCursor cursor = queue.poll();
+                sink.accept(cursor.current);
+                if (cursor.advance()) {
+                    queue.add(cursor);
+                }
+            }
+        } finally {
+            for (RunCursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+
+    /**
+     * Estimates the heap footprint of a customer, including its strings.
+     *
+     * @param customer The customer to measure.
+     * @return The approximate number of bytes the customer occupies.
+     */
+    private static long estimateSize(CustomerRecord customer) {
+        // Object header and fields, plus a String object per field and its characters
+        return 64
+                + estimateSize(customer.getName())
+                + estimateSize(customer.getType())
+                + estimateSize(customer.getAddress())
+                + estimateSize(customer.getCity())
+                + estimateSize(customer.getState())
+                + estimateSize(customer.getZipcode())
+                + estimateSize(customer.getPhoneNumber())
+                + estimateSize(customer.getContactName())
+                + estimateSize(customer.getEmailAddress());
+    }
+
+    private static long estimateSize(String value) {
+        return value == null ? 0 : 48 + 2L * value.length();
+    }
+
+    private File createRunFile() throws IOException {
+        File runFile = File.createTempFile("customers-run-", ".bin", tempDirectory);
+        runFile.deleteOnExit();
+        return runFile;
+    }
+
+    private static DataOutputStream openRunOutput(File runFile) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(runFile), RUN_BUFFER_SIZE));
+    }
+
+    private static void deleteRuns(List<File> runFiles) {
+        for (File runFile : runFiles) {
+            if (!runFile.delete() && runFile.exists()) {
+                System.err.println("Error deleting temporary sort run: " + runFile);
+            }
+        }
+    }
+
+    /**
+     * Writes one customer to a run file in a compact binary form: the ID followed by
+     * every field of the record, including the contact data, in the order of
+     * {@link CustomerRecord#FIELD_NAMES}.
+     *
+     * @param output The run file stream.
+     * @param customer The customer to write.
+     * @throws IOException If an error occurs while writing.
+     */
+    private static void writeRecord(DataOutputStream output, CustomerRecord customer) throws IOException {
+        output.writeByte(RECORD_MARKER);
+        output.writeInt(customer.getID());
+        writeField(output, customer.getName());
+        writeField(output, customer.getType());
+        writeField(output, customer.getAddress());
+        writeField(output, customer.getCity());
+        writeField(output, customer.getState());
+        writeField(output, customer.getZipcode());
+        writeField(output, customer.getPhoneNumber());
+        writeField(output, customer.getContactName());
+        writeField(output, customer.getEmailAddress());
+    }
+
+    /**
+     * Reads one customer written by {@link #writeRecord(DataOutputStream, CustomerRecord)}.
+     *
+     * @param input The run file stream.
+     * @return The customer read, or {@code null} at the end of the run.
+     * @throws IOException If an error occurs while reading.
+     */
+    private static CustomerRecord readRecord(DataInputStream input) throws IOException {
+        if (input.readByte() == END_MARKER) {
+            return null;
+        }
+        int intID = input.readInt();
+        String[] fields = new String[CustomerRecord.FIELD_COUNT];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = readField(input);
+        }
+        return CustomerRecord.fromFields(intID, fields, 0);
+    }
+
+    /**
+     * Writes a field as its UTF-8 length followed by its bytes, or a length of -1 for
+     * {@code null}. Unlike {@link DataOutputStream#writeUTF(String)} this has no 64 KB
+     * limit.
+     */
+    private static void writeField(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readField(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * A reader over one sorted run file that remembers the customer it is positioned on.
+     */
+    private static final class RunCursor implements Closeable {
+        private final DataInputStream input;
+        private CustomerRecord current;
+
+        RunCursor(File runFile) throws IOException {
+            this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(runFile), RUN_BUFFER_SIZE));
+        }
+
+        /**
+         * Moves to the next customer in the run.
+         *
+         * @return {@code true} if a customer was read, {@code false} at the end of the run.
+         * @throws IOException If the run file cannot be read.
+         */
+        boolean advance() throws IOException {
+            current = readRecord(input);
+            return current != null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            input.close();
+        }
+    }
+}
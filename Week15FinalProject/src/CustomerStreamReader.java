@@ -0,0 +1,410 @@
+/**
+ * CustomerStreamReader reads "Customer" elements from a customers XML file one record
+ * at a time using StAX, without building a DOM tree. Memory use stays constant no matter
+ * how large the input file is, which makes it the entry point for sorting and other
+ * whole-file operations. Records are returned as immutable {@link CustomerRecord}s, one
+ * at a time or decoded into a block of field slices and built in bulk.
+ *
+ * <p>Records parsed, bytes read and the time spent reading are reported to
+ * {@link CustomerMetrics} when the reader is closed, and the file open, whole-document
+ * parse and every batch of decoded records are emitted as {@link CustomerEvents} for
+ * Flight Recorder.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+public class CustomerStreamReader implements Closeable {
+
+    /** Size of the read buffer placed in front of the file stream. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Number of records covered by each batch decode event. */
+    private static final int DECODE_BATCH_SIZE = 1024;
+
+    /** The underlying input stream, closed together with the reader. */
+    private final CustomerMetrics.CountingInputStream inputStream;
+
+    /** The path of the file being read, or {@code null} when reading a stream. */
+    private final String filePath;
+
+    /** Flight Recorder event spanning the whole document, or {@code null} when not recording. */
+    private final CustomerEvents.Parse parseEvent = CustomerEvents.isRecording() ? new CustomerEvents.Parse() : null;
+
+    /** Flight Recorder event spanning the current batch of records. */
+    private CustomerEvents.BatchDecode batchEvent;
+
+    /** Bytes read before the current batch started. */
+    private long batchStartBytes;
+
+    /** Checks each record before it is returned, or {@code null} to return every record. */
+    private CustomerValidator validator;
+
+    /** What was wrong with the last record read, or {@code null} if it decoded cleanly. */
+    private String recordProblem;
+
+    /** Line on which the last record read starts. */
+    private int recordStartLine;
+
+    /** Line on which the last record read ends. */
+    private int recordEndLine;
+
+    /** ID of the last record read by {@link #nextRecord()}. */
+    private final int[] recordIDs = new int[1];
+
+    /** Field slice of the last record read by {@link #nextRecord()}. */
+    private final String[] recordFields = new String[CustomerRecord.FIELD_COUNT];
+
+    /** The StAX cursor positioned somewhere inside the customers document. */
+    private final XMLStreamReader xmlReader;
+
+    /** Time spent decoding records, recorded as one read stage on close. */
+    private long readNanos;
+
+    /** Number of customers read so far. */
+    private long recordCount;
+
+    /**
+     * Opens a streaming reader over the customers XML file at the given path.
+     *
+     * @param filePath The path of the customers XML file.
+     * @throws IOException If the file cannot be opened.
+     * @throws XMLStreamException If the StAX reader cannot be created.
+     */
+    public CustomerStreamReader(String filePath) throws IOException, XMLStreamException {
+        this(openFile(filePath), filePath, null);
+    }
+
+    /**
+     * Opens a streaming reader over the given input stream. The stream is closed when
+     * the reader is closed.
+     *
+     * @param inputStream The stream containing a customers XML document.
+     * @throws XMLStreamException If the StAX reader cannot be created.
+     */
+    public CustomerStreamReader(InputStream inputStream) throws XMLStreamException {
+        this(inputStream, null, null);
+    }
+
+    /**
+     * Opens a streaming reader over the given input stream, decoding it with the given
+     * encoding. Used for parts of a document that do not carry its XML declaration. The
+     * stream is closed when the reader is closed.
+     *
+     * @param inputStream The stream containing customer elements.
+     * @param encoding The name of the character encoding of the stream.
+     * @throws XMLStreamException If the StAX reader cannot be created.
+     */
+    public CustomerStreamReader(InputStream inputStream, String encoding) throws XMLStreamException {
+        this(inputStream, null, encoding);
+    }
+
+    private CustomerStreamReader(InputStream inputStream, String filePath, String encoding)
+            throws XMLStreamException {
+        long openStart = System.nanoTime();
+        if (parseEvent != null) {
+            parseEvent.begin();
+        }
+        this.filePath = filePath;
+        this.inputStream = CustomerMetrics.get().countBytesRead(inputStream);
+
+        this.xmlReader = encoding == null ? XmlFactories.inputFactory().createXMLStreamReader(this.inputStream)
+                : XmlFactories.inputFactory().createXMLStreamReader(this.inputStream, encoding);
+        this.readNanos = System.nanoTime() - openStart;
+    }
+
+    /**
+     * Opens a buffered stream over a customers file, emitting a file open event.
+     *
+     * @param filePath The path of the customers XML file.
+     * @return The opened stream.
+     * @throws IOException If the file cannot be opened.
+     */
+    static InputStream openFile(String filePath) throws IOException {
+        if (!CustomerEvents.isRecording()) {
+            return new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE);
+        }
+
+        CustomerEvents.FileOpen openEvent = new CustomerEvents.FileOpen();
+        openEvent.begin();
+        InputStream fileStream = new BufferedInputStream(new FileInputStream(filePath), BUFFER_SIZE);
+        openEvent.end();
+
+        if (openEvent.shouldCommit()) {
+            openEvent.filePath = filePath;
+            openEvent.fileSize = new File(filePath).length();
+            openEvent.commit();
+        }
+        return fileStream;
+    }
+
+    /**
+     * Reads the next customer from the document as an immutable record, including any
+     * phone, contactName and email elements.
+     *
+     * When a validator is set, records it rejects are skipped and the next valid record
+     * is returned instead.
+     *
+     * @return The next record, or {@code null} when the end of the document is reached.
+     * @throws XMLStreamException If the document is not well-formed, or if no validator is
+     *         set and a record has a missing or invalid ID or nested field elements.
+     */
+    public CustomerRecord nextRecord() throws XMLStreamException {
+        return decodeNext(recordIDs, recordFields, 0) ? CustomerRecord.fromFields(recordIDs[0], recordFields, 0) : null;
+    }
+
+    /**
+     * Reads up to {@code records.length} customers as immutable records. The fields of
+     * the whole batch are decoded into one block of field slices first and the records
+     * are then built from it in bulk. Rejected records are skipped as for {@link #nextRecord()}.
+     *
+     * @param records Receives the records, starting at index 0.
+     * @return The number of records read; less than {@code records.length} only at the
+     *         end of the document.
+     * @throws XMLStreamException If the document is not well-formed, or if no validator is
+     *         set and a record has a missing or invalid ID or nested field elements.
+     */
+    public int nextRecords(CustomerRecord[] records) throws XMLStreamException {
+        int[] blockIDs = new int[records.length];
+        String[] blockFields = new String[records.length * CustomerRecord.FIELD_COUNT];
+        int count = 0;
+        while (count < records.length && decodeNext(blockIDs, blockFields, count)) {
+            count++;
+        }
+        return CustomerRecord.fromFieldBlock(blockIDs, blockFields, count, records);
+    }
+
+    /**
+     * Decodes the next record the validator accepts into slot {@code slot} of the given
+     * ID array and field slice block.
+     *
+     * @param ids Receives the customer ID at index {@code slot}.
+     * @param fields Receives the field slice at index {@code slot * FIELD_COUNT}.
+     * @param slot The slot to decode into.
+     * @return {@code true} if a record was decoded, {@code false} at the end of the document.
+     * @throws XMLStreamException If the document is not well-formed, or if no validator is
+     *         set and a record has a missing or invalid ID or nested field elements.
+     */
+    private boolean decodeNext(int[] ids, String[] fields, int slot) throws XMLStreamException {
+        long readStart = System.nanoTime();
+        try {
+            int offset = slot * CustomerRecord.FIELD_COUNT;
+            while (xmlReader.hasNext()) {
+                if (xmlReader.next() == XMLStreamConstants.START_ELEMENT
+                        && "Customer".equals(xmlReader.getLocalName())) {
+                    if (batchEvent == null && parseEvent != null) {
+                        batchEvent = new CustomerEvents.BatchDecode();
+                        batchEvent.begin();
+                        batchStartBytes = inputStream.getByteCount();
+                    }
+
+                    ids[slot] = readCustomer(fields, offset);
+                    if (++recordCount % DECODE_BATCH_SIZE == 0) {
+                        commitBatchEvent();
+                    }
+
+                    if (validator == null) {
+                        if (recordProblem != null) {
+                            throw new XMLStreamException("Customer at line " + recordStartLine + ": "
+                                    + recordProblem, xmlReader.getLocation());
+                        }
+                        return true;
+                    }
+                    if (validator.accept(CustomerRecord.fromFields(ids[slot], fields, offset), recordProblem,
+                            recordCount, recordStartLine, recordEndLine)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        } finally {
+            readNanos += System.nanoTime() - readStart;
+        }
+    }
+
+    /**
+     * Reads the fields of the "Customer" element the cursor is currently positioned on
+     * into a field slice. Missing child elements leave the corresponding field
+     * {@code null}. A missing or invalid ID or an element nested inside a field does not
+     * stop the read; it is noted in {@link #recordProblem} so the caller can decide what
+     * to do with the record.
+     *
+     * @param fields Receives the field values in {@link CustomerRecord#FIELD_NAMES} order.
+     * @param offset Index of the slice's first field in {@code fields}.
+     * @return The customer ID, or 0 when it is absent or invalid.
+     * @throws XMLStreamException If the document is not well-formed.
+     */
+    private int readCustomer(String[] fields, int offset) throws XMLStreamException {
+        Arrays.fill(fields, offset, offset + CustomerRecord.FIELD_COUNT, null);
+        recordProblem = null;
+        recordStartLine = xmlReader.getLocation().getLineNumber();
+        int intID = parseID(xmlReader.getAttributeValue(null, "ID"));
+
+        int event;
+        while ((event = xmlReader.next()) != XMLStreamConstants.END_ELEMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                String fieldName = xmlReader.getLocalName();
+                String fieldValue = readFieldText(fieldName);
+
+                int fieldIndex = fieldIndex(fieldName);
+                // Fields this reader doesn't know about are skipped
+                if (fieldIndex >= 0) {
+                    fields[offset + fieldIndex] = fieldValue;
+                }
+            }
+        }
+        recordEndLine = xmlReader.getLocation().getLineNumber();
+        return intID;
+    }
+
+    /**
+     * Finds the position of a customer field in a field slice.
+     *
+     * @param fieldName The element name of the field.
+     * @return The index into {@link CustomerRecord#FIELD_NAMES}, or -1 if the field is unknown.
+     */
+    private static int fieldIndex(String fieldName) {
+        switch (fieldName) {
+            case "name":
+                return 0;
+            case "type":
+                return 1;
+            case "address":
+                return 2;
+            case "city":
+                return 3;
+            case "state":
+                return 4;
+            case "zip":
+                return 5;
+            case "phone":
+                return 6;
+            case "contactName":
+                return 7;
+            case "email":
+                return 8;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Reads the text of the field element the cursor is positioned on and leaves the
+     * cursor on its end tag. Elements nested inside the field are skipped and noted as a
+     * record problem.
+     *
+     * @param fieldName The name of the field element.
+     * @return The text content of the field.
+     * @throws XMLStreamException If the document is not well-formed.
+     */
+    private String readFieldText(String fieldName) throws XMLStreamException {
+        StringBuilder text = new StringBuilder();
+        int depth = 1;
+        while (depth > 0) {
+            int event = xmlReader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+                if (recordProblem == null) {
+                    recordProblem = "unexpected element <" + xmlReader.getLocalName() + "> in <" + fieldName + ">";
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (depth == 1 && (event == XMLStreamConstants.CHARACTERS
+                    || event == XMLStreamConstants.CDATA
+                    || event == XMLStreamConstants.SPACE)) {
+                text.append(xmlReader.getText());
+            }
+        }
+        return text.toString();
+    }
+
+    /**
+     * Parses the value of a customer's ID attribute. A missing or invalid value is noted
+     * as a record problem.
+     *
+     * @param strID The attribute value, possibly {@code null}.
+     * @return The parsed ID, or 0 when the attribute is absent or invalid.
+     */
+    private int parseID(String strID) {
+        if (strID == null || strID.trim().isEmpty()) {
+            recordProblem = "missing ID";
+            return 0;
+        }
+        try {
+            return Integer.parseInt(strID.trim());
+        } catch (NumberFormatException e) {
+            recordProblem = "invalid ID \"" + strID + "\"";
+            return 0;
+        }
+    }
+
+    /**
+     * Sets the validator that checks each record before it is returned. Records the
+     * validator rejects are quarantined by it and skipped by this reader.
+     *
+     * @param validator The validator, or {@code null} to return every record.
+     */
+    public void setValidator(CustomerValidator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Commits the batch decode event for the records decoded since the last batch, if any.
+     */
+    private void commitBatchEvent() {
+        if (batchEvent == null) {
+            return;
+        }
+        batchEvent.end();
+        if (batchEvent.shouldCommit()) {
+            long batchRecords = recordCount % DECODE_BATCH_SIZE;
+            batchEvent.recordCount = batchRecords == 0 ? DECODE_BATCH_SIZE : batchRecords;
+            batchEvent.byteCount = inputStream.getByteCount() - batchStartBytes;
+            batchEvent.commit();
+        }
+        batchEvent = null;
+    }
+
+    /**
+     * Closes the StAX reader and the underlying input stream.
+     *
+     * @throws IOException If the input stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        metrics.addRecordsParsed(recordCount);
+        metrics.recordStage(CustomerMetrics.Stage.READ, readNanos);
+
+        commitBatchEvent();
+        if (parseEvent != null) {
+            parseEvent.end();
+            if (parseEvent.shouldCommit()) {
+                parseEvent.filePath = filePath;
+                parseEvent.recordCount = recordCount;
+                parseEvent.byteCount = inputStream.getByteCount();
+                parseEvent.commit();
+            }
+        }
+
+        try {
+            xmlReader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error closing XML reader: " + e.getMessage(), e);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
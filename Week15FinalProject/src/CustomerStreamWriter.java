@@ -0,0 +1,221 @@
+/**
+ * CustomerStreamWriter writes customers to an XML document one record at a time using
+ * StAX. The output has the same layout as the "customers.xml" file produced by
+ * {@link ViewCustomers}, but no DOM tree is built, so any number of customers can be
+ * written in constant memory. Written to a file path, the document replaces the file
+ * atomically when it is finished. Bytes written and the time spent writing are reported to
+ * {@link CustomerMetrics} when the writer is closed, and the whole document is emitted as
+ * a {@link CustomerEvents.Serialize} event for Flight Recorder.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+public class CustomerStreamWriter implements Closeable {
+
+    /** The underlying output stream, closed together with the writer. */
+    private final CustomerMetrics.CountingOutputStream outputStream;
+
+    /** Flight Recorder event spanning the whole document, or {@code null} when not recording. */
+    private final CustomerEvents.Serialize serializeEvent =
+            CustomerEvents.isRecording() ? new CustomerEvents.Serialize() : null;
+
+    /** Number of customers written so far. */
+    private long recordCount;
+
+    /** The StAX writer producing the customers document. */
+    private final XMLStreamWriter xmlWriter;
+
+    /** Time spent writing, recorded as one write stage on close. */
+    private long writeNanos;
+
+    /** The file output replaced on {@link #finish()}, or {@code null} when writing to a stream. */
+    private final AtomicFileOutput atomicOutput;
+
+    /** The path of the file written, or {@code null} when writing to a stream. */
+    private final String outputPath;
+
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * Starts a new customers document that replaces the given file when it is finished.
+     * The document is written through an {@link AtomicFileOutput}, so the file is only
+     * replaced, atomically, by {@link #finish()}.
+     *
+     * @param outputPath The file the XML document is written to.
+     * @throws IOException If the temporary output file cannot be created.
+     * @throws XMLStreamException If the StAX writer cannot be created.
+     */
+    public CustomerStreamWriter(String outputPath) throws IOException, XMLStreamException {
+        this(new AtomicFileOutput(outputPath), outputPath);
+    }
+
+    /**
+     * Starts a new customers document on the given output stream. The stream is closed
+     * when the writer is closed, or straight away if the document cannot be started.
+     *
+     * @param outputStream The stream the XML document is written to.
+     * @throws XMLStreamException If the StAX writer cannot be created.
+     */
+    public CustomerStreamWriter(OutputStream outputStream) throws XMLStreamException {
+        this(outputStream, null);
+    }
+
+    private CustomerStreamWriter(OutputStream outputStream, String outputPath) throws XMLStreamException {
+        long openStart = System.nanoTime();
+        if (serializeEvent != null) {
+            serializeEvent.begin();
+        }
+        this.atomicOutput = outputPath != null ? (AtomicFileOutput) outputStream : null;
+        this.outputPath = outputPath;
+        this.outputStream = CustomerMetrics.get().countBytesWritten(outputStream);
+
+        XMLStreamWriter startedWriter;
+        try {
+            startedWriter = XmlFactories.outputFactory().createXMLStreamWriter(this.outputStream, "UTF-8");
+            startedWriter.writeStartDocument("UTF-8", "1.0");
+            startedWriter.writeCharacters("\n");
+            startedWriter.writeStartElement("Customers");
+        } catch (XMLStreamException | RuntimeException e) {
+            // The caller never gets a writer to close, so close the stream here; for a
+            // file path this deletes the temporary file
+            try {
+                outputStream.close();
+            } catch (IOException closeError) {
+                e.addSuppressed(closeError);
+            }
+            throw e;
+        }
+        this.xmlWriter = startedWriter;
+        writeNanos = System.nanoTime() - openStart;
+    }
+
+    /**
+     * Writes one customer record as a "Customer" element. If the record has contact data,
+     * its phone, contactName and email elements follow in the layout of
+     * "customer_modified.xml".
+     *
+     * @param record The record to write.
+     * @throws XMLStreamException If an error occurs while writing.
+     */
+    public void write(CustomerRecord record) throws XMLStreamException {
+        long writeStart = System.nanoTime();
+        xmlWriter.writeCharacters("\n    ");
+        xmlWriter.writeStartElement("Customer");
+        xmlWriter.writeAttribute("ID", String.valueOf(record.getID()));
+
+        writeField("name", record.getName());
+        writeField("type", record.getType());
+        writeField("address", record.getAddress());
+        writeField("city", record.getCity());
+        writeField("state", record.getState());
+        writeField("zip", record.getZipcode());
+
+        if (record.hasContactData()) {
+            writeField("phone", record.getPhoneNumber());
+            writeField("contactName", record.getContactName());
+            writeField("email", record.getEmailAddress());
+        }
+
+        // lines up Customer node end tag
+        xmlWriter.writeCharacters("\n    ");
+        xmlWriter.writeEndElement();
+        recordCount++;
+        writeNanos += System.nanoTime() - writeStart;
+    }
+
+    /**
+     * Writes a single indented child element of a "Customer" element.
+     *
+     * @param elementName The name of the child element.
+     * @param value The text content of the element; {@code null} is written as empty.
+     * @throws XMLStreamException If an error occurs while writing.
+     */
+    private void writeField(String elementName, String value) throws XMLStreamException {
+        xmlWriter.writeCharacters("\n        ");
+        xmlWriter.writeStartElement(elementName);
+        xmlWriter.writeCharacters(value == null ? "" : value);
+        xmlWriter.writeEndElement();
+    }
+
+    /**
+     * Closes the root element and finishes the document. When writing to a file path,
+     * the file is then atomically replaced; until this method returns, the file keeps
+     * its previous content. The writer is closed afterwards.
+     *
+     * @throws IOException If the document cannot be finished or the file cannot be replaced.
+     */
+    public void finish() throws IOException {
+        if (closed) {
+            throw new IOException("Customer writer already closed");
+        }
+        long finishStart = System.nanoTime();
+        try {
+            endDocument();
+            if (atomicOutput != null) {
+                outputStream.flush();
+                atomicOutput.commit();
+            }
+            finished = true;
+        } finally {
+            writeNanos += System.nanoTime() - finishStart;
+            close();
+        }
+    }
+
+    /**
+     * Closes the writer. A document written to an output stream is finished first, as by
+     * {@link #finish()}. A document written to a file path that has not been finished is
+     * discarded, leaving the file as it was, so that an exception part way through never
+     * replaces a good file with a truncated one.
+     *
+     * @throws IOException If the document cannot be finished or the stream cannot be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        long closeStart = System.nanoTime();
+        try {
+            if (atomicOutput == null && !finished) {
+                endDocument();
+            }
+        } finally {
+            outputStream.close();
+            CustomerMetrics.get().recordStage(CustomerMetrics.Stage.WRITE, writeNanos + System.nanoTime() - closeStart);
+
+            if (serializeEvent != null) {
+                serializeEvent.end();
+                if (serializeEvent.shouldCommit()) {
+                    serializeEvent.filePath = outputPath;
+                    serializeEvent.recordCount = recordCount;
+                    serializeEvent.byteCount = outputStream.getByteCount();
+                    serializeEvent.commit();
+                }
+            }
+        }
+    }
+
+    private void endDocument() throws IOException {
+        try {
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.writeEndElement();
+            xmlWriter.writeEndDocument();
+            xmlWriter.writeCharacters("\n");
+            xmlWriter.flush();
+            xmlWriter.close();
+        } catch (XMLStreamException e) {
+            throw new IOException("Error finishing XML document: " + e.getMessage(), e);
+        }
+    }
+}
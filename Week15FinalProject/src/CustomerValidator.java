@@ -0,0 +1,411 @@
+/**
+ * CustomerValidator checks customer records as they are streamed by a
+ * {@link CustomerStreamReader} and quarantines bad records to a reject file instead of
+ * aborting the run. Good records keep flowing to the caller.
+ *
+ * <p>Two modes are available. {@link Mode#STRUCTURAL} is a fast hand-written check of
+ * the rules in "customers.xsd" (required fields present, a positive ID, a known customer
+ * type, a two-letter state and a five or nine digit ZIP code) applied to each decoded
+ * record. {@link Mode#SCHEMA} additionally validates the file against the XSD with
+ * {@code javax.xml.validation} on a background thread that runs in parallel with the
+ * reader; each record is held back only until the schema validator has passed its end
+ * tag, and is rejected if the validator reported an error inside it. Both threads number
+ * the "Customer" elements that are not nested in another customer in document order, so
+ * schema errors are matched to records by that number rather than by line; several
+ * records on one line, or a record spanning many, are matched correctly.</p>
+ *
+ * <p>Each rejected record is written to the UTF-8 reject file as a line giving its line
+ * range and the reason, followed by the whole record as a one-line "Customer" element
+ * in the layout of the input, so it can be corrected and fed back in.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.xml.validation.Schema;
+import javax.xml.validation.ValidatorHandler;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.Locator;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+public class CustomerValidator implements Closeable {
+
+    /**
+     * How thoroughly records are validated.
+     */
+    public enum Mode {
+        /** Fast checks of the required fields and their formats on each decoded record. */
+        STRUCTURAL,
+        /** Structural checks plus full XSD validation on a parallel thread. */
+        SCHEMA
+    }
+
+    /** Record number reported by the schema thread once it has finished the whole document. */
+    private static final long END_OF_DOCUMENT = Long.MAX_VALUE;
+
+    /** How long the reader sleeps while waiting for the schema thread to catch up. */
+    private static final long WAIT_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    /** Where rejected records are written. */
+    private final PrintWriter rejectWriter;
+
+    /** Schema errors not yet matched to a record, keyed by record number. */
+    private final NavigableMap<Long, String> schemaErrors = new ConcurrentSkipListMap<>();
+
+    /** The number of the last record the schema thread has fully validated. */
+    private final AtomicLong validatedThroughRecord = new AtomicLong();
+
+    /** The thread running the XSD validation, or {@code null} in structural mode. */
+    private final Thread schemaThread;
+
+    /** Set if the schema thread stopped because the document is not well-formed. */
+    private volatile String fatalSchemaError;
+
+    /** Set when the validator is closed, telling the schema thread to stop. */
+    private volatile boolean closed;
+
+    private long acceptedCount;
+    private long rejectedCount;
+
+    /**
+     * Creates a validator for the given input file.
+     *
+     * @param mode How thoroughly records are validated.
+     * @param inputPath The customers XML file being read; used in schema mode.
+     * @param schemaPath The XSD to validate against; used in schema mode.
+     * @param rejectPath The file rejected records are written to.
+     * @throws IOException If the reject file cannot be created.
+     * @throws SAXException If the schema cannot be loaded.
+     */
+    public CustomerValidator(Mode mode, String inputPath, String schemaPath, String rejectPath)
+            throws IOException, SAXException {
+        this.rejectWriter = new PrintWriter(Files.newBufferedWriter(Paths.get(rejectPath), StandardCharsets.UTF_8));
+
+        if (mode == Mode.SCHEMA) {
+            Schema schema = XmlFactories.newSchema(new File(schemaPath));
+            schemaThread = new Thread(() -> runSchemaValidation(schema, inputPath), "customer-schema-validator");
+            schemaThread.setDaemon(true);
+            schemaThread.start();
+        } else {
+            schemaThread = null;
+        }
+    }
+
+    /**
+     * Decides whether a decoded record is valid. Invalid records are written to the
+     * reject file.
+     *
+     * @param customer The decoded record.
+     * @param decodeProblem A problem found while decoding the record, or {@code null}.
+     * @param recordNumber The 1-based number of the record among the "Customer" elements
+     *        of the document that are not nested in another customer.
+     * @param startLine The line the record starts on.
+     * @param endLine The line the record ends on.
+     * @return {@code true} if the record is valid and should be used.
+     */
+    boolean accept(CustomerRecord customer, String decodeProblem, long recordNumber, int startLine, int endLine) {
+        String problem = decodeProblem != null ? decodeProblem : checkStructure(customer);
+
+        if (schemaThread != null) {
+            awaitSchemaValidation(recordNumber);
+
+            // Errors up to this record are consumed now; every earlier record has
+            // already taken its own
+            NavigableMap<Long, String> recordErrors = schemaErrors.headMap(recordNumber, true);
+            String schemaError = recordErrors.get(recordNumber);
+            if (problem == null && schemaError != null) {
+                problem = schemaError;
+            }
+            recordErrors.clear();
+        }
+
+        if (problem == null) {
+            acceptedCount++;
+            return true;
+        }
+
+        rejectedCount++;
+        rejectWriter.println("line " + startLine + "-" + endLine + ": " + problem);
+        rejectWriter.println(toElement(customer));
+        return false;
+    }
+
+    /**
+     * Formats a decoded record as a one-line "Customer" element. The ID attribute is left
+     * out when the record has none, and the contact fields when it has no contact data.
+     *
+     * @param customer The record to format.
+     * @return The element.
+     */
+    static String toElement(CustomerRecord customer) {
+        StringBuilder element = new StringBuilder(256).append("<Customer");
+        if (customer.getID() != 0) {
+            element.append(" ID=\"").append(customer.getID()).append('"');
+        }
+        element.append('>');
+        appendField(element, "name", customer.getName());
+        appendField(element, "type", customer.getType());
+        appendField(element, "address", customer.getAddress());
+        appendField(element, "city", customer.getCity());
+        appendField(element, "state", customer.getState());
+        appendField(element, "zip", customer.getZipcode());
+        if (customer.hasContactData()) {
+            appendField(element, "phone", customer.getPhoneNumber());
+            appendField(element, "contactName", customer.getContactName());
+            appendField(element, "email", customer.getEmailAddress());
+        }
+        return element.append("</Customer>").toString();
+    }
+
+    private static void appendField(StringBuilder element, String elementName, String value) {
+        element.append('<').append(elementName).append('>');
+        if (value != null) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&':
+                        element.append("&amp;");
+                        break;
+                    case '<':
+                        element.append("&lt;");
+                        break;
+                    case '>':
+                        element.append("&gt;");
+                        break;
+                    case '\n':
+                        element.append("&#10;");
+                        break;
+                    case '\r':
+                        element.append("&#13;");
+                        break;
+                    default:
+                        element.append(c);
+                }
+            }
+        }
+        element.append("</").append(elementName).append('>');
+    }
+
+    /**
+     * Gets the number of records accepted so far.
+     *
+     * @return The accepted record count.
+     */
+    public long getAcceptedCount() {
+        return acceptedCount;
+    }
+
+    /**
+     * Gets the number of records rejected so far.
+     *
+     * @return The rejected record count.
+     */
+    public long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Applies the rules of "customers.xsd" to a decoded customer without a schema.
+     *
+     * @param customer The customer to check.
+     * @return A description of the first problem found, or {@code null} if the customer is valid.
+     */
+    static String checkStructure(CustomerRecord customer) {
+        if (customer.getID() <= 0) {
+            return "missing or non-positive ID";
+        }
+        if (isEmpty(customer.getName())) {
+            return "missing <name>";
+        }
+        if (!"Commercial".equals(customer.getType()) && !"Residential".equals(customer.getType())) {
+            return isEmpty(customer.getType()) ? "missing <type>" : "unknown type \"" + customer.getType() + "\"";
+        }
+        if (isEmpty(customer.getAddress())) {
+            return "missing <address>";
+        }
+        if (isEmpty(customer.getCity())) {
+            return "missing <city>";
+        }
+        if (!isStateCode(customer.getState())) {
+            return isEmpty(customer.getState()) ? "missing <state>" : "invalid state \"" + customer.getState() + "\"";
+        }
+        if (!isZipCode(customer.getZipcode())) {
+            return isEmpty(customer.getZipcode()) ? "missing <zip>" : "invalid zip \"" + customer.getZipcode() + "\"";
+        }
+        return null;
+    }
+
+    private static boolean isEmpty(String value) {
+        return value == null || value.isEmpty();
+    }
+
+    private static boolean isStateCode(String value) {
+        return value != null && value.length() == 2
+                && value.charAt(0) >= 'A' && value.charAt(0) <= 'Z'
+                && value.charAt(1) >= 'A' && value.charAt(1) <= 'Z';
+    }
+
+    private static boolean isZipCode(String value) {
+        if (value == null || (value.length() != 5 && value.length() != 10)) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean expectDash = i == 5;
+            if (expectDash ? c != '-' : (c < '0' || c > '9')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Waits until the schema thread has validated the given record or has stopped.
+     *
+     * @param recordNumber The number of the record about to be checked.
+     */
+    private void awaitSchemaValidation(long recordNumber) {
+        while (validatedThroughRecord.get() < recordNumber) {
+            LockSupport.parkNanos(WAIT_NANOS);
+        }
+    }
+
+    /**
+     * Validates the whole input file against the schema, recording the record of every
+     * error and publishing how far validation has progressed. Runs on the schema thread.
+     */
+    private void runSchemaValidation(Schema schema, String inputPath) {
+        try {
+            ValidatorHandler validatorHandler = schema.newValidatorHandler();
+            ProgressHandler progressHandler = new ProgressHandler();
+            validatorHandler.setContentHandler(progressHandler);
+            validatorHandler.setErrorHandler(progressHandler);
+
+            XMLReader xmlReader = XmlFactories.newSAXParser().getXMLReader();
+            xmlReader.setContentHandler(validatorHandler);
+            // Report a fatal parse error through the handler instead of printing it
+            xmlReader.setErrorHandler(progressHandler);
+            xmlReader.parse(new InputSource(new File(inputPath).toURI().toString()));
+
+        } catch (SAXParseException e) {
+            if (closed) {
+                return;
+            }
+            // The reader hits the same error itself; just stop holding records back
+            fatalSchemaError = "line " + e.getLineNumber() + ": " + e.getMessage();
+        } catch (Exception e) {
+            fatalSchemaError = e.getMessage();
+            System.err.println("Error validating customers against schema: " + e.getMessage());
+            CustomerMetrics.get().recordError();
+        } finally {
+            validatedThroughRecord.set(END_OF_DOCUMENT);
+        }
+    }
+
+    /**
+     * Receives the output of the schema validator: numbers the "Customer" elements the
+     * same way {@link CustomerStreamReader} does, files each error under the record it
+     * occurred in, and advances the validated record after each customer's end tag.
+     *
+     * <p>The validator reports an error in a start tag, such as an invalid ID attribute,
+     * before passing the start tag on. Such an error is held back and given to the
+     * customer whose start tag follows it; it is dropped if any other tag follows.</p>
+     */
+    private final class ProgressHandler extends DefaultHandler implements ErrorHandler {
+        private Locator locator;
+
+        /** The number of top-level "Customer" elements started so far. */
+        private long recordNumber;
+
+        /** Depth of "Customer" elements currently open; 0 outside any customer. */
+        private int customerDepth;
+
+        /** An error reported outside any customer, waiting for the next start tag. */
+        private String pendingError;
+
+        @Override
+        public void setDocumentLocator(Locator locator) {
+            this.locator = locator;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (customerDepth == 0 && "Customer".equals(localName)) {
+                recordNumber++;
+                if (pendingError != null) {
+                    schemaErrors.putIfAbsent(recordNumber, pendingError);
+                }
+            }
+            pendingError = null;
+            if (customerDepth > 0 || "Customer".equals(localName)) {
+                customerDepth++;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            pendingError = null;
+            if (customerDepth > 0 && --customerDepth == 0) {
+                validatedThroughRecord.set(recordNumber);
+            }
+            if (closed) {
+                throw new SAXParseException("Validation cancelled", locator);
+            }
+        }
+
+        @Override
+        public void error(SAXParseException e) {
+            if (customerDepth > 0) {
+                schemaErrors.putIfAbsent(recordNumber, e.getMessage());
+            } else if (pendingError == null) {
+                pendingError = e.getMessage();
+            }
+        }
+
+        @Override
+        public void warning(SAXParseException e) {
+            // Warnings do not make a record invalid
+        }
+
+        @Override
+        public void fatalError(SAXParseException e) throws SAXException {
+            throw e;
+        }
+    }
+
+    /**
+     * Tells the schema thread to stop and closes the reject file.
+     *
+     * @throws IOException If the reject file could not be written.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        rejectWriter.close();
+        if (rejectWriter.checkError()) {
+            throw new IOException("Error writing reject file");
+        }
+        if (fatalSchemaError != null) {
+            System.err.println("Schema validation stopped early: " + fatalSchemaError);
+        }
+    }
+}
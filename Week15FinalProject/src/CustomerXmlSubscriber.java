@@ -0,0 +1,52 @@
+/**
+ * CustomerXmlSubscriber writes batches of customer records to an XML file in the layout
+ * of "customer_modified.xml". It is the usual sink of a modify flow:
+ * {@link CustomerPublisher} &rarr; {@link CustomerFlowProcessor#patch(CModifiedCustomerData[])}
+ * &rarr; {@link CustomerFlowProcessor#batch(int)} &rarr; this subscriber. The output
+ * file is replaced atomically when the flow completes and left as it was if it fails.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+public class CustomerXmlSubscriber extends CustomerSinkSubscriber<List<CustomerRecord>> {
+
+    /** Writes the output document. */
+    private final CustomerStreamWriter writer;
+
+    /**
+     * Creates a subscriber writing to the given file.
+     *
+     * @param outputPath The file the customers are written to.
+     * @param window The number of batches requested ahead of writing.
+     * @throws IOException If the file cannot be created.
+     * @throws XMLStreamException If the XML writer cannot be created.
+     */
+    public CustomerXmlSubscriber(String outputPath, int window) throws IOException, XMLStreamException {
+        super(window);
+        this.writer = new CustomerStreamWriter(outputPath);
+    }
+
+    @Override
+    protected void consume(List<CustomerRecord> batch) throws XMLStreamException {
+        for (CustomerRecord record : batch) {
+            writer.write(record);
+        }
+        CustomerMetrics.get().addRecordsModified(batch.size());
+    }
+
+    @Override
+    protected void finish() throws IOException {
+        writer.finish();
+    }
+
+    @Override
+    protected void abort() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,152 @@
+/**
+ * LongHashSet is a set of primitive {@code long} values backed by an open-addressing hash
+ * table with linear probing. Values are stored unboxed in a single array, which keeps
+ * memory use low and lookups cache-friendly compared to a {@code HashSet<Long>}.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.function.LongConsumer;
+
+public class LongHashSet {
+
+    /** Marks an unused slot; the value 0 itself is tracked by {@link #containsZero}. */
+    private static final long EMPTY = 0L;
+
+    /** The table is grown once it is more than this fraction full. */
+    private static final double LOAD_FACTOR = 0.6;
+
+    private long[] table;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+    private boolean containsZero;
+
+    /**
+     * Creates an empty set with room for a small number of values.
+     */
+    public LongHashSet() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty set sized to hold the given number of values without resizing.
+     *
+     * @param expectedSize The number of values expected to be added.
+     */
+    public LongHashSet(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+    }
+
+    /**
+     * Adds a value to the set.
+     *
+     * @param value The value to add.
+     * @return {@code true} if the value was not already present.
+     */
+    public boolean add(long value) {
+        if (value == EMPTY) {
+            if (containsZero) {
+                return false;
+            }
+            containsZero = true;
+            size++;
+            return true;
+        }
+
+        int slot = hash(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = value;
+        if (++size > resizeThreshold) {
+            resize(table.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a value is in the set.
+     *
+     * @param value The value to look for.
+     * @return {@code true} if the value is present.
+     */
+    public boolean contains(long value) {
+        if (value == EMPTY) {
+            return containsZero;
+        }
+
+        int slot = hash(value) & mask;
+        while (table[slot] != EMPTY) {
+            if (table[slot] == value) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of values in the set.
+     *
+     * @return The number of values.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Passes every value in the set to the given action, in no particular order.
+     *
+     * @param action The action invoked for each value.
+     */
+    public void forEach(LongConsumer action) {
+        if (containsZero) {
+            action.accept(EMPTY);
+        }
+        for (long value : table) {
+            if (value != EMPTY) {
+                action.accept(value);
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        table = new long[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private void resize(int newCapacity) {
+        long[] oldTable = table;
+        allocate(newCapacity);
+
+        for (long value : oldTable) {
+            if (value != EMPTY) {
+                int slot = hash(value) & mask;
+                while (table[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                table[slot] = value;
+            }
+        }
+    }
+
+    /**
+     * Spreads the bits of a value so that keys differing only in their high bits do not
+     * collide (finalizer step of MurmurHash3).
+     */
+    private static int hash(long value) {
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return (int) value;
+    }
+}
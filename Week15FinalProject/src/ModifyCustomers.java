@@ -24,7 +24,7 @@ import javax.xml.parsers.*;
 import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
-import java.io.File;
+import java.io.IOException;
 
 
 public class ModifyCustomers {
@@ -48,35 +48,88 @@ public class ModifyCustomers {
 
     public static void modifyCustomerList() {
     	
-    	CModifiedCustomerData[] modifiedCustomerDataArray = {
-    		    new CModifiedCustomerData("555-111-1111", "John Doe", "ACME_Hauling@gmail.com"),
-    		    new CModifiedCustomerData("444-222-2222", "Jane Smith", "AJ_Newtown@gmail.com"),
-    		    new CModifiedCustomerData("321-333-3333", "Bob Johnson", "Foster_Burgers@gmail.com"),
-    		    new CModifiedCustomerData("512-444-4444", "Emily Jones", "Emilys_Bakery@gmail.com"),
-    		    new CModifiedCustomerData("515-555-5555", "Sam Smith", "Smith_Paving@gmail.com"),
-    		    new CModifiedCustomerData("518-675-6236", "Dave Wilson", "Daves_Painting_Service@gmail.com")
-    		};
+    	CModifiedCustomerData[] modifiedCustomerDataArray = getModifiedCustomerData();
     	
     	
+        CustomerMetrics metrics = CustomerMetrics.get();
+
         try {
             // Load the existing XML document
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-            Document doc = dBuilder.parse(new File("customers.xml"));
+            long readStart = System.nanoTime();
+            CustomerEvents.Parse parseEvent = CustomerEvents.isRecording() ? new CustomerEvents.Parse() : null;
+            if (parseEvent != null) {
+                parseEvent.begin();
+            }
+            DocumentBuilder dBuilder = XmlFactories.newDocumentBuilder();
+            Document doc;
+            long bytesRead;
+            try (CustomerMetrics.CountingInputStream input = metrics.countBytesRead(CustomerStreamReader.openFile("customers.xml"))) {
+                doc = dBuilder.parse(input);
+                bytesRead = input.getByteCount();
+            }
+            int customerCount = doc.getElementsByTagName("Customer").getLength();
+            metrics.addRecordsParsed(customerCount);
+            metrics.recordStage(CustomerMetrics.Stage.READ, System.nanoTime() - readStart);
+
+            if (parseEvent != null) {
+                parseEvent.end();
+                if (parseEvent.shouldCommit()) {
+                    parseEvent.filePath = "customers.xml";
+                    parseEvent.recordCount = customerCount;
+                    parseEvent.byteCount = bytesRead;
+                    parseEvent.commit();
+                }
+            }
 
             // Modify the XML content
+            long modifyStart = System.nanoTime();
+            CustomerEvents.ModifyApply modifyEvent =
+                    CustomerEvents.isRecording() ? new CustomerEvents.ModifyApply() : null;
+            if (modifyEvent != null) {
+                modifyEvent.begin();
+            }
             modifyCustomerData(doc, modifiedCustomerDataArray);
+            metrics.recordStage(CustomerMetrics.Stage.MODIFY, System.nanoTime() - modifyStart);
+
+            if (modifyEvent != null) {
+                modifyEvent.end();
+                if (modifyEvent.shouldCommit()) {
+                    modifyEvent.recordCount = customerCount;
+                    modifyEvent.commit();
+                }
+            }
 
             // Save the modified document to customers_updated.xml
             saveDocument(doc, "customer_modified.xml");
 
         } catch (Exception e) {
+            metrics.recordError();
             e.printStackTrace();
         }
     	
     }
     
     
+    /**
+     * Creates the predefined modified customer data applied by this class. Element i of
+     * the array is applied to the i-th customer in the file.
+     *
+     * @return A new array of CModifiedCustomerData objects with the modified phone numbers,
+     *         contact names, and email addresses.
+     * @since 1.0
+     */
+    public static CModifiedCustomerData[] getModifiedCustomerData() {
+    	return new CModifiedCustomerData[] {
+    		    new CModifiedCustomerData("555-111-1111", "John Doe", "ACME_Hauling@gmail.com"),
+    		    new CModifiedCustomerData("444-222-2222", "Jane Smith", "AJ_Newtown@gmail.com"),
+    		    new CModifiedCustomerData("321-333-3333", "Bob Johnson", "Foster_Burgers@gmail.com"),
+    		    new CModifiedCustomerData("512-444-4444", "Emily Jones", "Emilys_Bakery@gmail.com"),
+    		    new CModifiedCustomerData("515-555-5555", "Sam Smith", "Smith_Paving@gmail.com"),
+    		    new CModifiedCustomerData("518-675-6236", "Dave Wilson", "Daves_Painting_Service@gmail.com")
+    		};
+    }
+
+
     /**
      * Modifies customer data in the provided XML document based on the given array of
      * CModifiedCustomerData objects. Adds or updates elements for phone number, contact name,
@@ -93,6 +146,8 @@ public class ModifyCustomers {
      * @since 1.0
      */
     private static void modifyCustomerData(Document doc, CModifiedCustomerData[] modifiedCustomerDataArray) {
+        // Counted locally and added to the metrics once, after the loop
+        int modifiedCount = 0;
         try {
             // Get the root element
             Element rootElement = doc.getDocumentElement();
@@ -128,6 +183,8 @@ public class ModifyCustomers {
 
                     // lines up Customer node end tag
                     customersElement.appendChild(doc.createTextNode("\n    "));
+
+                    modifiedCount++;
                 }
             }
         } 
@@ -135,17 +192,22 @@ public class ModifyCustomers {
         catch (Exception e) {
             // Handle exceptions
             System.err.println("Error modifying customer data: " + e.getMessage());
+            CustomerMetrics.get().recordError();
             e.printStackTrace();
         }
+        CustomerMetrics.get().addRecordsModified(modifiedCount);
     }
 
-    
+
     /**
      * Saves the provided XML document to a specified file with proper indentation.
      *
      * This method uses a Transformer to save the given Document to an XML file specified by
      * the provided fileName. The document is saved with proper indentation for readability.
-     * The method also prints a confirmation message to the console after successful saving.
+     * The file is replaced atomically, so a failure part way through leaves any previous
+     * file intact. The method also prints a confirmation message to the console after
+     * successful saving. Errors are reported here and rethrown; the caller counts them in
+     * the metrics.
      *
      * @param doc The XML Document to be saved.
      * @param fileName The name of the file to which the Document should be saved.
@@ -155,16 +217,39 @@ public class ModifyCustomers {
      * @since 1.0
      */
     private static void saveDocument(Document doc, String fileName) throws TransformerException {
+        CustomerMetrics metrics = CustomerMetrics.get();
+
         try {
             // Save the document to a new XML file with proper indentation
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
+            long writeStart = System.nanoTime();
+            CustomerEvents.Serialize serializeEvent =
+                    CustomerEvents.isRecording() ? new CustomerEvents.Serialize() : null;
+            if (serializeEvent != null) {
+                serializeEvent.begin();
+            }
+            Transformer transformer = XmlFactories.newTransformer();
 
-            // Create a new file
-            File outputFile = new File(fileName);
-            StreamResult result = new StreamResult(outputFile);
+            // Write a temporary file that replaces the target only once complete
             DOMSource source = new DOMSource(doc);
-            transformer.transform(source, result);
+            long bytesWritten;
+            try (AtomicFileOutput fileOutput = new AtomicFileOutput(fileName);
+                    CustomerMetrics.CountingOutputStream output = metrics.countBytesWritten(fileOutput)) {
+                transformer.transform(source, new StreamResult(output));
+                bytesWritten = output.getByteCount();
+                output.flush();
+                fileOutput.commit();
+            }
+            metrics.recordStage(CustomerMetrics.Stage.WRITE, System.nanoTime() - writeStart);
+
+            if (serializeEvent != null) {
+                serializeEvent.end();
+                if (serializeEvent.shouldCommit()) {
+                    serializeEvent.filePath = fileName;
+                    serializeEvent.recordCount = doc.getElementsByTagName("Customer").getLength();
+                    serializeEvent.byteCount = bytesWritten;
+                    serializeEvent.commit();
+                }
+            }
 
             System.out.println("Modified XML saved to " + fileName + "\n");
 
@@ -183,6 +268,11 @@ public class ModifyCustomers {
             // Handle transformer exception
             System.err.println("Error transforming XML document: " + e.getMessage());
             throw e;
+
+        } catch (IOException e) {
+            // Handle errors opening or closing the output file
+            System.err.println("Error writing XML document: " + e.getMessage());
+            throw new TransformerException(e.getMessage(), e);
         }
     }
     
@@ -0,0 +1,191 @@
+/**
+ * RingBuffer is a bounded, lock-free queue that any number of threads can add to and
+ * take from (Dmitry Vyukov's bounded MPMC queue). Each slot carries a sequence number
+ * that tells producers when the slot is free and consumers when it holds an item, so
+ * neither side ever takes a lock. It connects the stages of {@link CustomerPipeline}.
+ *
+ * <p>{@link #offer(Object)} and {@link #poll()} never block. {@link #put(Object)} and
+ * {@link #take()} wait by spinning briefly, then yielding, then parking, and give up
+ * with an {@link InterruptedException} when the waiting thread is interrupted or the
+ * buffer is {@linkplain #cancel() cancelled}. Cancelling lets one failed thread release
+ * every thread waiting on the buffer, including threads it does not know about.</p>
+ *
+ * @param <T> The type of items held.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+public class RingBuffer<T> {
+
+    /** Number of busy-wait rounds before a waiting thread starts yielding. */
+    private static final int SPIN_LIMIT = 128;
+
+    /** Number of rounds, including spins, before a waiting thread starts parking. */
+    private static final int YIELD_LIMIT = 256;
+
+    /** How long a waiting thread parks between checks once it has stopped spinning. */
+    private static final long PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+    private final AtomicReferenceArray<T> slots;
+    private final AtomicLongArray slotSequences;
+    private final int mask;
+
+    /** Position of the next item to add. */
+    private final AtomicLong addPosition = new AtomicLong();
+
+    /** Position of the next item to take. */
+    private final AtomicLong takePosition = new AtomicLong();
+
+    /** Set once the buffer is cancelled; waiting calls then fail. */
+    private volatile boolean cancelled;
+
+    /**
+     * Creates an empty ring buffer.
+     *
+     * @param capacity The number of slots; must be a power of two.
+     * @throws IllegalArgumentException If the capacity is not a positive power of two.
+     */
+    public RingBuffer(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.slotSequences = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+
+        for (int i = 0; i < capacity; i++) {
+            slotSequences.set(i, i);
+        }
+    }
+
+    /**
+     * Adds an item if there is room.
+     *
+     * @param item The item to add; must not be {@code null}.
+     * @return {@code true} if the item was added, {@code false} if the buffer is full.
+     */
+    public boolean offer(T item) {
+        long position = addPosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = slotSequences.get(index) - position;
+
+            if (difference == 0) {
+                // The slot is free for this position; claim it
+                if (addPosition.compareAndSet(position, position + 1)) {
+                    slots.set(index, item);
+                    slotSequences.set(index, position + 1);
+                    return true;
+                }
+                position = addPosition.get();
+            } else if (difference < 0) {
+                // The slot still holds an item from the previous lap
+                return false;
+            } else {
+                position = addPosition.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest item if there is one.
+     *
+     * @return The item, or {@code null} if the buffer is empty.
+     */
+    public T poll() {
+        long position = takePosition.get();
+        while (true) {
+            int index = (int) position & mask;
+            long difference = slotSequences.get(index) - (position + 1);
+
+            if (difference == 0) {
+                // The slot holds the item for this position; claim it
+                if (takePosition.compareAndSet(position, position + 1)) {
+                    T item = slots.get(index);
+                    slots.set(index, null);
+                    slotSequences.set(index, position + mask + 1);
+                    return item;
+                }
+                position = takePosition.get();
+            } else if (difference < 0) {
+                // Nothing has been added at this position yet
+                return null;
+            } else {
+                position = takePosition.get();
+            }
+        }
+    }
+
+    /**
+     * Adds an item, waiting for room if the buffer is full.
+     *
+     * @param item The item to add; must not be {@code null}.
+     * @throws InterruptedException If the thread is interrupted while waiting, or the
+     *         buffer is cancelled.
+     */
+    public void put(T item) throws InterruptedException {
+        int rounds = 0;
+        while (!offer(item)) {
+            rounds = backOff(rounds);
+        }
+    }
+
+    /**
+     * Takes the oldest item, waiting for one if the buffer is empty.
+     *
+     * @return The item.
+     * @throws InterruptedException If the thread is interrupted while waiting, or the
+     *         buffer is cancelled.
+     */
+    public T take() throws InterruptedException {
+        int rounds = 0;
+        T item;
+        while ((item = poll()) == null) {
+            rounds = backOff(rounds);
+        }
+        return item;
+    }
+
+    /**
+     * Cancels the buffer: threads waiting in {@link #put(Object)} or {@link #take()},
+     * and any that wait later, get an {@link InterruptedException}. {@link #offer(Object)}
+     * and {@link #poll()} are not affected.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Tells whether the buffer has been cancelled.
+     *
+     * @return {@code true} after {@link #cancel()}.
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private int backOff(int rounds) throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        if (cancelled) {
+            throw new InterruptedException("Ring buffer cancelled");
+        }
+        if (rounds < SPIN_LIMIT) {
+            Thread.onSpinWait();
+        } else if (rounds < YIELD_LIMIT) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(PARK_NANOS);
+            return rounds;
+        }
+        return rounds + 1;
+    }
+}
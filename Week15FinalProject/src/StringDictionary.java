@@ -0,0 +1,147 @@
+/**
+ * StringDictionary assigns dense {@code int} IDs to strings in the order they are first
+ * seen, for dictionary-encoding column values. Lookups go through an open-addressing
+ * hash table with linear probing over a primitive {@code int[]} of IDs, next to an
+ * {@code int[]} of cached hash codes, so encoding a string allocates nothing once the
+ * string is known: no {@code Integer} or map entry objects, and a probe compares the
+ * cached hash before it touches the string itself.
+ *
+ * <p>A dictionary is not thread-safe; each thread encodes into its own.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.Arrays;
+
+public class StringDictionary {
+
+    /** Marks an unused slot of the hash table; slots hold {@code ID + 1}. */
+    private static final int EMPTY = 0;
+
+    /** The table is grown once it is more than this fraction full. */
+    private static final double LOAD_FACTOR = 0.6;
+
+    /** Hash table of {@code ID + 1}, or {@link #EMPTY}. */
+    private int[] table;
+    private int mask;
+    private int resizeThreshold;
+
+    /** The strings, indexed by ID. */
+    private String[] values;
+
+    /** The spread hash code of each string, indexed by ID. */
+    private int[] hashes;
+
+    private int size;
+
+    /**
+     * Creates an empty dictionary with room for a small number of strings.
+     */
+    public StringDictionary() {
+        this(16);
+    }
+
+    /**
+     * Creates an empty dictionary sized to hold the given number of strings without
+     * resizing.
+     *
+     * @param expectedSize The number of distinct strings expected.
+     */
+    public StringDictionary(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, (int) (expectedSize / LOAD_FACTOR)) - 1) << 1;
+        allocate(capacity);
+        values = new String[Math.max(4, expectedSize)];
+        hashes = new int[values.length];
+    }
+
+    /**
+     * Gets the ID of a string, assigning the next free ID if the string is new.
+     *
+     * @param value The string to encode; must not be {@code null}.
+     * @return The ID, between 0 and {@link #size()} - 1 once the call returns.
+     */
+    public int encode(String value) {
+        int hash = hash(value);
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != EMPTY) {
+            int id = entry - 1;
+            if (hashes[id] == hash && values[id].equals(value)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        int id = size++;
+        if (id == values.length) {
+            values = Arrays.copyOf(values, id * 2);
+            hashes = Arrays.copyOf(hashes, id * 2);
+        }
+        values[id] = value;
+        hashes[id] = hash;
+        table[slot] = id + 1;
+        if (size > resizeThreshold) {
+            resize(table.length << 1);
+        }
+        return id;
+    }
+
+    /**
+     * Gets the string with the given ID.
+     *
+     * @param id An ID returned by {@link #encode(String)}.
+     * @return The string.
+     * @throws IndexOutOfBoundsException If no string has the ID.
+     */
+    public String decode(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No string with ID " + id);
+        }
+        return values[id];
+    }
+
+    /**
+     * Gets the number of distinct strings in the dictionary.
+     *
+     * @return The number of strings, which is also the next ID to be assigned.
+     */
+    public int size() {
+        return size;
+    }
+
+    private void allocate(int capacity) {
+        table = new int[capacity];
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Grows the hash table. The cached hashes place every ID again without calling
+     * {@link String#hashCode()}.
+     */
+    private void resize(int newCapacity) {
+        allocate(newCapacity);
+        for (int id = 0; id < size; id++) {
+            int slot = hashes[id] & mask;
+            while (table[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = id + 1;
+        }
+    }
+
+    /**
+     * Spreads the bits of a string's hash code, so strings whose hash codes differ only
+     * in their high bits do not cluster in a small table (finalizer step of MurmurHash3).
+     */
+    private static int hash(String value) {
+        int hash = value.hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
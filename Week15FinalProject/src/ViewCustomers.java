@@ -27,24 +27,24 @@
  * @see #saveDocument(Document, String)
  * @see #modifyCustomerData(Document, CModifiedCustomerData[])
  * @see #modifyCustomerList()
+ * @see #printSortedCustomerReport(String, CustomerSortKey)
  */
 
 import java.io.BufferedReader;
-import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.InputMismatchException;
 import java.util.List;
 import java.util.Scanner;
 
 import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Transformer;
 import javax.xml.transform.TransformerConfigurationException;
 import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
@@ -303,7 +303,8 @@ public class ViewCustomers {
 	 *
 	 * This method creates a new XML document using DocumentBuilder, generates "Customer" elements
 	 * for each customer in the list, and sets the corresponding attributes and child elements.
-	 * The resulting XML document is then transformed and saved to a file using a Transformer.
+	 * The resulting XML document is then transformed and saved to a file using a Transformer,
+	 * through an {@link AtomicFileOutput} so the file is never left half-written.
 	 *
 	 * @param customerList The list of customer objects used to build the XML report.
 	 * @throws ParserConfigurationException If an error occurs during XML parser configuration.
@@ -316,10 +317,18 @@ public class ViewCustomers {
 	 * @since 1.0
 	 */
     private static void buildCustomerReport(List<CCustomers> customerList) {
+        CustomerMetrics metrics = CustomerMetrics.get();
+
         try {
+            long writeStart = System.nanoTime();
+            CustomerEvents.Serialize serializeEvent =
+                    CustomerEvents.isRecording() ? new CustomerEvents.Serialize() : null;
+            if (serializeEvent != null) {
+                serializeEvent.begin();
+            }
+
             // Create a new XML document using DocumentBuilder
-            DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-            DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
+            DocumentBuilder dBuilder = XmlFactories.newDocumentBuilder();
             Document doc = dBuilder.newDocument();
 
             // Create the root element for Customers
@@ -363,14 +372,30 @@ public class ViewCustomers {
             }
 
             // Create a Transformer for outputting the XML document
-            TransformerFactory transformerFactory = TransformerFactory.newInstance();
-            Transformer transformer = transformerFactory.newTransformer();
+            Transformer transformer = XmlFactories.newTransformer();
             transformer.setOutputProperty(OutputKeys.INDENT, "yes");
             DOMSource source = new DOMSource(doc);
 
-            // Save the XML document to a file ("customers.xml")
-            StreamResult result = new StreamResult(new File("customers.xml"));
-            transformer.transform(source, result);
+            // Save the XML document to a file ("customers.xml"), replacing it only once complete
+            long bytesWritten;
+            try (AtomicFileOutput fileOutput = new AtomicFileOutput("customers.xml");
+                    CustomerMetrics.CountingOutputStream output = metrics.countBytesWritten(fileOutput)) {
+                transformer.transform(source, new StreamResult(output));
+                bytesWritten = output.getByteCount();
+                output.flush();
+                fileOutput.commit();
+            }
+            metrics.recordStage(CustomerMetrics.Stage.WRITE, System.nanoTime() - writeStart);
+
+            if (serializeEvent != null) {
+                serializeEvent.end();
+                if (serializeEvent.shouldCommit()) {
+                    serializeEvent.filePath = "customers.xml";
+                    serializeEvent.recordCount = customerList.size();
+                    serializeEvent.byteCount = bytesWritten;
+                    serializeEvent.commit();
+                }
+            }
 
             // Output the XML to the console
            // StreamResult consoleResult = new StreamResult(System.out);
@@ -380,18 +405,27 @@ public class ViewCustomers {
         } catch (ParserConfigurationException e) {
             // Handle parser configuration exception
             System.err.println("Error creating XML parser configuration: " + e.getMessage());
+            metrics.recordError();
             e.printStackTrace();
             
          // Step 5 enhancement: Handle transformer configuration exception, printing error details and stack trace
         } catch (TransformerConfigurationException e) {
             // Handle transformer configuration exception
             System.err.println("Error creating XML transformer configuration: " + e.getMessage());
+            metrics.recordError();
             e.printStackTrace();
             
          // Step 5 enhancement: Handle transformer exception, printing error details and stack trace
         } catch (TransformerException e) {
             // Handle transformer exception
             System.err.println("Error transforming XML document: " + e.getMessage());
+            metrics.recordError();
+            e.printStackTrace();
+
+         // Handle errors opening or closing the report file
+        } catch (IOException e) {
+            System.err.println("Error writing XML document: " + e.getMessage());
+            metrics.recordError();
             e.printStackTrace();
         }
     }
@@ -421,12 +455,12 @@ public class ViewCustomers {
                     Element customerElement = (Element) customerNode;
 
                     String id = customerElement.getAttribute("ID");
-                    String name = customerElement.getElementsByTagName("name").item(0).getTextContent();
-                    String type = customerElement.getElementsByTagName("type").item(0).getTextContent();
-                    String address = customerElement.getElementsByTagName("address").item(0).getTextContent();
-                    String city = customerElement.getElementsByTagName("city").item(0).getTextContent();
-                    String state = customerElement.getElementsByTagName("state").item(0).getTextContent();
-                    String zip = customerElement.getElementsByTagName("zip").item(0).getTextContent();
+                    String name = getFieldText(customerElement, "name");
+                    String type = getFieldText(customerElement, "type");
+                    String address = getFieldText(customerElement, "address");
+                    String city = getFieldText(customerElement, "city");
+                    String state = getFieldText(customerElement, "state");
+                    String zip = getFieldText(customerElement, "zip");
 
                     // Format the address
                     String formattedAddress = address + "\n\t " + city + ", " + state + " " + zip;
@@ -444,10 +478,25 @@ public class ViewCustomers {
         } catch (Exception e) {
             // Handle exceptions
             System.err.println("Error printing customer report: " + e.getMessage());
+            CustomerMetrics.get().recordError();
             e.printStackTrace();
         }
     }
 
+    /**
+     * Gets the text of the first child element with the given name. A missing field
+     * yields an empty string so that one incomplete customer doesn't abort the report.
+     *
+     * @param customerElement The "Customer" element.
+     * @param fieldName The name of the child element.
+     * @return The text content of the field, or an empty string if it is missing.
+     * @since 1.0
+     */
+    private static String getFieldText(Element customerElement, String fieldName) {
+        Node fieldNode = customerElement.getElementsByTagName(fieldName).item(0);
+        return fieldNode == null ? "" : fieldNode.getTextContent();
+    }
+
     /**
      * Reads a customer report from an XML file specified by the given file path,
      * parses the document, and prints a formatted customer report to the console.
@@ -464,15 +513,37 @@ public class ViewCustomers {
      * @since 1.0
      */
 	private static void readAndPrintCustomerReport(String filePath) {
+	    CustomerMetrics metrics = CustomerMetrics.get();
+
 	    try {
-	        File file = new File(filePath);
-	        DocumentBuilderFactory dbFactory = DocumentBuilderFactory.newInstance();
-	        DocumentBuilder dBuilder = dbFactory.newDocumentBuilder();
-	        Document doc = dBuilder.parse(file);
+	        long readStart = System.nanoTime();
+	        CustomerEvents.Parse parseEvent = CustomerEvents.isRecording() ? new CustomerEvents.Parse() : null;
+	        if (parseEvent != null) {
+	            parseEvent.begin();
+	        }
+	        DocumentBuilder dBuilder = XmlFactories.newDocumentBuilder();
+	        Document doc;
+	        long bytesRead;
+	        try (CustomerMetrics.CountingInputStream input = metrics.countBytesRead(CustomerStreamReader.openFile(filePath))) {
+	            doc = dBuilder.parse(input);
+	            bytesRead = input.getByteCount();
+	        }
 
 	        doc.getDocumentElement().normalize();
 
 	        NodeList customerNodeList = doc.getElementsByTagName("Customer");
+	        metrics.addRecordsParsed(customerNodeList.getLength());
+	        metrics.recordStage(CustomerMetrics.Stage.READ, System.nanoTime() - readStart);
+
+	        if (parseEvent != null) {
+	            parseEvent.end();
+	            if (parseEvent.shouldCommit()) {
+	                parseEvent.filePath = filePath;
+	                parseEvent.recordCount = customerNodeList.getLength();
+	                parseEvent.byteCount = bytesRead;
+	                parseEvent.commit();
+	            }
+	        }
 
 	        System.out.println("Root Element: " + doc.getDocumentElement().getNodeName());
 
@@ -485,10 +556,106 @@ public class ViewCustomers {
 	    } catch (Exception e) {
 	        // Handle exceptions
 	        System.err.println("Error reading and printing customer report: " + e.getMessage());
+	        metrics.recordError();
 	        e.printStackTrace();
 	    }
 	}
-    
+
+
+    /**
+     * Reads the customers from an XML file, sorts them by the given key and prints a
+     * formatted customer report to the console in sorted order.
+     *
+     * This method streams the file through a {@link CustomerSorter} instead of building a
+     * DOM tree, so files larger than the available heap can be reported. Customers that
+     * do not fit in the sorter's memory budget are spilled to temporary files and merged.
+     *
+     * @param filePath The file path to the XML file containing customer information.
+     * @param sortKey The field to sort customers by.
+     *
+     * @see CustomerSorter
+     * @since 1.0
+     */
+    public static void printSortedCustomerReport(String filePath, CustomerSortKey sortKey) {
+        try {
+            CustomerSorter sorter = new CustomerSorter(sortKey,
+                    Long.getLong("customers.sort.memory", CustomerSorter.DEFAULT_MEMORY_BUDGET), null);
+
+            System.out.println("Customers sorted by " + sortKey.getKeyName());
+            System.out.println("\n");
+
+            sorter.sort(filePath, ViewCustomers::printCustomer);
+
+        } catch (Exception e) {
+            // Handle exceptions
+            System.err.println("Error sorting customer report: " + e.getMessage());
+            CustomerMetrics.get().recordError();
+            e.printStackTrace();
+        }
+    }
+
+
+    /**
+     * Prints a single customer to the console using the same layout as
+     * {@link #printCustomerReport(NodeList)}.
+     *
+     * @param customer The customer to print.
+     * @since 1.0
+     */
+    public static void printCustomer(CCustomers customer) {
+        printCustomer(customer, System.out);
+    }
+
+
+    /**
+     * Prints a single customer to the given stream using the same layout as
+     * {@link #printCustomerReport(NodeList)}.
+     *
+     * @param customer The customer to print.
+     * @param out The stream to print to.
+     * @since 1.0
+     */
+    public static void printCustomer(CCustomers customer, PrintStream out) {
+        // Format the address
+        String formattedAddress = customer.getAddress() + "\n\t " + customer.getCity() + ", "
+                + customer.getState() + " " + customer.getZipcode();
+
+        out.println("Customer ID " + customer.getID());
+        out.println("Name:    " + customer.getName());
+        out.println("Type:    " + customer.getType());
+        out.println("Address: " + formattedAddress);
+    }
+
+
+    /**
+     * Prints a customer record to the console using the same layout as
+     * {@link #printCustomer(CCustomers)}, followed by its contact data if it has any.
+     *
+     * @param record The record to print.
+     * @since 1.0
+     */
+    public static void printCustomer(CustomerRecord record) {
+        printCustomer(record, System.out);
+    }
+
+
+    /**
+     * Prints a customer record to the given stream using the same layout as
+     * {@link #printCustomer(CustomerRecord)}.
+     *
+     * @param record The record to print.
+     * @param out The stream to print to.
+     * @since 1.0
+     */
+    public static void printCustomer(CustomerRecord record, PrintStream out) {
+        printCustomer(record.toCustomer(), out);
+        if (record.hasContactData()) {
+            out.println("Phone:   " + record.getPhoneNumber());
+            out.println("Contact: " + record.getContactName());
+            out.println("Email:   " + record.getEmailAddress());
+        }
+    }
+
 
 
 }
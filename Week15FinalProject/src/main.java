@@ -1,9 +1,489 @@
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 public class main {
 
+	/** The customers file used when no input file is given on the command line. */
+	private static final String DEFAULT_INPUT_FILE = "customers.xml";
+
+	/**
+	 * Starts the interactive customer menu when no arguments are given, otherwise runs
+	 * the command named by the first argument. A metrics report is printed to the
+	 * standard error stream at the end of the run unless the system property
+	 * "customers.metrics" is set to false.
+	 *
+	 * @param args Optional command followed by its arguments.
+	 */
 	public static void main(String[] args) {
-		// TODO Auto-generated method stub
-		ViewCustomers.startCustomerList();
+		try {
+			runCommand(args);
+		} finally {
+			if (Boolean.parseBoolean(System.getProperty("customers.metrics", "true"))) {
+				CustomerMetrics.get().dump(System.err);
+			}
+		}
+	}
+
+	/**
+	 * Runs the command named by the first argument, or the interactive menu when there
+	 * are no arguments.
+	 *
+	 * @param args Optional command followed by its arguments.
+	 */
+	private static void runCommand(String[] args) {
+		if (args.length == 0) {
+			ViewCustomers.startCustomerList();
+			return;
+		}
+
+		try {
+			switch (args[0]) {
+				case "sort":
+					runSort(args);
+					break;
+				case "aggregate":
+					runAggregate(args);
+					break;
+				case "validate":
+					runValidate(args);
+					break;
+				case "stream-modify":
+					runStreamModify(args);
+					break;
+				case "stream-report":
+					runStreamReport(args);
+					break;
+				case "modify":
+					runModify(args);
+					break;
+				case "lookup":
+					runLookup(args);
+					break;
+				case "search":
+					runSearch(args);
+					break;
+				case "batch":
+					runBatch(args);
+					break;
+				default:
+					printUsage();
+					break;
+			}
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			printUsage();
+		} catch (Exception e) {
+			System.err.println("Error running " + args[0] + ": " + e.getMessage());
+			CustomerMetrics.get().recordError();
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Runs "sort &lt;key&gt; [input] [output]". Without an output file the sorted customers
+	 * are printed as a report; otherwise they are written to the output file as XML.
+	 *
+	 * @param args The command-line arguments, starting with "sort".
+	 * @throws Exception If the customers cannot be read, sorted or written.
+	 */
+	private static void runSort(String[] args) throws Exception {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Missing sort key.");
+		}
+		CustomerSortKey sortKey = CustomerSortKey.fromKeyName(args[1]);
+		String inputPath = argumentOrDefault(args, 2, DEFAULT_INPUT_FILE);
+
+		if (args.length < 4) {
+			ViewCustomers.printSortedCustomerReport(inputPath, sortKey);
+		} else {
+			CustomerSorter sorter = new CustomerSorter(sortKey,
+					Long.getLong("customers.sort.memory", CustomerSorter.DEFAULT_MEMORY_BUDGET), null);
+			sorter.sort(inputPath, args[3]);
+			System.out.println("Sorted customers saved to " + args[3]);
+		}
+	}
+
+	/**
+	 * Runs "aggregate &lt;column[,column...]&gt; [input] [--distinct column]" and prints the
+	 * customer counts per group.
+	 *
+	 * @param args The command-line arguments, starting with "aggregate".
+	 * @throws Exception If the customers cannot be read or aggregated.
+	 */
+	private static void runAggregate(String[] args) throws Exception {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Missing group-by columns.");
+		}
+		List<CustomerAggregator.Column> groupByColumns = new ArrayList<>();
+		for (String strColumn : args[1].split(",")) {
+			groupByColumns.add(CustomerAggregator.Column.parse(strColumn));
+		}
+
+		String inputPath = DEFAULT_INPUT_FILE;
+		CustomerAggregator.Column distinctColumn = null;
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equals("--distinct") && i + 1 < args.length) {
+				distinctColumn = CustomerAggregator.Column.parse(args[++i]);
+			} else {
+				inputPath = args[i];
+			}
+		}
+
+		CustomerAggregator aggregator = new CustomerAggregator(groupByColumns, distinctColumn,
+				Runtime.getRuntime().availableProcessors());
+		aggregator.printRows(aggregator.aggregate(inputPath), System.out);
+	}
+
+	/**
+	 * Runs "validate [input] [--schema xsd] [--rejects file] [--output file]". Every
+	 * customer is checked; bad records are quarantined to the reject file (by default
+	 * the input path followed by ".rejects.txt") and, if an output file is given, good
+	 * records are written to it. With --schema the file is also validated against the
+	 * XSD in parallel with reading.
+	 *
+	 * @param args The command-line arguments, starting with "validate".
+	 * @throws Exception If the customers cannot be read, validated or written.
+	 */
+	private static void runValidate(String[] args) throws Exception {
+		String inputPath = DEFAULT_INPUT_FILE;
+		String schemaPath = null;
+		String rejectPath = null;
+		String outputPath = null;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--schema") && i + 1 < args.length) {
+				schemaPath = args[++i];
+			} else if (args[i].equals("--rejects") && i + 1 < args.length) {
+				rejectPath = args[++i];
+			} else if (args[i].equals("--output") && i + 1 < args.length) {
+				outputPath = args[++i];
+			} else {
+				inputPath = args[i];
+			}
+		}
+		if (rejectPath == null) {
+			rejectPath = inputPath + ".rejects.txt";
+		}
+
+		CustomerValidator.Mode mode = schemaPath == null ? CustomerValidator.Mode.STRUCTURAL : CustomerValidator.Mode.SCHEMA;
+		try (CustomerValidator validator = new CustomerValidator(mode, inputPath, schemaPath, rejectPath);
+				CustomerStreamReader reader = new CustomerStreamReader(inputPath);
+				CustomerStreamWriter writer = outputPath == null ? null
+						: new CustomerStreamWriter(outputPath)) {
+			reader.setValidator(validator);
+
+			CustomerRecord customer;
+			while ((customer = reader.nextRecord()) != null) {
+				if (writer != null) {
+					writer.write(customer);
+				}
+			}
+
+			if (writer != null) {
+				writer.finish();
+			}
+			System.out.println("Valid customers:    " + validator.getAcceptedCount());
+			System.out.println("Rejected customers: " + validator.getRejectedCount()
+					+ (validator.getRejectedCount() > 0 ? " (see " + rejectPath + ")" : ""));
+		}
+	}
+
+	/**
+	 * Runs "stream-modify [input] [output]": publishes the customers of the input file,
+	 * applies the predefined modified customer data, batches the results and writes them
+	 * to the output file (by default "customer_modified.xml") through a
+	 * backpressure-aware flow.
+	 *
+	 * @param args The command-line arguments, starting with "stream-modify".
+	 * @throws Exception If the customers cannot be read, modified or written.
+	 */
+	private static void runStreamModify(String[] args) throws Exception {
+		String inputPath = argumentOrDefault(args, 1, DEFAULT_INPUT_FILE);
+		String outputPath = argumentOrDefault(args, 2, "customer_modified.xml");
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CustomerPublisher publisher = new CustomerPublisher(inputPath, executor);
+			CustomerFlowProcessor<CustomerRecord, CustomerRecord> patchStage =
+					CustomerFlowProcessor.patch(ModifyCustomers.getModifiedCustomerData());
+			CustomerFlowProcessor<CustomerRecord, List<CustomerRecord>> batchStage = CustomerFlowProcessor.batch(256);
+			CustomerXmlSubscriber xmlSubscriber = new CustomerXmlSubscriber(outputPath, 4);
+
+			publisher.subscribe(patchStage);
+			patchStage.subscribe(batchStage);
+			batchStage.subscribe(xmlSubscriber);
+
+			long batchCount = xmlSubscriber.getCompletion().get();
+			System.out.println("Modified XML saved to " + outputPath + " (" + batchCount + " batches)");
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Runs "stream-report [input] [--type type]": prints the customers of the input file,
+	 * optionally only those of one customer type, through a backpressure-aware flow.
+	 *
+	 * @param args The command-line arguments, starting with "stream-report".
+	 * @throws Exception If the customers cannot be read.
+	 */
+	private static void runStreamReport(String[] args) throws Exception {
+		String inputPath = DEFAULT_INPUT_FILE;
+		String customerType = null;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--type") && i + 1 < args.length) {
+				customerType = args[++i];
+			} else {
+				inputPath = args[i];
+			}
+		}
+		String selectedType = customerType;
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			CustomerPublisher publisher = new CustomerPublisher(inputPath, executor);
+			CustomerFlowProcessor<CustomerRecord, CustomerRecord> filterStage = CustomerFlowProcessor.filter(
+					customer -> selectedType == null || selectedType.equalsIgnoreCase(customer.getType()));
+			CustomerReportSubscriber reportSubscriber = new CustomerReportSubscriber(CustomerSinkSubscriber.DEFAULT_WINDOW);
+
+			publisher.subscribe(filterStage);
+			filterStage.subscribe(reportSubscriber);
+
+			reportSubscriber.getCompletion().get();
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Runs "modify [input] [output] [--workers n] [--lookup id[,id...]]": applies the
+	 * predefined modified customer data to the input file and writes the result to the
+	 * output file (by default "customer_modified.xml"), reading, modifying and writing on
+	 * separate threads connected by bounded ring buffers. With --lookup the modified
+	 * customers are kept in a {@link CustomerIdIndex} and those with the given IDs are
+	 * printed once the output file has been saved.
+	 *
+	 * @param args The command-line arguments, starting with "modify".
+	 * @throws Exception If the customers cannot be read, modified or written.
+	 */
+	private static void runModify(String[] args) throws Exception {
+		String inputPath = DEFAULT_INPUT_FILE;
+		String outputPath = "customer_modified.xml";
+		int workerCount = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+		int[] lookupIDs = null;
+		int positionalCount = 0;
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("--workers") && i + 1 < args.length) {
+				try {
+					workerCount = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid worker count: " + args[i]);
+				}
+			} else if (args[i].equals("--lookup") && i + 1 < args.length) {
+				lookupIDs = parseIDs(args[++i]);
+			} else if (positionalCount++ == 0) {
+				inputPath = args[i];
+			} else {
+				outputPath = args[i];
+			}
+		}
+
+		CustomerPipeline pipeline = new CustomerPipeline(inputPath, outputPath,
+				ModifyCustomers.getModifiedCustomerData(), workerCount);
+		CustomerIdIndex idIndex = lookupIDs != null ? new CustomerIdIndex() : null;
+		pipeline.setIdIndex(idIndex);
+		long customerCount = pipeline.run();
+		System.out.println("Modified XML saved to " + outputPath + " (" + customerCount + " customers)");
+
+		if (idIndex != null) {
+			idIndex.compact();
+			System.out.println();
+			for (int intID : lookupIDs) {
+				printLookupResult(intID, idIndex.get(intID));
+			}
+		}
+	}
+
+	/**
+	 * Runs "lookup &lt;id[,id...]&gt; [input] [--lazy]" and prints the customers with the
+	 * given IDs. By default the customers of the input file are loaded into a
+	 * {@link CustomerIdIndex}; with --lazy only the requested customers are read, using
+	 * the {@link CustomerOffsetIndex} saved next to the file (built on first use).
+	 *
+	 * @param args The command-line arguments, starting with "lookup".
+	 * @throws Exception If the customers cannot be read.
+	 */
+	private static void runLookup(String[] args) throws Exception {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Missing customer IDs.");
+		}
+		int[] ids = parseIDs(args[1]);
+		String inputPath = DEFAULT_INPUT_FILE;
+		boolean lazy = false;
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equals("--lazy")) {
+				lazy = true;
+			} else {
+				inputPath = args[i];
+			}
+		}
+
+		long loadStart = System.nanoTime();
+		if (lazy) {
+			try (CustomerOffsetIndex offsetIndex = CustomerOffsetIndex.open(inputPath)) {
+				System.out.printf("%s offset index of %d customers in %.1f ms%n%n",
+						offsetIndex.isLoadedFromDisk() ? "Loaded" : "Built", offsetIndex.size(),
+						(System.nanoTime() - loadStart) / 1e6);
+				for (int intID : ids) {
+					printLookupResult(intID, offsetIndex.get(intID));
+				}
+			}
+		} else {
+			CustomerIdIndex idIndex = CustomerIdIndex.load(inputPath);
+			System.out.printf("Indexed %d customers (%s) in %.1f ms%n%n", idIndex.size(),
+					idIndex.isDense() ? "dense" : "hashed", (System.nanoTime() - loadStart) / 1e6);
+			for (int intID : ids) {
+				printLookupResult(intID, idIndex.get(intID));
+			}
+		}
+	}
+
+	/**
+	 * Parses a comma-separated list of customer IDs.
+	 *
+	 * @param strIDs The IDs, separated by commas.
+	 * @return The IDs.
+	 * @throws IllegalArgumentException If an ID is not a number.
+	 */
+	private static int[] parseIDs(String strIDs) {
+		String[] strParts = strIDs.split(",");
+		int[] ids = new int[strParts.length];
+		for (int i = 0; i < strParts.length; i++) {
+			try {
+				ids[i] = Integer.parseInt(strParts[i].trim());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("Invalid customer ID: " + strParts[i]);
+			}
+		}
+		return ids;
+	}
+
+	private static void printLookupResult(int intID, CustomerRecord record) {
+		if (record == null) {
+			System.out.println("No customer with ID " + intID);
+		} else {
+			ViewCustomers.printCustomer(record);
+		}
+		System.out.println();
+	}
+
+	/**
+	 * Runs "search &lt;query&gt; [input] [--limit n]": indexes the names, contact names and
+	 * email addresses of the input file in a {@link CustomerNameIndex} and prints the
+	 * customers best matching the query (by default the first 10).
+	 *
+	 * @param args The command-line arguments, starting with "search".
+	 * @throws Exception If the customers cannot be read.
+	 */
+	private static void runSearch(String[] args) throws Exception {
+		if (args.length < 2) {
+			throw new IllegalArgumentException("Missing search query.");
+		}
+		String inputPath = DEFAULT_INPUT_FILE;
+		int limit = 10;
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equals("--limit") && i + 1 < args.length) {
+				try {
+					limit = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid result limit: " + args[i]);
+				}
+			} else {
+				inputPath = args[i];
+			}
+		}
+
+		long loadStart = System.nanoTime();
+		CustomerNameIndex nameIndex = CustomerNameIndex.load(inputPath);
+		System.out.printf("Indexed %d customers in %.1f ms%n", nameIndex.size(),
+				(System.nanoTime() - loadStart) / 1e6);
+
+		long searchStart = System.nanoTime();
+		List<CustomerRecord> results = nameIndex.search(args[1], limit);
+		System.out.printf("%d matches for \"%s\" in %.2f ms%n%n", results.size(), args[1],
+				(System.nanoTime() - searchStart) / 1e6);
+
+		for (CustomerRecord record : results) {
+			ViewCustomers.printCustomer(record);
+			System.out.println();
+		}
+	}
+
+	/**
+	 * Runs "batch &lt;modify|report&gt; &lt;file|directory|glob&gt;... [--output-dir dir]
+	 * [--threads n]": modifies or reports on every matching customers file in parallel,
+	 * writing each result to its own file, and prints a summary of all files.
+	 *
+	 * @param args The command-line arguments, starting with "batch".
+	 * @throws Exception If the input files cannot be listed.
+	 */
+	private static void runBatch(String[] args) throws Exception {
+		if (args.length < 3) {
+			throw new IllegalArgumentException("Missing batch mode or input files.");
+		}
+		CustomerBatchProcessor.Mode mode = CustomerBatchProcessor.Mode.parse(args[1]);
+		String outputDirectory = null;
+		int threadCount = Runtime.getRuntime().availableProcessors();
+		List<String> inputPatterns = new ArrayList<>();
+		for (int i = 2; i < args.length; i++) {
+			if (args[i].equals("--output-dir") && i + 1 < args.length) {
+				outputDirectory = args[++i];
+			} else if (args[i].equals("--threads") && i + 1 < args.length) {
+				try {
+					threadCount = Integer.parseInt(args[++i]);
+				} catch (NumberFormatException e) {
+					throw new IllegalArgumentException("Invalid thread count: " + args[i]);
+				}
+			} else {
+				inputPatterns.add(args[i]);
+			}
+		}
+
+		List<Path> inputs = CustomerBatchProcessor.resolveInputs(inputPatterns);
+		if (inputs.isEmpty()) {
+			throw new IllegalArgumentException("No customer files match " + inputPatterns);
+		}
+		if (outputDirectory != null) {
+			Files.createDirectories(Paths.get(outputDirectory));
+		}
+
+		CustomerBatchProcessor processor = new CustomerBatchProcessor(mode, outputDirectory, threadCount);
+		long batchStart = System.nanoTime();
+		List<CustomerBatchProcessor.FileResult> results = processor.process(inputs);
+		CustomerBatchProcessor.printSummary(results, System.nanoTime() - batchStart, System.out);
+	}
+
+	private static String argumentOrDefault(String[] args, int index, String defaultValue) {
+		return args.length > index ? args[index] : defaultValue;
+	}
+
+	private static void printUsage() {
+		System.out.println("Usage: java main [command]");
+		System.out.println("  (no command)                         interactive menu");
+		System.out.println("  sort <id|name|state-city|zip> [input] [output]");
+		System.out.println("  aggregate <type|state|city|zip|zipN>[,...] [input] [--distinct <column>]");
+		System.out.println("  validate [input] [--schema <xsd>] [--rejects <file>] [--output <file>]");
+		System.out.println("  stream-modify [input] [output]");
+		System.out.println("  stream-report [input] [--type <type>]");
+		System.out.println("  modify [input] [output] [--workers <n>] [--lookup <id>[,<id>...]]");
+		System.out.println("  lookup <id>[,<id>...] [input] [--lazy]");
+		System.out.println("  search <query> [input] [--limit <n>]");
+		System.out.println("  batch <modify|report> <file|directory|glob>... [--output-dir <dir>] [--threads <n>]");
 	}
 
 }
@@ -0,0 +1,157 @@
+/**
+ * Tests {@link AtomicFileOutput}: a commit replaces the target with exactly the bytes
+ * written, and closing without a commit leaves the target and its directory as they were.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class AtomicFileOutputTest {
+
+    public static void main(String[] args) {
+        System.out.println("AtomicFileOutputTest");
+        TestSupport.run("rejects bad buffer sizes and sync intervals", AtomicFileOutputTest::rejectsBadArguments);
+        TestSupport.run("commit creates a missing target", AtomicFileOutputTest::commitCreatesTarget);
+        TestSupport.run("commit replaces the target with every byte written", AtomicFileOutputTest::commitReplaces);
+        TestSupport.run("close without commit keeps the old target", AtomicFileOutputTest::closeWithoutCommit);
+        TestSupport.run("writes after commit or close fail", AtomicFileOutputTest::writesAfterEndFail);
+        TestSupport.finish();
+    }
+
+    private static List<String> fileNames(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void rejectsBadArguments() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            String targetPath = directory.resolve("out.txt").toString();
+            for (long[] arguments : new long[][] {{0, 0}, {-1, 0}, {16, -1}}) {
+                try {
+                    new AtomicFileOutput(targetPath, (int) arguments[0], arguments[1]).close();
+                    throw new AssertionError("Buffer size " + arguments[0] + " and sync interval "
+                            + arguments[1] + " were accepted");
+                } catch (IllegalArgumentException e) {
+                    // Expected
+                }
+            }
+            TestSupport.checkEquals(List.of(), fileNames(directory), "Files left in the directory");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void commitCreatesTarget() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path targetPath = directory.resolve("out.txt");
+            try (AtomicFileOutput output = new AtomicFileOutput(targetPath.toString())) {
+                output.write("hello".getBytes(StandardCharsets.UTF_8));
+                TestSupport.check(!Files.exists(targetPath), "The target appeared before the commit");
+                output.commit();
+                TestSupport.check(output.isCommitted(), "Output not reported as committed");
+            }
+            TestSupport.checkEquals("hello", new String(Files.readAllBytes(targetPath), StandardCharsets.UTF_8),
+                    "Target content");
+            TestSupport.checkEquals(List.of("out.txt"), fileNames(directory), "Files in the directory");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void commitReplaces() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path targetPath = directory.resolve("out.bin");
+            Files.write(targetPath, "old content".getBytes(StandardCharsets.UTF_8));
+
+            // A small buffer and sync interval, so the buffer is drained and synced many times
+            byte[] expected = new byte[300_000];
+            new Random(11).nextBytes(expected);
+            try (AtomicFileOutput output = new AtomicFileOutput(targetPath.toString(), 4096, 10_000)) {
+                int position = 0;
+                Random chunkSizes = new Random(12);
+                while (position < expected.length) {
+                    if (chunkSizes.nextInt(4) == 0) {
+                        output.write(expected[position++]);
+                    } else {
+                        int length = Math.min(chunkSizes.nextInt(10_000), expected.length - position);
+                        output.write(expected, position, length);
+                        position += length;
+                    }
+                }
+                output.flush();
+                TestSupport.checkEquals("old content", new String(Files.readAllBytes(targetPath),
+                        StandardCharsets.UTF_8), "Target content before the commit");
+                output.commit();
+            }
+            TestSupport.check(Arrays.equals(expected, Files.readAllBytes(targetPath)), "Target content differs");
+            TestSupport.checkEquals(List.of("out.bin"), fileNames(directory), "Files in the directory");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void closeWithoutCommit() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path targetPath = directory.resolve("out.txt");
+            Files.write(targetPath, "old content".getBytes(StandardCharsets.UTF_8));
+
+            try (AtomicFileOutput output = new AtomicFileOutput(targetPath.toString(), 16, 0)) {
+                output.write("new content that is longer than the buffer".getBytes(StandardCharsets.UTF_8));
+                TestSupport.checkEquals(2, fileNames(directory).size(), "Files while writing");
+            }
+            TestSupport.checkEquals("old content", new String(Files.readAllBytes(targetPath), StandardCharsets.UTF_8),
+                    "Target content");
+            TestSupport.checkEquals(List.of("out.txt"), fileNames(directory), "Files in the directory");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void writesAfterEndFail() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            AtomicFileOutput committedOutput = new AtomicFileOutput(directory.resolve("a.txt").toString());
+            committedOutput.commit();
+            committedOutput.commit();
+            checkWriteFails(committedOutput);
+
+            AtomicFileOutput closedOutput = new AtomicFileOutput(directory.resolve("b.txt").toString());
+            closedOutput.close();
+            closedOutput.close();
+            checkWriteFails(closedOutput);
+            try {
+                closedOutput.commit();
+                throw new AssertionError("Commit after close succeeded");
+            } catch (IOException e) {
+                // Expected
+            }
+            TestSupport.checkEquals(List.of("a.txt"), fileNames(directory), "Files in the directory");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void checkWriteFails(AtomicFileOutput output) {
+        try {
+            output.write(1);
+            throw new AssertionError("Write after the end succeeded");
+        } catch (IOException e) {
+            // Expected
+        }
+    }
+}
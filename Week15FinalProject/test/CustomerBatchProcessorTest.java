@@ -0,0 +1,189 @@
+/**
+ * Tests {@link CustomerBatchProcessor}: every file of a batch gets its own output, a file
+ * that fails does not stop the others or leave an output behind, and input lists are
+ * resolved from directories and globs.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+public class CustomerBatchProcessorTest {
+
+    public static void main(String[] args) {
+        System.out.println("CustomerBatchProcessorTest");
+        TestSupport.run("parses modes in any case", CustomerBatchProcessorTest::parsesModes);
+        TestSupport.run("modifies every file of a batch", CustomerBatchProcessorTest::modifiesEveryFile);
+        TestSupport.run("a failed file leaves no output", CustomerBatchProcessorTest::failedFileLeavesNoOutput);
+        TestSupport.run("writes reports to an output directory", CustomerBatchProcessorTest::reportsToDirectory);
+        TestSupport.run("rejects two inputs with one output", CustomerBatchProcessorTest::rejectsOutputClash);
+        TestSupport.run("resolves directories and globs", CustomerBatchProcessorTest::resolvesInputs);
+        TestSupport.finish();
+    }
+
+    /**
+     * Writes a customers file of the given size, with IDs starting at a different value
+     * per file so outputs cannot be mixed up.
+     */
+    private static List<CustomerRecord> writeFile(Path filePath, int firstID, int count) throws Exception {
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            customers.add(TestSupport.customer(firstID + i, i % 2 == 0));
+        }
+        TestSupport.writeCustomers(filePath, customers);
+        return customers;
+    }
+
+    private static List<CustomerRecord> expectedModified(List<CustomerRecord> customers) {
+        CustomerRecord[] records = new CustomerRecord[customers.size()];
+        CustomerRecord.patchAll(customers.toArray(new CustomerRecord[0]), 0, ModifyCustomers.getModifiedCustomerData(),
+                records);
+        return List.of(records);
+    }
+
+    private static void parsesModes() {
+        TestSupport.checkEquals(CustomerBatchProcessor.Mode.MODIFY, CustomerBatchProcessor.Mode.parse("Modify"), "Mode");
+        TestSupport.checkEquals(CustomerBatchProcessor.Mode.REPORT, CustomerBatchProcessor.Mode.parse("report"), "Mode");
+        try {
+            CustomerBatchProcessor.Mode.parse("delete");
+            throw new AssertionError("An unknown mode was accepted");
+        } catch (IllegalArgumentException e) {
+            // Expected
+        }
+    }
+
+    private static void modifiesEveryFile() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            List<Path> inputs = new ArrayList<>();
+            List<List<CustomerRecord>> contents = new ArrayList<>();
+            int[] sizes = {3, 1200, 0, 40, 700, 5};
+            for (int i = 0; i < sizes.length; i++) {
+                Path inputPath = directory.resolve("region-" + i + ".xml");
+                contents.add(writeFile(inputPath, i * 10_000, sizes[i]));
+                inputs.add(inputPath);
+            }
+
+            CustomerBatchProcessor processor = new CustomerBatchProcessor(CustomerBatchProcessor.Mode.MODIFY, null, 3);
+            List<CustomerBatchProcessor.FileResult> results = processor.process(inputs);
+
+            TestSupport.checkEquals(inputs.size(), results.size(), "Results");
+            for (int i = 0; i < inputs.size(); i++) {
+                CustomerBatchProcessor.FileResult result = results.get(i);
+                TestSupport.check(result.isSuccessful(), "File " + i + " failed: " + result.getError());
+                TestSupport.checkEquals(inputs.get(i), result.getInputPath(), "Input of result " + i);
+                TestSupport.checkEquals((long) sizes[i], result.getRecordCount(), "Customers in file " + i);
+                TestSupport.checkEquals(directory.resolve("region-" + i + "_modified.xml").toAbsolutePath(),
+                        result.getOutputPath().toAbsolutePath(), "Output of file " + i);
+                TestSupport.checkCustomers(expectedModified(contents.get(i)),
+                        TestSupport.readCustomers(result.getOutputPath()), "Modified customers of file " + i);
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void failedFileLeavesNoOutput() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path goodPath = directory.resolve("good.xml");
+            Path badPath = directory.resolve("bad.xml");
+            List<CustomerRecord> customers = writeFile(goodPath, 1, 50);
+            Files.write(badPath, "<Customers><Customer><Name>Cut off".getBytes(StandardCharsets.UTF_8));
+
+            CustomerBatchProcessor processor = new CustomerBatchProcessor(CustomerBatchProcessor.Mode.MODIFY, null, 2);
+            List<CustomerBatchProcessor.FileResult> results = processor.process(List.of(badPath, goodPath));
+
+            TestSupport.check(!results.get(0).isSuccessful(), "The malformed file was processed");
+            TestSupport.check(results.get(0).getError() != null, "No error for the malformed file");
+            TestSupport.check(!Files.exists(directory.resolve("bad_modified.xml")), "Output of the failed file exists");
+            TestSupport.check(results.get(1).isSuccessful(), "The good file failed: " + results.get(1).getError());
+            TestSupport.checkCustomers(expectedModified(customers),
+                    TestSupport.readCustomers(directory.resolve("good_modified.xml")), "Modified customers");
+            try (Stream<Path> files = Files.list(directory)) {
+                TestSupport.checkEquals(3L, files.count(), "Files in the directory");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void reportsToDirectory() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path outputDirectory = Files.createDirectory(directory.resolve("reports"));
+            Path inputPath = directory.resolve("customers.xml");
+            writeFile(inputPath, 1, 25);
+
+            CustomerBatchProcessor processor = new CustomerBatchProcessor(CustomerBatchProcessor.Mode.REPORT,
+                    outputDirectory.toString(), 1);
+            CustomerBatchProcessor.FileResult result = processor.process(List.of(inputPath)).get(0);
+
+            TestSupport.check(result.isSuccessful(), "The report failed: " + result.getError());
+            Path reportPath = outputDirectory.resolve("customers_report.txt");
+            TestSupport.checkEquals(reportPath, result.getOutputPath(), "Report path");
+            String report = new String(Files.readAllBytes(reportPath), StandardCharsets.UTF_8);
+            TestSupport.check(report.contains("Customer 1") && report.contains("Customer 25"),
+                    "The report does not list every customer");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void rejectsOutputClash() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path first = Files.createDirectory(directory.resolve("east")).resolve("customers.xml");
+            Path second = Files.createDirectory(directory.resolve("west")).resolve("customers.xml");
+            writeFile(first, 1, 1);
+            writeFile(second, 2, 1);
+
+            CustomerBatchProcessor processor = new CustomerBatchProcessor(CustomerBatchProcessor.Mode.MODIFY,
+                    directory.toString(), 2);
+            try {
+                processor.process(List.of(first, second));
+                throw new AssertionError("Two inputs with one output were accepted");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+            TestSupport.check(!Files.exists(directory.resolve("customers_modified.xml")), "An output was written");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void resolvesInputs() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path subdirectory = Files.createDirectory(directory.resolve("north"));
+            for (Path filePath : List.of(directory.resolve("a.xml"), directory.resolve("b.xml"),
+                    directory.resolve("a_modified.xml"), directory.resolve("notes.txt"), subdirectory.resolve("c.xml"))) {
+                Files.write(filePath, new byte[0]);
+            }
+
+            TestSupport.checkEquals(List.of(directory.resolve("a.xml"), directory.resolve("b.xml")),
+                    CustomerBatchProcessor.resolveInputs(List.of(directory.toString())), "Files of the directory");
+            TestSupport.checkEquals(List.of(directory.resolve("a.xml"), directory.resolve("a_modified.xml")),
+                    CustomerBatchProcessor.resolveInputs(List.of(directory + "/a*.xml")), "Files matching a*.xml");
+            TestSupport.checkEquals(List.of(subdirectory.resolve("c.xml")),
+                    CustomerBatchProcessor.resolveInputs(List.of(directory + "/*/c.xml")), "Files matching */c.xml");
+            // A file named twice is processed once
+            TestSupport.checkEquals(List.of(directory.resolve("b.xml")), CustomerBatchProcessor.resolveInputs(
+                    List.of(directory.resolve("b.xml").toString(), directory + "/b.xml")), "Files named twice");
+            try {
+                CustomerBatchProcessor.resolveInputs(List.of(directory.resolve("missing.xml").toString()));
+                throw new AssertionError("A missing file was accepted");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/**
+ * Tests {@link CustomerEvents}: no event is created before Flight Recorder starts, and
+ * once a recording runs, modifying a file through {@link CustomerPipeline} commits file
+ * open, parse, batch decode, modify apply and serialize events whose paths, record
+ * counts and byte counts match the files involved.
+ *
+ * <p>The events are read back from a dump of the recording, so they are checked exactly
+ * as {@code jfr print} would show them.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+public class CustomerEventsTest {
+
+    private static final String[] EVENT_NAMES = {
+        "customerlist.FileOpen", "customerlist.Parse", "customerlist.BatchDecode",
+        "customerlist.ModifyApply", "customerlist.Serialize",
+    };
+
+    public static void main(String[] args) {
+        // Keep the test from starting the JMX machinery it does not check
+        System.setProperty("customers.jmx", "false");
+        System.out.println("CustomerEventsTest");
+        // Must run first: once a recording has been created, Flight Recorder stays initialized
+        TestSupport.run("nothing is recorded before Flight Recorder starts", CustomerEventsTest::notRecording);
+        TestSupport.run("a pipeline run commits an event for every stage", CustomerEventsTest::pipelineEvents);
+        TestSupport.finish();
+    }
+
+    private static void notRecording() {
+        TestSupport.check(!CustomerEvents.isRecording(), "Flight Recorder is already running");
+    }
+
+    private static void pipelineEvents() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path inputPath = directory.resolve("customers.xml");
+            Path outputPath = directory.resolve("modified.xml");
+            List<CustomerRecord> customers = new ArrayList<>();
+            for (int i = 1; i <= 2500; i++) {
+                customers.add(TestSupport.customer(i, false));
+            }
+            TestSupport.writeCustomers(inputPath, customers);
+
+            List<RecordedEvent> events;
+            try (Recording recording = new Recording()) {
+                for (String eventName : EVENT_NAMES) {
+                    recording.enable(eventName).withoutThreshold();
+                }
+                recording.start();
+                TestSupport.check(CustomerEvents.isRecording(), "Flight Recorder did not start");
+
+                new CustomerPipeline(inputPath.toString(), outputPath.toString(),
+                        ModifyCustomers.getModifiedCustomerData(), 2).run();
+
+                recording.stop();
+                Path dumpPath = directory.resolve("events.jfr");
+                recording.dump(dumpPath);
+                events = RecordingFile.readAllEvents(dumpPath);
+            }
+            long inputSize = Files.size(inputPath);
+            long outputSize = Files.size(outputPath);
+
+            List<RecordedEvent> openEvents = eventsNamed(events, "customerlist.FileOpen");
+            TestSupport.checkEquals(1, openEvents.size(), "File open events");
+            TestSupport.checkEquals(inputPath.toString(), openEvents.get(0).getString("filePath"), "Opened file");
+            TestSupport.checkEquals(inputSize, openEvents.get(0).getLong("fileSize"), "Opened file size");
+
+            List<RecordedEvent> parseEvents = eventsNamed(events, "customerlist.Parse");
+            TestSupport.checkEquals(1, parseEvents.size(), "Parse events");
+            RecordedEvent parseEvent = parseEvents.get(0);
+            TestSupport.checkEquals(inputPath.toString(), parseEvent.getString("filePath"), "Parsed file");
+            TestSupport.checkEquals(2500L, parseEvent.getLong("recordCount"), "Records parsed");
+            TestSupport.checkEquals(inputSize, parseEvent.getLong("byteCount"), "Bytes parsed");
+
+            // Batches of 1024 records, the last one partial
+            List<RecordedEvent> batchEvents = eventsNamed(events, "customerlist.BatchDecode");
+            TestSupport.checkEquals(List.of(1024L, 1024L, 452L), batchEvents.stream()
+                    .map(event -> event.getLong("recordCount")).sorted((a, b) -> Long.compare(b, a))
+                    .collect(Collectors.toList()), "Records per decoded batch");
+            long batchBytes = 0;
+            for (RecordedEvent batchEvent : batchEvents) {
+                TestSupport.check(batchEvent.getLong("byteCount") >= 0, "Negative batch byte count");
+                batchBytes += batchEvent.getLong("byteCount");
+            }
+            TestSupport.check(batchBytes > 0 && batchBytes <= inputSize, "Batch bytes " + batchBytes);
+
+            long modifiedCount = 0;
+            for (RecordedEvent modifyEvent : eventsNamed(events, "customerlist.ModifyApply")) {
+                modifiedCount += modifyEvent.getLong("recordCount");
+            }
+            TestSupport.checkEquals(2500L, modifiedCount, "Records in modify events");
+
+            List<RecordedEvent> serializeEvents = eventsNamed(events, "customerlist.Serialize");
+            TestSupport.checkEquals(1, serializeEvents.size(), "Serialize events");
+            RecordedEvent serializeEvent = serializeEvents.get(0);
+            TestSupport.checkEquals(outputPath.toString(), serializeEvent.getString("filePath"), "Serialized file");
+            TestSupport.checkEquals(2500L, serializeEvent.getLong("recordCount"), "Records serialized");
+            TestSupport.checkEquals(outputSize, serializeEvent.getLong("byteCount"), "Bytes serialized");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static List<RecordedEvent> eventsNamed(List<RecordedEvent> events, String eventName) {
+        return events.stream().filter(event -> event.getEventType().getName().equals(eventName))
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,327 @@
+/**
+ * Tests the reactive customer pipeline: {@link CustomerPublisher} reads only as many
+ * customers as are requested, {@link CustomerFlowProcessor} stages pass demand upstream
+ * and apply their transformations, cancelling stops delivery, errors from the file or a
+ * stage reach the subscriber, and terminal signals are sent without the stage's lock
+ * held.
+ *
+ * <p>The publishers run on the calling thread, so every signal has been delivered by the
+ * time {@code request} returns.</p>
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+
+public class CustomerFlowTest {
+
+    private static final Executor DIRECT = Runnable::run;
+
+    public static void main(String[] args) {
+        System.out.println("CustomerFlowTest");
+        TestSupport.run("the publisher emits only what is requested", CustomerFlowTest::publisherDemand);
+        TestSupport.run("a filter replaces the demand of dropped items", CustomerFlowTest::filterDemand);
+        TestSupport.run("a batch stage requests whole batches", CustomerFlowTest::batchDemand);
+        TestSupport.run("the patch stage adds contact data in order", CustomerFlowTest::patch);
+        TestSupport.run("cancelling stops delivery", CustomerFlowTest::cancel);
+        TestSupport.run("a malformed file fails the subscriber", CustomerFlowTest::fileError);
+        TestSupport.run("a failing stage cancels upstream and fails the subscriber", CustomerFlowTest::stageError);
+        TestSupport.run("an early terminal signal waits for the subscriber", CustomerFlowTest::pendingSignal);
+        TestSupport.run("a second subscriber is rejected", CustomerFlowTest::secondSubscriber);
+        TestSupport.finish();
+    }
+
+    /**
+     * Records every signal it receives and requests only when told to. It also notes
+     * whether the stage delivering a terminal signal still held its lock.
+     */
+    private static final class RecordingSubscriber<T> implements Flow.Subscriber<T> {
+        private final Object lockToCheck;
+        final List<T> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        int completions;
+        boolean signalledUnderLock;
+
+        RecordingSubscriber() {
+            this(null);
+        }
+
+        RecordingSubscriber(Object lockToCheck) {
+            this.lockToCheck = lockToCheck;
+        }
+
+        void request(long n) {
+            subscription.request(n);
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            checkLock();
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+            checkLock();
+        }
+
+        @Override
+        public void onComplete() {
+            completions++;
+            checkLock();
+        }
+
+        private void checkLock() {
+            if (lockToCheck != null && Thread.holdsLock(lockToCheck)) {
+                signalledUnderLock = true;
+            }
+        }
+    }
+
+    private static List<CustomerRecord> writeCustomers(Path filePath, int count) throws Exception {
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            customers.add(TestSupport.customer(i, false));
+        }
+        TestSupport.writeCustomers(filePath, customers);
+        return customers;
+    }
+
+    private static void publisherDemand() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeCustomers(filePath, 10);
+
+            RecordingSubscriber<CustomerRecord> subscriber = new RecordingSubscriber<>();
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(subscriber);
+            TestSupport.checkEquals(0, subscriber.items.size(), "Customers before any request");
+
+            subscriber.request(3);
+            TestSupport.checkCustomers(customers.subList(0, 3), subscriber.items, "Customers after requesting 3");
+            TestSupport.checkEquals(0, subscriber.completions, "Completions after requesting 3");
+
+            subscriber.request(4);
+            TestSupport.checkCustomers(customers.subList(0, 7), subscriber.items, "Customers after requesting 7");
+
+            subscriber.request(Long.MAX_VALUE);
+            TestSupport.checkCustomers(customers, subscriber.items, "Customers after requesting all");
+            TestSupport.checkEquals(1, subscriber.completions, "Completions");
+            TestSupport.checkEquals(null, subscriber.error, "Error");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void filterDemand() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeCustomers(filePath, 10);
+
+            CustomerFlowProcessor<CustomerRecord, CustomerRecord> evenStage =
+                    CustomerFlowProcessor.filter(customer -> customer.getID() % 2 == 0);
+            RecordingSubscriber<CustomerRecord> subscriber = new RecordingSubscriber<>();
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(evenStage);
+            evenStage.subscribe(subscriber);
+
+            // Two matches need four customers; the dropped ones must not use up the demand
+            subscriber.request(2);
+            TestSupport.checkCustomers(List.of(customers.get(1), customers.get(3)), subscriber.items,
+                    "Customers after requesting 2");
+            TestSupport.checkEquals(0, subscriber.completions, "Completions after requesting 2");
+
+            subscriber.request(10);
+            TestSupport.checkEquals(5, subscriber.items.size(), "Even customers");
+            TestSupport.checkEquals(1, subscriber.completions, "Completions");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void batchDemand() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeCustomers(filePath, 10);
+
+            CustomerFlowProcessor<CustomerRecord, List<CustomerRecord>> batchStage = CustomerFlowProcessor.batch(4);
+            RecordingSubscriber<List<CustomerRecord>> subscriber = new RecordingSubscriber<>();
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(batchStage);
+            batchStage.subscribe(subscriber);
+
+            subscriber.request(1);
+            TestSupport.checkEquals(1, subscriber.items.size(), "Batches after requesting 1");
+            TestSupport.checkCustomers(customers.subList(0, 4), subscriber.items.get(0), "First batch");
+
+            // The last batch is short and is sent on completion
+            subscriber.request(5);
+            TestSupport.checkEquals(3, subscriber.items.size(), "Batches");
+            TestSupport.checkCustomers(customers.subList(4, 8), subscriber.items.get(1), "Second batch");
+            TestSupport.checkCustomers(customers.subList(8, 10), subscriber.items.get(2), "Last batch");
+            TestSupport.checkEquals(1, subscriber.completions, "Completions");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void patch() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeCustomers(filePath, 4);
+            CModifiedCustomerData[] modifiedData = {
+                new CModifiedCustomerData("555-000-0001", "Ann One", "ann@example.com"),
+                new CModifiedCustomerData("555-000-0002", "Bob Two", "bob@example.com"),
+            };
+
+            CustomerFlowProcessor<CustomerRecord, CustomerRecord> patchStage = CustomerFlowProcessor.patch(modifiedData);
+            RecordingSubscriber<CustomerRecord> subscriber = new RecordingSubscriber<>();
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(patchStage);
+            patchStage.subscribe(subscriber);
+            subscriber.request(Long.MAX_VALUE);
+
+            TestSupport.checkCustomers(List.of(customers.get(0).withModifiedData(modifiedData[0]),
+                    customers.get(1).withModifiedData(modifiedData[1]), customers.get(2), customers.get(3)),
+                    subscriber.items, "Patched customers");
+            TestSupport.checkEquals("Bob Two", subscriber.items.get(1).getContactName(), "Contact of customer 2");
+            TestSupport.check(!subscriber.items.get(2).hasContactData(), "Customer 3 was given contact data");
+            TestSupport.checkEquals(1, subscriber.completions, "Completions");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void cancel() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeCustomers(filePath, 10);
+
+            CustomerFlowProcessor<CustomerRecord, Integer> idStage = CustomerFlowProcessor.map(CustomerRecord::getID);
+            RecordingSubscriber<Integer> subscriber = new RecordingSubscriber<>();
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(idStage);
+            idStage.subscribe(subscriber);
+
+            subscriber.request(2);
+            subscriber.subscription.cancel();
+            subscriber.request(5);
+
+            TestSupport.checkEquals(List.of(customers.get(0).getID(), customers.get(1).getID()), subscriber.items,
+                    "IDs received");
+            TestSupport.checkEquals(0, subscriber.completions, "Completions after cancelling");
+            TestSupport.checkEquals(null, subscriber.error, "Error after cancelling");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void fileError() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            Files.write(filePath, ("<Customers>\n    <Customer ID=\"1\"><name>One</name></Customer>\n"
+                    + "    <Customer ID=\"2\"><name>Two</Customer>\n</Customers>\n").getBytes(StandardCharsets.UTF_8));
+
+            CustomerFlowProcessor<CustomerRecord, CustomerRecord> filterStage = CustomerFlowProcessor.filter(customer -> true);
+            RecordingSubscriber<CustomerRecord> subscriber = new RecordingSubscriber<>(filterStage);
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(filterStage);
+            filterStage.subscribe(subscriber);
+            subscriber.request(Long.MAX_VALUE);
+
+            TestSupport.checkEquals(1, subscriber.items.size(), "Customers before the error");
+            TestSupport.check(subscriber.error != null, "The parse error was not passed on");
+            TestSupport.checkEquals(0, subscriber.completions, "Completions");
+            TestSupport.check(!subscriber.signalledUnderLock, "The error was signalled under the stage's lock");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void stageError() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            writeCustomers(filePath, 10);
+
+            IllegalStateException failure = new IllegalStateException("customer 3 is broken");
+            CustomerFlowProcessor<CustomerRecord, Integer> idStage = CustomerFlowProcessor.map(customer -> {
+                if (customer.getID() == 3) {
+                    throw failure;
+                }
+                return customer.getID();
+            });
+            CustomerFlowProcessor<Integer, List<Integer>> batchStage = CustomerFlowProcessor.batch(2);
+            RecordingSubscriber<List<Integer>> subscriber = new RecordingSubscriber<>();
+            new CustomerPublisher(filePath.toString(), DIRECT).subscribe(idStage);
+            idStage.subscribe(batchStage);
+            batchStage.subscribe(subscriber);
+            subscriber.request(Long.MAX_VALUE);
+
+            // The first batch is complete; the failure discards the second
+            TestSupport.checkEquals(List.of(List.of(1, 2)), subscriber.items, "Batches before the error");
+            TestSupport.checkEquals(failure, subscriber.error, "Error");
+            TestSupport.checkEquals(0, subscriber.completions, "Completions");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void pendingSignal() {
+        Flow.Subscription upstream = new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        };
+
+        CustomerFlowProcessor<String, String> completedStage = CustomerFlowProcessor.map(String::trim);
+        completedStage.onSubscribe(upstream);
+        completedStage.onComplete();
+        RecordingSubscriber<String> completedSubscriber = new RecordingSubscriber<>(completedStage);
+        completedStage.subscribe(completedSubscriber);
+        TestSupport.check(completedSubscriber.subscription != null, "No subscription before completion");
+        TestSupport.checkEquals(1, completedSubscriber.completions, "Completions");
+        TestSupport.check(!completedSubscriber.signalledUnderLock, "Completion was signalled under the stage's lock");
+
+        // Subscribing downstream first and upstream last connects the chain the other way
+        CustomerFlowProcessor<String, String> failedStage = CustomerFlowProcessor.map(String::trim);
+        RecordingSubscriber<String> failedSubscriber = new RecordingSubscriber<>(failedStage);
+        failedStage.subscribe(failedSubscriber);
+        TestSupport.check(failedSubscriber.subscription == null, "Subscribed before there was an upstream");
+        IllegalStateException failure = new IllegalStateException("no file");
+        failedStage.onSubscribe(upstream);
+        failedStage.onError(failure);
+        TestSupport.checkEquals(failure, failedSubscriber.error, "Error");
+        TestSupport.check(!failedSubscriber.signalledUnderLock, "The error was signalled under the stage's lock");
+    }
+
+    private static void secondSubscriber() {
+        CustomerFlowProcessor<String, String> stage = CustomerFlowProcessor.map(String::trim);
+        RecordingSubscriber<String> first = new RecordingSubscriber<>();
+        RecordingSubscriber<String> second = new RecordingSubscriber<>(stage);
+        stage.subscribe(first);
+        stage.subscribe(second);
+
+        TestSupport.check(second.error instanceof IllegalStateException, "Second subscriber error " + second.error);
+        TestSupport.check(!second.signalledUnderLock, "The rejection was signalled under the stage's lock");
+        TestSupport.checkEquals(null, first.error, "First subscriber error");
+    }
+}
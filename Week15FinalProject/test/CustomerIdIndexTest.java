@@ -0,0 +1,165 @@
+/**
+ * Tests {@link CustomerIdIndex} in both of its modes, the hash table and the dense array,
+ * and the switches between them, against a {@code HashMap}.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class CustomerIdIndexTest {
+
+    public static void main(String[] args) {
+        System.out.println("CustomerIdIndexTest");
+        TestSupport.run("put replaces and returns the previous record", CustomerIdIndexTest::putReplaces);
+        TestSupport.run("scattered IDs stay in the hash table", CustomerIdIndexTest::scatteredIDsStayHashed);
+        TestSupport.run("contiguous IDs compact to the dense array", CustomerIdIndexTest::contiguousIDsCompact);
+        TestSupport.run("dense array grows for IDs added in sequence", CustomerIdIndexTest::denseArrayGrows);
+        TestSupport.run("a far ID switches back to the hash table", CustomerIdIndexTest::farIDSwitchesToHash);
+        TestSupport.run("extreme and negative IDs", CustomerIdIndexTest::extremeIDs);
+        TestSupport.run("matches a HashMap under random puts", CustomerIdIndexTest::matchesHashMap);
+        TestSupport.run("load indexes every customer of a file", CustomerIdIndexTest::loadsFile);
+        TestSupport.finish();
+    }
+
+    private static void putReplaces() {
+        CustomerIdIndex index = new CustomerIdIndex();
+        CustomerRecord first = TestSupport.customer(7, false);
+        CustomerRecord second = TestSupport.customer(7, true);
+
+        TestSupport.check(index.put(first) == null, "First put returned a previous record");
+        TestSupport.check(index.put(second) == first, "Second put did not return the first record");
+        TestSupport.check(index.get(7) == second, "get did not return the replacement");
+        TestSupport.checkEquals(1, index.size(), "Size after replacing");
+        TestSupport.check(index.get(8) == null && !index.contains(8), "Found a record that was never added");
+    }
+
+    private static void scatteredIDsStayHashed() {
+        CustomerIdIndex index = new CustomerIdIndex();
+        for (int i = 1; i <= 1000; i++) {
+            index.put(TestSupport.customer(i * 1000, false));
+        }
+        index.compact();
+        TestSupport.check(!index.isDense(), "Sparse IDs were compacted to a dense array");
+        for (int i = 1; i <= 1000; i++) {
+            TestSupport.checkEquals(i * 1000, index.get(i * 1000).getID(), "ID of record " + i);
+            TestSupport.check(index.get(i * 1000 + 1) == null, "Found an ID between the added ones");
+        }
+    }
+
+    private static void contiguousIDsCompact() {
+        CustomerIdIndex index = new CustomerIdIndex();
+        for (int i = 500; i < 1500; i++) {
+            index.put(TestSupport.customer(i, false));
+        }
+        index.compact();
+        TestSupport.check(index.isDense(), "Contiguous IDs were not compacted");
+        TestSupport.checkEquals(1000, index.size(), "Size after compacting");
+        TestSupport.check(index.get(499) == null && index.get(1500) == null, "Found an ID outside the range");
+        for (int i = 500; i < 1500; i++) {
+            TestSupport.checkEquals(i, index.get(i).getID(), "ID looked up");
+        }
+
+        List<Integer> visited = new ArrayList<>();
+        index.forEach(record -> visited.add(record.getID()));
+        TestSupport.checkEquals(1000, visited.size(), "Records visited");
+        for (int i = 0; i < visited.size(); i++) {
+            TestSupport.checkEquals(500 + i, visited.get(i), "Dense forEach order");
+        }
+    }
+
+    private static void denseArrayGrows() {
+        CustomerIdIndex index = new CustomerIdIndex();
+        for (int i = 1; i <= 100; i++) {
+            index.put(TestSupport.customer(i, false));
+        }
+        index.compact();
+        for (int i = 101; i <= 10_000; i++) {
+            index.put(TestSupport.customer(i, false));
+        }
+        index.put(TestSupport.customer(0, false));
+        TestSupport.check(index.isDense(), "Sequential additions left the dense array");
+        TestSupport.checkEquals(10_001, index.size(), "Size");
+        for (int i = 0; i <= 10_000; i++) {
+            TestSupport.checkEquals(i, index.get(i).getID(), "ID looked up");
+        }
+    }
+
+    private static void farIDSwitchesToHash() {
+        CustomerIdIndex index = new CustomerIdIndex();
+        for (int i = 1; i <= 100; i++) {
+            index.put(TestSupport.customer(i, false));
+        }
+        index.compact();
+        TestSupport.check(index.isDense(), "Index not dense before the far ID");
+
+        index.put(TestSupport.customer(50_000_000, false));
+        TestSupport.check(!index.isDense(), "A far ID did not switch back to the hash table");
+        TestSupport.checkEquals(101, index.size(), "Size after switching");
+        for (int i = 1; i <= 100; i++) {
+            TestSupport.checkEquals(i, index.get(i).getID(), "ID kept across the switch");
+        }
+        TestSupport.checkEquals(50_000_000, index.get(50_000_000).getID(), "Far ID");
+    }
+
+    private static void extremeIDs() {
+        CustomerIdIndex index = new CustomerIdIndex();
+        int[] ids = {0, -1, Integer.MIN_VALUE, Integer.MAX_VALUE, 1};
+        for (int intID : ids) {
+            index.put(TestSupport.customer(intID, false));
+        }
+        index.compact();
+        TestSupport.check(!index.isDense(), "IDs spanning the int range were compacted");
+        for (int intID : ids) {
+            TestSupport.checkEquals(intID, index.get(intID).getID(), "Extreme ID");
+        }
+        TestSupport.check(index.get(2) == null, "Found an ID that was never added");
+    }
+
+    private static void matchesHashMap() {
+        Random random = new Random(7);
+        CustomerIdIndex index = new CustomerIdIndex();
+        Map<Integer, CustomerRecord> expected = new HashMap<>();
+
+        for (int round = 0; round < 50_000; round++) {
+            // Mostly IDs in a narrow band, so the index moves between modes
+            int intID = random.nextInt(20) == 0 ? random.nextInt() : random.nextInt(5000);
+            CustomerRecord record = TestSupport.customer(intID, random.nextBoolean());
+            TestSupport.check(index.put(record) == expected.put(intID, record), "Previous record for " + intID);
+            if (round % 10_000 == 0) {
+                index.compact();
+            }
+        }
+        TestSupport.checkEquals(expected.size(), index.size(), "Size");
+        for (Map.Entry<Integer, CustomerRecord> entry : expected.entrySet()) {
+            TestSupport.check(index.get(entry.getKey()) == entry.getValue(), "Record for " + entry.getKey());
+        }
+    }
+
+    private static void loadsFile() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            List<CustomerRecord> customers = new ArrayList<>();
+            for (int i = 1; i <= 3000; i++) {
+                customers.add(TestSupport.customer(i, i % 2 == 0));
+            }
+            Path filePath = directory.resolve("customers.xml");
+            TestSupport.writeCustomers(filePath, customers);
+
+            CustomerIdIndex index = CustomerIdIndex.load(filePath.toString());
+            TestSupport.checkEquals(3000, index.size(), "Customers loaded");
+            TestSupport.check(index.isDense(), "Sequential IDs were not loaded into the dense array");
+            for (CustomerRecord customer : customers) {
+                TestSupport.checkEquals(customer, index.get(customer.getID()), "Loaded customer");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/**
+ * Tests {@link CustomerMetrics}: the record, byte and error counters add up across
+ * threads, counting streams report their own bytes as well as the totals, and the text
+ * report shows every counter and stage.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+public class CustomerMetricsTest {
+
+    public static void main(String[] args) {
+        // Keep the test from starting the JMX machinery it does not check
+        System.setProperty("customers.jmx", "false");
+        System.out.println("CustomerMetricsTest");
+        TestSupport.run("counters add up across threads", CustomerMetricsTest::countersAcrossThreads);
+        TestSupport.run("counting streams count bytes", CustomerMetricsTest::countingStreams);
+        TestSupport.run("stages are timed separately", CustomerMetricsTest::stages);
+        TestSupport.run("the report shows every counter and stage", CustomerMetricsTest::report);
+        TestSupport.finish();
+    }
+
+    private static void countersAcrossThreads() throws Exception {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        metrics.reset();
+
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    metrics.addRecordsParsed(2);
+                    metrics.addRecordsModified(1);
+                    if (i % 100 == 0) {
+                        metrics.recordError();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        TestSupport.checkEquals(80_000L, metrics.getRecordsParsed(), "Records parsed");
+        TestSupport.checkEquals(40_000L, metrics.getRecordsModified(), "Records modified");
+        TestSupport.checkEquals(400L, metrics.getErrors(), "Errors");
+
+        metrics.reset();
+        TestSupport.checkEquals(0L, metrics.getRecordsParsed(), "Records parsed after reset");
+        TestSupport.checkEquals(0L, metrics.getErrors(), "Errors after reset");
+    }
+
+    private static void countingStreams() throws Exception {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        metrics.reset();
+
+        byte[] data = new byte[10_000];
+        try (CustomerMetrics.CountingInputStream first = metrics.countBytesRead(new ByteArrayInputStream(data));
+                CustomerMetrics.CountingInputStream second = metrics.countBytesRead(new ByteArrayInputStream(data))) {
+            first.read();
+            first.read(new byte[999]);
+            InputStream remainder = first;
+            remainder.readAllBytes();
+            second.read(new byte[500], 0, 500);
+
+            TestSupport.checkEquals(10_000L, first.getByteCount(), "Bytes read through the first stream");
+            TestSupport.checkEquals(500L, second.getByteCount(), "Bytes read through the second stream");
+            // Reading at the end adds nothing
+            TestSupport.checkEquals(-1, first.read(), "Read at the end");
+            TestSupport.checkEquals(10_000L, first.getByteCount(), "Bytes after reading at the end");
+        }
+        TestSupport.checkEquals(10_500L, metrics.getBytesRead(), "Total bytes read");
+
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        try (CustomerMetrics.CountingOutputStream output = metrics.countBytesWritten(target)) {
+            output.write(1);
+            output.write(new byte[300], 100, 200);
+            OutputStream plain = output;
+            plain.write(new byte[50]);
+            TestSupport.checkEquals(251L, output.getByteCount(), "Bytes written through the stream");
+        }
+        TestSupport.checkEquals(251, target.size(), "Bytes that reached the target");
+        TestSupport.checkEquals(251L, metrics.getBytesWritten(), "Total bytes written");
+    }
+
+    private static void stages() {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        metrics.reset();
+
+        metrics.recordStage(CustomerMetrics.Stage.READ, 2_000_000);
+        metrics.recordStage(CustomerMetrics.Stage.READ, 6_000_000);
+        metrics.recordStage(CustomerMetrics.Stage.WRITE, 1_000);
+
+        TestSupport.checkEquals(8_000_000L, metrics.getReadNanos(), "Read time");
+        TestSupport.checkEquals(0L, metrics.getModifyNanos(), "Modify time");
+        TestSupport.checkEquals(1_000L, metrics.getWriteNanos(), "Write time");
+        long readP99 = metrics.getReadP99Nanos();
+        TestSupport.check(readP99 <= 6_000_000 && readP99 > 5_800_000, "Read p99 " + readP99);
+        TestSupport.checkEquals(0L, metrics.getModifyP99Nanos(), "Modify p99");
+    }
+
+    private static void report() {
+        CustomerMetrics metrics = CustomerMetrics.get();
+        metrics.reset();
+
+        metrics.addRecordsParsed(1234);
+        metrics.addRecordsModified(56);
+        metrics.recordError();
+        metrics.recordStage(CustomerMetrics.Stage.MODIFY, 3_000_000);
+
+        String report = metrics.dump();
+        TestSupport.check(report.contains("records parsed:   1234"), "Records parsed missing from\n" + report);
+        TestSupport.check(report.contains("records modified: 56"), "Records modified missing from\n" + report);
+        TestSupport.check(report.contains("errors:           1"), "Errors missing from\n" + report);
+        for (String stage : new String[] {"read", "modify", "write"}) {
+            TestSupport.check(report.contains("\n  " + stage + " "), "Stage " + stage + " missing from\n" + report);
+        }
+        TestSupport.check(report.contains("3.000"), "Modify time missing from\n" + report);
+        metrics.reset();
+    }
+}
@@ -0,0 +1,225 @@
+/**
+ * Tests {@link CustomerNameIndex}: text folding, prefix matches across names, contact
+ * names and email addresses, fuzzy matches for misspelled queries, result ranking and
+ * limits, and agreement with a brute-force ranking over many similar names, where some
+ * trigrams have very long posting lists.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class CustomerNameIndexTest {
+
+    public static void main(String[] args) {
+        System.out.println("CustomerNameIndexTest");
+        TestSupport.run("fold lower-cases and collapses separators", CustomerNameIndexTest::foldText);
+        TestSupport.run("a word prefix finds the customer", CustomerNameIndexTest::prefixMatch);
+        TestSupport.run("every query word must start a word", CustomerNameIndexTest::allWordsMustMatch);
+        TestSupport.run("contact names and emails are searched", CustomerNameIndexTest::contactFieldsSearched);
+        TestSupport.run("a misspelled query finds the customer", CustomerNameIndexTest::fuzzyMatch);
+        TestSupport.run("prefix matches rank before fuzzy matches", CustomerNameIndexTest::prefixRanksFirst);
+        TestSupport.run("ties keep input order and the limit is honoured", CustomerNameIndexTest::tiesAndLimit);
+        TestSupport.run("queries without letters or digits find nothing", CustomerNameIndexTest::emptyQueries);
+        TestSupport.run("results match a brute-force ranking", CustomerNameIndexTest::matchesBruteForce);
+        TestSupport.finish();
+    }
+
+    private static CustomerRecord named(int intID, String strName) {
+        return new CustomerRecord.Builder().id(intID).name(strName).type("Commercial").address("1 Main St")
+                .city("Springfield").state("IL").zipcode("62701").build();
+    }
+
+    private static CustomerNameIndex sampleIndex() {
+        List<CustomerRecord> customers = new ArrayList<>();
+        customers.add(named(1, "ACME Hauling"));
+        customers.add(named(2, "AJ Newtown"));
+        customers.add(named(3, "Foster Burgers"));
+        customers.add(named(4, "Emily's Bakery"));
+        customers.add(named(5, "Smith Paving"));
+        customers.add(named(6, "Dave's Painting Service"));
+        customers.add(named(7, "Caf\u00e9 Cr\u00e8me").toBuilder()
+                .contactName("Zo\u00eb M\u00fcller").emailAddress("zoe.mueller@example.com").build());
+        return new CustomerNameIndex(customers);
+    }
+
+    private static List<Integer> ids(List<CustomerRecord> customers) {
+        List<Integer> ids = new ArrayList<>();
+        for (CustomerRecord customer : customers) {
+            ids.add(customer.getID());
+        }
+        return ids;
+    }
+
+    private static void foldText() {
+        TestSupport.checkEquals("emily s bakery", CustomerNameIndex.fold("  Emily's  BAKERY! "), "Folded text");
+        TestSupport.checkEquals("caf\u00e9 cr\u00e8me", CustomerNameIndex.fold("Caf\u00e9-Cr\u00e8me"), "Folded accented text");
+        TestSupport.checkEquals("", CustomerNameIndex.fold(null), "Folded null");
+        TestSupport.checkEquals("", CustomerNameIndex.fold("--- ..."), "Folded punctuation");
+    }
+
+    private static void prefixMatch() {
+        CustomerNameIndex index = sampleIndex();
+        TestSupport.checkEquals(7, index.size(), "Customers indexed");
+        TestSupport.checkEquals(Arrays.asList(4), ids(index.search("bak", 1)), "Results for \"bak\"");
+        TestSupport.checkEquals(Arrays.asList(3), ids(index.search("FOSTER", 1)), "Results for \"FOSTER\"");
+        TestSupport.checkEquals(Arrays.asList(1), ids(index.search("a", 1)), "Results for \"a\"");
+    }
+
+    private static void allWordsMustMatch() {
+        CustomerNameIndex index = sampleIndex();
+        List<CustomerRecord> results = index.search("acme haul", 10);
+        TestSupport.check(!results.isEmpty(), "No results for \"acme haul\"");
+        TestSupport.checkEquals(1, results.get(0).getID(), "Best result for \"acme haul\"");
+        // "paving" only starts a word of Smith Paving, not of Dave's Painting Service
+        TestSupport.checkEquals(5, index.search("smith pav", 10).get(0).getID(), "Best result for \"smith pav\"");
+    }
+
+    private static void contactFieldsSearched() {
+        CustomerNameIndex index = sampleIndex();
+        TestSupport.checkEquals(Arrays.asList(7), ids(index.search("m\u00fcller", 1)), "Results for \"m\u00fcller\"");
+        TestSupport.checkEquals(Arrays.asList(7), ids(index.search("zoe mueller", 1)), "Results for \"zoe mueller\"");
+    }
+
+    private static void fuzzyMatch() {
+        CustomerNameIndex index = sampleIndex();
+        List<CustomerRecord> results = index.search("fostre burgers", 3);
+        TestSupport.check(!results.isEmpty(), "No results for \"fostre burgers\"");
+        TestSupport.checkEquals(3, results.get(0).getID(), "Best result for \"fostre burgers\"");
+        TestSupport.checkEquals(4, index.search("bakrey", 3).get(0).getID(), "Best result for \"bakrey\"");
+    }
+
+    private static void prefixRanksFirst() {
+        List<CustomerRecord> customers = new ArrayList<>();
+        // Shares most trigrams of "painting" but is not a prefix match
+        customers.add(named(1, "Paintin"));
+        customers.add(named(2, "Painting Pros"));
+        customers.add(named(3, "Dave's Painting Service"));
+        CustomerNameIndex index = new CustomerNameIndex(customers);
+
+        List<Integer> results = ids(index.search("painting", 10));
+        TestSupport.checkEquals(Arrays.asList(2, 3, 1), results, "Results for \"painting\"");
+    }
+
+    private static void tiesAndLimit() {
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 1; i <= 50; i++) {
+            customers.add(named(i, "Bakery " + i));
+        }
+        CustomerNameIndex index = new CustomerNameIndex(customers);
+
+        TestSupport.checkEquals(Arrays.asList(1, 2, 3, 4, 5), ids(index.search("bakery", 5)), "First five results");
+        TestSupport.checkEquals(50, index.search("bakery", 100).size(), "Results without a tight limit");
+        TestSupport.check(index.search("bakery", 0).isEmpty(), "Results with limit 0");
+    }
+
+    private static void emptyQueries() {
+        CustomerNameIndex index = sampleIndex();
+        TestSupport.check(index.search("", 10).isEmpty(), "Results for an empty query");
+        TestSupport.check(index.search("?! --", 10).isEmpty(), "Results for a punctuation query");
+        TestSupport.check(index.search("qqqqzzzz", 10).isEmpty(), "Results for an unknown word");
+    }
+
+    private static final String[] SYLLABLES = {"ba", "ker", "ry", "fos", "ter", "mi", "la", "pa", "ving", "to", "wn", "ac", "me"};
+
+    private static String randomWord(Random random) {
+        StringBuilder word = new StringBuilder();
+        for (int i = 2 + random.nextInt(2); i > 0; i--) {
+            word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        }
+        return word.toString();
+    }
+
+    /** Drops, doubles or swaps one letter of a word, or leaves it as it is. */
+    private static String misspell(String word, Random random) {
+        int at = random.nextInt(word.length() - 1);
+        switch (random.nextInt(4)) {
+            case 0:
+                return word.substring(0, at) + word.substring(at + 1);
+            case 1:
+                return word.substring(0, at) + word.charAt(at) + word.substring(at);
+            case 2:
+                return word.substring(0, at) + word.charAt(at + 1) + word.charAt(at) + word.substring(at + 2);
+            default:
+                return word;
+        }
+    }
+
+    /** The distinct trigrams of folded text, each word preceded by two spaces. */
+    private static Set<String> trigramSet(String foldedText) {
+        Set<String> trigrams = new HashSet<>();
+        for (String word : foldedText.split(" ")) {
+            String padded = "  " + word;
+            for (int i = 0; i + 3 <= padded.length() && !word.isEmpty(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    /** Ranks customers the way the index documents it, by checking every customer. */
+    private static List<Integer> bruteForce(List<CustomerRecord> customers, String query, int limit) {
+        String foldedQuery = CustomerNameIndex.fold(query);
+        Set<String> queryTrigrams = trigramSet(foldedQuery);
+        int minShared = (queryTrigrams.size() + 1) / 2;
+        List<Integer> prefixMatches = new ArrayList<>();
+        List<List<Integer>> byShared = new ArrayList<>();
+        for (int shared = 0; shared <= queryTrigrams.size(); shared++) {
+            byShared.add(new ArrayList<>());
+        }
+
+        for (CustomerRecord customer : customers) {
+            String text = CustomerNameIndex.fold(customer.getName()) + " " + CustomerNameIndex.fold(customer.getContactName())
+                    + " " + CustomerNameIndex.fold(customer.getEmailAddress());
+            boolean prefixMatch = true;
+            for (String queryWord : foldedQuery.split(" ")) {
+                prefixMatch &= (" " + text).contains(" " + queryWord);
+            }
+            Set<String> shared = trigramSet(text);
+            shared.retainAll(queryTrigrams);
+            if (prefixMatch) {
+                prefixMatches.add(customer.getID());
+            } else if (shared.size() >= minShared) {
+                byShared.get(shared.size()).add(customer.getID());
+            }
+        }
+
+        List<Integer> results = new ArrayList<>(prefixMatches);
+        for (int shared = queryTrigrams.size(); shared >= minShared; shared--) {
+            results.addAll(byShared.get(shared));
+        }
+        return results.subList(0, Math.min(limit, results.size()));
+    }
+
+    private static void matchesBruteForce() {
+        Random random = new Random(11);
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 1; i <= 3000; i++) {
+            String name = randomWord(random) + (random.nextBoolean() ? " " + randomWord(random) : "");
+            CustomerRecord customer = named(i, name);
+            if (i % 3 == 0) {
+                customer = customer.toBuilder().contactName(randomWord(random)).emailAddress(randomWord(random) + "@example.com")
+                        .build();
+            }
+            customers.add(customer);
+        }
+        CustomerNameIndex index = new CustomerNameIndex(customers);
+
+        for (int i = 0; i < 300; i++) {
+            String query = misspell(randomWord(random), random);
+            if (random.nextInt(3) == 0) {
+                query += " " + randomWord(random).substring(0, 2 + random.nextInt(3));
+            }
+            for (int limit : new int[] {1, 10, 200}) {
+                TestSupport.checkEquals(bruteForce(customers, query, limit), ids(index.search(query, limit)),
+                        "Results for \"" + query + "\" limited to " + limit);
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * Tests {@link CustomerOffsetIndex}: an index is saved and reused until its file changes,
+ * even by an edit that keeps the size and modification time, self-closing customers are
+ * indexed, lookups of missing IDs and of a customer without an ID fail cleanly, and
+ * customers are decoded in the encoding the file declares.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import javax.xml.stream.XMLStreamException;
+
+public class CustomerOffsetIndexTest {
+
+    public static void main(String[] args) {
+        System.out.println("CustomerOffsetIndexTest");
+        TestSupport.run("builds, saves and reloads an index", CustomerOffsetIndexTest::savesAndReloads);
+        TestSupport.run("an edit keeping size and mtime makes the index stale", CustomerOffsetIndexTest::detectsStale);
+        TestSupport.run("indexes a self-closing customer", CustomerOffsetIndexTest::selfClosing);
+        TestSupport.run("looks up IDs that are not in the file", CustomerOffsetIndexTest::missingIDs);
+        TestSupport.run("decodes customers in the declared encoding", CustomerOffsetIndexTest::declaredEncoding);
+        TestSupport.finish();
+    }
+
+    /** Writes customers with shuffled IDs, so the index has to sort them. */
+    private static List<CustomerRecord> writeShuffled(Path filePath, int count) throws Exception {
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            customers.add(TestSupport.customer(i * 3, i % 2 == 0));
+        }
+        Collections.shuffle(customers, new Random(7));
+        TestSupport.writeCustomers(filePath, customers);
+        return customers;
+    }
+
+    private static void checkLookups(CustomerOffsetIndex index, List<CustomerRecord> customers) throws Exception {
+        TestSupport.checkEquals(customers.size(), index.size(), "Customers indexed");
+        for (CustomerRecord customer : customers) {
+            TestSupport.checkEquals(customer, index.get(customer.getID()), "Customer looked up");
+        }
+    }
+
+    private static void savesAndReloads() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeShuffled(filePath, 3000);
+
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.open(filePath.toString())) {
+                TestSupport.check(!index.isLoadedFromDisk(), "A new file was not scanned");
+                checkLookups(index, customers);
+            }
+            TestSupport.check(Files.isRegularFile(directory.resolve("customers.xml" + CustomerOffsetIndex.INDEX_SUFFIX)),
+                    "The index was not saved");
+
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.open(filePath.toString())) {
+                TestSupport.check(index.isLoadedFromDisk(), "The saved index was not reused");
+                checkLookups(index, customers);
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void detectsStale() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            List<CustomerRecord> customers = writeShuffled(filePath, 50);
+            CustomerOffsetIndex.open(filePath.toString()).close();
+
+            // Rewrite one customer in place with a name of the same length, then put the
+            // modification time back
+            FileTime lastModified = Files.getLastModifiedTime(filePath);
+            long size = Files.size(filePath);
+            CustomerRecord edited = customers.get(10);
+            String content = new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8);
+            int nameOffset = content.indexOf("<name>" + edited.getName() + "</name>") + "<name>".length();
+            try (RandomAccessFile file = new RandomAccessFile(filePath.toFile(), "rw")) {
+                file.seek(nameOffset);
+                file.write('X');
+            }
+            Files.setLastModifiedTime(filePath, lastModified);
+            TestSupport.checkEquals(size, Files.size(filePath), "Size after the edit");
+            TestSupport.checkEquals(lastModified, Files.getLastModifiedTime(filePath), "Modification time after the edit");
+
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.open(filePath.toString())) {
+                TestSupport.check(!index.isLoadedFromDisk(), "The stale index was reused");
+                TestSupport.checkEquals("X" + edited.getName().substring(1), index.get(edited.getID()).getName(),
+                        "Name of the edited customer");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void selfClosing() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            Files.write(filePath, ("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Customers>\n"
+                    + "    <Customer ID=\"4\"><name>Four</name></Customer>\n"
+                    + "    <Customer ID=\"5\"/>\n"
+                    + "    <Customer ID=\"6\" />\n"
+                    + "    <Customer ID=\"7\"><name>Seven</name></Customer>\n"
+                    + "</Customers>\n").getBytes(StandardCharsets.UTF_8));
+
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.scan(filePath.toString())) {
+                TestSupport.checkEquals(4, index.size(), "Customers indexed");
+                TestSupport.checkEquals(new CustomerRecord.Builder().id(5).build(), index.get(5), "Customer 5");
+                TestSupport.checkEquals(new CustomerRecord.Builder().id(6).build(), index.get(6), "Customer 6");
+                TestSupport.checkEquals("Four", index.get(4).getName(), "Name of customer 4");
+                TestSupport.checkEquals("Seven", index.get(7).getName(), "Name of customer 7");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void missingIDs() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            writeShuffled(filePath, 100);
+
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.open(filePath.toString())) {
+                // Below, between and above the IDs in the file, which are multiples of 3
+                for (int intID : new int[] {Integer.MIN_VALUE, -3, 0, 1, 4, 299, 301, Integer.MAX_VALUE}) {
+                    TestSupport.check(!index.contains(intID), "ID " + intID + " found");
+                    TestSupport.checkEquals(null, index.get(intID), "Customer " + intID);
+                }
+                TestSupport.check(index.contains(300), "The last ID was not found");
+            }
+
+            // A customer without an ID is indexed under 0, and looking it up reports the
+            // problem instead of returning a customer with ID 0
+            Path noIDPath = directory.resolve("no-id.xml");
+            Files.write(noIDPath, ("<Customers>\n    <Customer><name>Nobody</name></Customer>\n"
+                    + "    <Customer ID=\"2\"><name>Two</name></Customer>\n</Customers>\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.scan(noIDPath.toString())) {
+                TestSupport.check(index.contains(0), "The customer without an ID was not indexed");
+                try {
+                    index.get(0);
+                    throw new AssertionError("A customer without an ID was decoded");
+                } catch (XMLStreamException e) {
+                    TestSupport.check(e.getMessage().contains("missing ID"), "Unexpected error " + e.getMessage());
+                }
+                TestSupport.checkEquals("Two", index.get(2).getName(), "Name of customer 2");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void declaredEncoding() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path filePath = directory.resolve("customers.xml");
+            String name = "Caf\u00e9 M\u00fcller";
+            Files.write(filePath, ("<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<Customers>\n"
+                    + "    <Customer ID=\"1\"><name>" + name + "</name><city>Z\u00fcrich</city></Customer>\n"
+                    + "</Customers>\n").getBytes(StandardCharsets.ISO_8859_1));
+
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.open(filePath.toString())) {
+                TestSupport.checkEquals(name, index.get(1).getName(), "Name of a new index");
+                TestSupport.checkEquals("Z\u00fcrich", index.get(1).getCity(), "City of a new index");
+            }
+            try (CustomerOffsetIndex index = CustomerOffsetIndex.open(filePath.toString())) {
+                TestSupport.check(index.isLoadedFromDisk(), "The saved index was not reused");
+                TestSupport.checkEquals(name, index.get(1).getName(), "Name of a saved index");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+/**
+ * Tests {@link CustomerPipeline}: the output keeps the input order with any number of
+ * workers, the ID index is updated only by a run that succeeds, and a run whose input is
+ * missing or malformed fails promptly instead of hanging, leaving no output behind.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class CustomerPipelineTest {
+
+    /** How long a failing run may take before the test treats it as hung. */
+    private static final long RUN_TIMEOUT_SECONDS = 20;
+
+    public static void main(String[] args) {
+        System.out.println("CustomerPipelineTest");
+        TestSupport.run("rejects bad worker counts and batch sizes", CustomerPipelineTest::rejectsBadArguments);
+        TestSupport.run("one worker writes every modified customer in order", () -> modifiesInOrder(1));
+        TestSupport.run("several workers write every modified customer in order", () -> modifiesInOrder(4));
+        TestSupport.run("an empty input gives an empty output", CustomerPipelineTest::emptyInput);
+        TestSupport.run("a successful run updates the ID index", CustomerPipelineTest::updatesIndex);
+        TestSupport.run("a later run replaces records in the same index", CustomerPipelineTest::laterRunReplaces);
+        TestSupport.run("a missing input fails without hanging", CustomerPipelineTest::missingInput);
+        TestSupport.run("a malformed input fails without hanging", CustomerPipelineTest::malformedInput);
+        TestSupport.finish();
+    }
+
+    /**
+     * Creates modified data for the first customers of a file; every seventh entry is
+     * {@code null}, which removes the customer's contact data.
+     */
+    private static CModifiedCustomerData[] modifiedData(int count) {
+        CModifiedCustomerData[] modifiedCustomerDataArray = new CModifiedCustomerData[count];
+        for (int i = 0; i < count; i++) {
+            if (i % 7 != 0) {
+                modifiedCustomerDataArray[i] = new CModifiedCustomerData("555-01" + i, "New Contact " + i,
+                        "new" + i + "@example.com");
+            }
+        }
+        return modifiedCustomerDataArray;
+    }
+
+    private static List<CustomerRecord> customers(int count) {
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            customers.add(TestSupport.customer(i, i % 2 == 0));
+        }
+        return customers;
+    }
+
+    private static List<CustomerRecord> expectedOutput(List<CustomerRecord> customers,
+            CModifiedCustomerData[] modifiedCustomerDataArray) {
+        CustomerRecord[] records = new CustomerRecord[customers.size()];
+        CustomerRecord.patchAll(customers.toArray(new CustomerRecord[0]), 0, modifiedCustomerDataArray, records);
+        return List.of(records);
+    }
+
+    /**
+     * Runs a pipeline on another thread and waits for it, so a hung pipeline fails the
+     * test instead of the whole program.
+     *
+     * @return The failure of the run, or {@code null} if it succeeded.
+     */
+    private static Throwable runWithTimeout(CustomerPipeline pipeline) throws InterruptedException {
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread runner = new Thread(() -> {
+            try {
+                pipeline.run();
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        }, "pipeline-test-runner");
+        runner.setDaemon(true);
+        runner.start();
+        runner.join(TimeUnit.SECONDS.toMillis(RUN_TIMEOUT_SECONDS));
+        TestSupport.check(!runner.isAlive(), "The pipeline did not finish within " + RUN_TIMEOUT_SECONDS + " s");
+        return outcome.get();
+    }
+
+    private static List<String> fileNames(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString()).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private static void rejectsBadArguments() {
+        CModifiedCustomerData[] modifiedCustomerDataArray = new CModifiedCustomerData[0];
+        int[][] badArguments = {{0, 16, 16}, {2, 0, 16}, {2, 16, 12}};
+        for (int[] arguments : badArguments) {
+            try {
+                new CustomerPipeline("in.xml", "out.xml", modifiedCustomerDataArray,
+                        arguments[0], arguments[1], arguments[2]);
+                throw new AssertionError("Workers " + arguments[0] + ", batch size " + arguments[1]
+                        + " and ring capacity " + arguments[2] + " were accepted");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    private static void modifiesInOrder(int workerCount) throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            List<CustomerRecord> customers = customers(5000);
+            CModifiedCustomerData[] modifiedCustomerDataArray = modifiedData(3000);
+            Path inputPath = directory.resolve("customers.xml");
+            Path outputPath = directory.resolve("modified.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            // Small batches and rings, so workers finish out of order and the writer reorders
+            CustomerPipeline pipeline = new CustomerPipeline(inputPath.toString(), outputPath.toString(),
+                    modifiedCustomerDataArray, workerCount, 7, 4);
+            TestSupport.check(runWithTimeout(pipeline) == null, "The pipeline failed");
+
+            TestSupport.checkCustomers(expectedOutput(customers, modifiedCustomerDataArray),
+                    TestSupport.readCustomers(outputPath), "Modified customers");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void emptyInput() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path inputPath = directory.resolve("customers.xml");
+            Path outputPath = directory.resolve("modified.xml");
+            TestSupport.writeCustomers(inputPath, List.of());
+
+            CustomerPipeline pipeline = new CustomerPipeline(inputPath.toString(), outputPath.toString(),
+                    modifiedData(10), 3);
+            TestSupport.checkEquals(0L, pipeline.run(), "Customers written");
+            TestSupport.check(TestSupport.readCustomers(outputPath).isEmpty(), "Customers in the output");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void updatesIndex() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            List<CustomerRecord> customers = customers(1000);
+            CModifiedCustomerData[] modifiedCustomerDataArray = modifiedData(1000);
+            Path inputPath = directory.resolve("customers.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            CustomerIdIndex idIndex = new CustomerIdIndex();
+            CustomerPipeline pipeline = new CustomerPipeline(inputPath.toString(),
+                    directory.resolve("modified.xml").toString(), modifiedCustomerDataArray, 2);
+            pipeline.setIdIndex(idIndex);
+            TestSupport.checkEquals(1000L, pipeline.run(), "Customers written");
+
+            TestSupport.checkEquals(1000, idIndex.size(), "Customers indexed");
+            for (CustomerRecord expected : expectedOutput(customers, modifiedCustomerDataArray)) {
+                TestSupport.checkEquals(expected, idIndex.get(expected.getID()), "Indexed customer");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void laterRunReplaces() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            CustomerIdIndex idIndex = new CustomerIdIndex();
+            List<CustomerRecord> firstCustomers = customers(800);
+            Path firstPath = directory.resolve("first.xml");
+            TestSupport.writeCustomers(firstPath, firstCustomers);
+            CustomerPipeline firstRun = new CustomerPipeline(firstPath.toString(),
+                    directory.resolve("first_modified.xml").toString(), modifiedData(800), 2);
+            firstRun.setIdIndex(idIndex);
+            firstRun.run();
+
+            // The second file has the same customers plus new ones, and different modified data
+            List<CustomerRecord> secondCustomers = customers(1000);
+            CModifiedCustomerData[] secondData = new CModifiedCustomerData[600];
+            for (int i = 0; i < secondData.length; i++) {
+                secondData[i] = new CModifiedCustomerData("555-09" + i, "Second Contact " + i, "second" + i + "@example.com");
+            }
+            Path secondPath = directory.resolve("second.xml");
+            TestSupport.writeCustomers(secondPath, secondCustomers);
+            CustomerPipeline secondRun = new CustomerPipeline(secondPath.toString(),
+                    directory.resolve("second_modified.xml").toString(), secondData, 3);
+            secondRun.setIdIndex(idIndex);
+            secondRun.run();
+
+            TestSupport.checkEquals(1000, idIndex.size(), "Customers indexed");
+            List<CustomerRecord> expected = expectedOutput(secondCustomers, secondData);
+            for (CustomerRecord customer : expected) {
+                TestSupport.checkEquals(customer, idIndex.get(customer.getID()), "Customer looked up");
+            }
+            TestSupport.checkEquals("Second Contact 0", idIndex.get(1).getContactName(), "Contact of customer 1");
+            TestSupport.checkCustomers(expected, TestSupport.readCustomers(directory.resolve("second_modified.xml")),
+                    "Modified customers");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void missingInput() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            CustomerIdIndex idIndex = new CustomerIdIndex();
+            CustomerRecord existing = TestSupport.customer(1, false);
+            idIndex.put(existing);
+
+            CustomerPipeline pipeline = new CustomerPipeline(directory.resolve("missing.xml").toString(),
+                    directory.resolve("modified.xml").toString(), modifiedData(100), 4);
+            pipeline.setIdIndex(idIndex);
+            Throwable failure = runWithTimeout(pipeline);
+
+            TestSupport.check(failure instanceof Exception, "Expected the run to fail but got " + failure);
+            TestSupport.checkEquals(List.of(), fileNames(directory), "Files left in the directory");
+            TestSupport.checkEquals(1, idIndex.size(), "Customers indexed after the failure");
+            TestSupport.check(idIndex.get(1) == existing, "The failed run changed the index");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void malformedInput() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path inputPath = directory.resolve("customers.xml");
+            Path outputPath = directory.resolve("modified.xml");
+            TestSupport.writeCustomers(inputPath, customers(3000));
+
+            // Cut the file off in the middle, so the reader fails after many batches
+            byte[] content = Files.readAllBytes(inputPath);
+            Files.write(inputPath, new String(content, 0, content.length * 2 / 3, StandardCharsets.UTF_8)
+                    .getBytes(StandardCharsets.UTF_8));
+            Files.write(outputPath, "previous output".getBytes(StandardCharsets.UTF_8));
+
+            CustomerIdIndex idIndex = new CustomerIdIndex();
+            CustomerPipeline pipeline = new CustomerPipeline(inputPath.toString(), outputPath.toString(),
+                    modifiedData(3000), 3, 16, 4);
+            pipeline.setIdIndex(idIndex);
+            Throwable failure = runWithTimeout(pipeline);
+
+            TestSupport.check(failure instanceof Exception, "Expected the run to fail but got " + failure);
+            TestSupport.checkEquals("previous output", new String(Files.readAllBytes(outputPath), StandardCharsets.UTF_8),
+                    "Output after the failure");
+            TestSupport.checkEquals(List.of("customers.xml", "modified.xml"), fileNames(directory),
+                    "Files left in the directory");
+            TestSupport.checkEquals(0, idIndex.size(), "Customers indexed after the failure");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+/**
+ * Tests {@link CustomerRecord}: building records from the field slices decoded by the
+ * reader, singly and in blocks, and pairing records with their modified data.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.Arrays;
+
+public class CustomerRecordTest {
+
+    public static void main(String[] args) {
+        System.out.println("CustomerRecordTest");
+        TestSupport.run("fromFields reads a slice at an offset", CustomerRecordTest::fromFieldsAtOffset);
+        TestSupport.run("fromFields leaves missing fields empty", CustomerRecordTest::fromFieldsMissing);
+        TestSupport.run("fromFieldBlock builds consecutive slices", CustomerRecordTest::fromFieldBlock);
+        TestSupport.run("patchAll applies modified data by input position", CustomerRecordTest::patchAllByPosition);
+        TestSupport.run("patchAll keeps customers beyond the modified data", CustomerRecordTest::patchAllBeyondEnd);
+        TestSupport.finish();
+    }
+
+    /** Fills one field slice with the fields of a record. */
+    private static void putFields(CustomerRecord customer, String[] fields, int offset) {
+        String[] values = {customer.getName(), customer.getType(), customer.getAddress(), customer.getCity(),
+            customer.getState(), customer.getZipcode(), customer.getPhoneNumber(), customer.getContactName(),
+            customer.getEmailAddress()};
+        System.arraycopy(values, 0, fields, offset, CustomerRecord.FIELD_COUNT);
+    }
+
+    private static void fromFieldsAtOffset() {
+        CustomerRecord expected = TestSupport.customer(7, true);
+        String[] fields = new String[CustomerRecord.FIELD_COUNT * 3];
+        putFields(TestSupport.customer(1, true), fields, 0);
+        putFields(expected, fields, CustomerRecord.FIELD_COUNT);
+        putFields(TestSupport.customer(3, false), fields, CustomerRecord.FIELD_COUNT * 2);
+
+        TestSupport.checkEquals(expected, CustomerRecord.fromFields(7, fields, CustomerRecord.FIELD_COUNT),
+                "Record of the second slice");
+    }
+
+    private static void fromFieldsMissing() {
+        String[] fields = new String[CustomerRecord.FIELD_COUNT];
+        fields[0] = "Only A Name";
+
+        CustomerRecord customer = CustomerRecord.fromFields(5, fields, 0);
+        TestSupport.checkEquals(5, customer.getID(), "ID");
+        TestSupport.checkEquals("Only A Name", customer.getName(), "Name");
+        TestSupport.checkEquals("", customer.getType(), "Type");
+        TestSupport.checkEquals("", customer.getZipcode(), "ZIP code");
+        TestSupport.check(!customer.hasContactData(), "A record without contact fields has contact data");
+        TestSupport.checkEquals(null, customer.toModifiedData(), "Modified data");
+    }
+
+    private static void fromFieldBlock() {
+        int count = 50;
+        CustomerRecord[] expected = new CustomerRecord[count];
+        int[] ids = new int[count + 10];
+        String[] fields = new String[(count + 10) * CustomerRecord.FIELD_COUNT];
+        for (int i = 0; i < count; i++) {
+            expected[i] = TestSupport.customer(100 + i, i % 3 != 0);
+            ids[i] = expected[i].getID();
+            putFields(expected[i], fields, i * CustomerRecord.FIELD_COUNT);
+        }
+
+        // The array is larger than the block; entries past the count are left alone
+        CustomerRecord sentinel = TestSupport.customer(999, false);
+        CustomerRecord[] records = new CustomerRecord[count + 1];
+        records[count] = sentinel;
+        TestSupport.checkEquals(count, CustomerRecord.fromFieldBlock(ids, fields, count, records), "Records created");
+        TestSupport.checkEquals(Arrays.asList(expected), Arrays.asList(records).subList(0, count), "Records");
+        TestSupport.check(records[count] == sentinel, "A record past the count was overwritten");
+    }
+
+    private static void patchAllByPosition() {
+        CModifiedCustomerData[] modifiedCustomerDataArray = new CModifiedCustomerData[10];
+        for (int i = 0; i < modifiedCustomerDataArray.length; i++) {
+            if (i != 6) {
+                modifiedCustomerDataArray[i] = new CModifiedCustomerData("555-02" + i, "Contact " + i,
+                        "contact" + i + "@example.com");
+            }
+        }
+        // Customers 5 to 7 of the whole input, the middle one with no modified data
+        CustomerRecord[] customers = {TestSupport.customer(5, false), TestSupport.customer(6, true),
+            TestSupport.customer(7, true)};
+        CustomerRecord[] records = new CustomerRecord[customers.length];
+
+        TestSupport.checkEquals(3, CustomerRecord.patchAll(customers, 5, modifiedCustomerDataArray, records),
+                "Records created");
+        TestSupport.checkEquals(customers[0].toBuilder().phoneNumber("555-025").contactName("Contact 5")
+                .emailAddress("contact5@example.com").build(), records[0], "Record of customer 5");
+        TestSupport.checkEquals(customers[1].toBuilder().phoneNumber(null).contactName(null).emailAddress(null)
+                .build(), records[1], "Record of customer 6");
+        TestSupport.checkEquals("Contact 7", records[2].getContactName(), "Contact of customer 7");
+        TestSupport.checkEquals(customers[2].getName(), records[2].getName(), "Name of customer 7");
+    }
+
+    private static void patchAllBeyondEnd() {
+        CModifiedCustomerData[] modifiedCustomerDataArray = {
+            new CModifiedCustomerData("555-0300", "First", "first@example.com"),
+            new CModifiedCustomerData("555-0301", "Second", "second@example.com")
+        };
+        CustomerRecord[] customers = {TestSupport.customer(2, false), TestSupport.customer(3, true),
+            TestSupport.customer(4, false)};
+        CustomerRecord[] records = new CustomerRecord[customers.length];
+
+        CustomerRecord.patchAll(customers, 1, modifiedCustomerDataArray, records);
+        TestSupport.checkEquals("Second", records[0].getContactName(), "Contact of the last patched customer");
+        TestSupport.check(records[1] == customers[1], "A customer beyond the modified data was changed");
+        TestSupport.check(records[2] == customers[2], "A customer beyond the modified data was changed");
+
+        // Positions past the int range, as in a file of more than 2^31 customers
+        CustomerRecord.patchAll(customers, Integer.MAX_VALUE - 1L, modifiedCustomerDataArray, records);
+        for (int i = 0; i < customers.length; i++) {
+            TestSupport.check(records[i] == customers[i], "A customer near position 2^31 was changed");
+        }
+    }
+}
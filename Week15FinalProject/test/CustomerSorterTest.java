@@ -0,0 +1,204 @@
+/**
+ * Tests {@link CustomerSorter}: sorting in memory and through spilled runs, including
+ * more runs than one merge pass takes, round-tripping every field through the run files,
+ * fields longer than 64 KiB, and cleanup of the temporary run files.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+public class CustomerSorterTest {
+
+    /** Small enough that every run holds only a few customers. */
+    private static final long TINY_MEMORY_BUDGET = 2000;
+
+    public static void main(String[] args) {
+        System.out.println("CustomerSorterTest");
+        TestSupport.run("rejects a budget that is not positive", CustomerSorterTest::rejectsBadBudget);
+        TestSupport.run("sorts in memory without run files", CustomerSorterTest::sortsInMemory);
+        TestSupport.run("every key sorts through spilled runs", CustomerSorterTest::everyKeyThroughRuns);
+        TestSupport.run("merges more runs than one pass takes", CustomerSorterTest::multiPassMerge);
+        TestSupport.run("fields longer than 64 KiB survive a run file", CustomerSorterTest::longFields);
+        TestSupport.run("a failed sort leaves no run files", CustomerSorterTest::failureLeavesNoRuns);
+        TestSupport.finish();
+    }
+
+    /**
+     * Creates customers in a shuffled order, with contact data on some of them and
+     * names that repeat so ties are broken by ID.
+     */
+    private static List<CustomerRecord> shuffledCustomers(int count, long seed) {
+        List<CustomerRecord> customers = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            CustomerRecord customer = TestSupport.customer(i, i % 3 != 0);
+            customers.add(customer.toBuilder().name("Customer " + (i % 97))
+                    .zipcode(String.format("%05d", (i * 7919) % 1000)).build());
+        }
+        Collections.shuffle(customers, new Random(seed));
+        return customers;
+    }
+
+    private static List<CustomerRecord> sortWith(CustomerSorter sorter, Path inputPath) throws Exception {
+        List<CustomerRecord> sorted = new ArrayList<>();
+        sorter.sort(inputPath.toString(), sorted::add);
+        return sorted;
+    }
+
+    private static List<CustomerRecord> expectedOrder(List<CustomerRecord> customers, CustomerSortKey sortKey) {
+        List<CustomerRecord> expected = new ArrayList<>(customers);
+        expected.sort(sortKey.comparator());
+        return expected;
+    }
+
+    private static long fileCount(Path directory) throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    private static void rejectsBadBudget() {
+        for (long budget : new long[] {0, -1}) {
+            try {
+                new CustomerSorter(CustomerSortKey.ID, budget, null);
+                throw new AssertionError("Budget " + budget + " was accepted");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+    }
+
+    private static void sortsInMemory() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path runDirectory = Files.createDirectory(directory.resolve("runs"));
+            List<CustomerRecord> customers = shuffledCustomers(500, 1);
+            Path inputPath = directory.resolve("customers.xml");
+            Path outputPath = directory.resolve("sorted.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            CustomerSorter sorter = new CustomerSorter(CustomerSortKey.NAME,
+                    CustomerSorter.DEFAULT_MEMORY_BUDGET, runDirectory.toFile());
+            sorter.sort(inputPath.toString(), outputPath.toString());
+
+            TestSupport.checkCustomers(expectedOrder(customers, CustomerSortKey.NAME),
+                    TestSupport.readCustomers(outputPath), "Sorted customers");
+            TestSupport.checkEquals(0L, fileCount(runDirectory), "Run files written");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void everyKeyThroughRuns() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path runDirectory = Files.createDirectory(directory.resolve("runs"));
+            List<CustomerRecord> customers = shuffledCustomers(400, 2);
+            Path inputPath = directory.resolve("customers.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            for (CustomerSortKey sortKey : CustomerSortKey.values()) {
+                CustomerSorter sorter = new CustomerSorter(sortKey, 20_000, runDirectory.toFile());
+                TestSupport.checkCustomers(expectedOrder(customers, sortKey), sortWith(sorter, inputPath),
+                        "Customers sorted by " + sortKey.getKeyName());
+                TestSupport.checkEquals(0L, fileCount(runDirectory), "Run files left by " + sortKey.getKeyName());
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void multiPassMerge() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path runDirectory = Files.createDirectory(directory.resolve("runs"));
+            // Several hundred runs of a few customers each, well over one merge pass
+            List<CustomerRecord> customers = shuffledCustomers(2000, 3);
+            Path inputPath = directory.resolve("customers.xml");
+            Path outputPath = directory.resolve("sorted.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            CustomerSorter sorter = new CustomerSorter(CustomerSortKey.STATE_CITY, TINY_MEMORY_BUDGET,
+                    runDirectory.toFile());
+            sorter.sort(inputPath.toString(), outputPath.toString());
+
+            TestSupport.checkCustomers(expectedOrder(customers, CustomerSortKey.STATE_CITY),
+                    TestSupport.readCustomers(outputPath), "Sorted customers");
+            TestSupport.checkEquals(0L, fileCount(runDirectory), "Run files left after the merge");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void longFields() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path runDirectory = Files.createDirectory(directory.resolve("runs"));
+            StringBuilder longText = new StringBuilder();
+            while (longText.length() < 70_000) {
+                // Over 64 KiB once encoded, the limit of DataOutput.writeUTF
+                longText.append("Caf\u00e9 cr\u00e8me ");
+            }
+
+            List<CustomerRecord> customers = shuffledCustomers(200, 4);
+            customers.set(17, customers.get(17).toBuilder().address(longText.toString()).build());
+            customers.set(81, customers.get(81).toBuilder().contactName(longText.toString())
+                    .emailAddress(null).build());
+            customers.set(150, customers.get(150).toBuilder().name("\u00c5ngstr\u00f6m \u4e2d\u6587").build());
+            Path inputPath = directory.resolve("customers.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            // The file has empty rather than missing contact fields where only some were
+            // set, so compare with the customers as read back, not as written
+            List<CustomerRecord> expected = expectedOrder(TestSupport.readCustomers(inputPath), CustomerSortKey.ID);
+            CustomerSorter sorter = new CustomerSorter(CustomerSortKey.ID, TINY_MEMORY_BUDGET, runDirectory.toFile());
+            TestSupport.checkCustomers(expected, sortWith(sorter, inputPath), "Sorted customers");
+            TestSupport.checkEquals(0L, fileCount(runDirectory), "Run files left after the merge");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void failureLeavesNoRuns() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path runDirectory = Files.createDirectory(directory.resolve("runs"));
+            List<CustomerRecord> customers = shuffledCustomers(300, 5);
+            Path inputPath = directory.resolve("customers.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            CustomerSorter sorter = new CustomerSorter(CustomerSortKey.ID, TINY_MEMORY_BUDGET, runDirectory.toFile());
+            int[] seen = new int[1];
+            try {
+                sorter.sort(inputPath.toString(), customer -> {
+                    if (++seen[0] == 100) {
+                        throw new IllegalStateException("Injected failure");
+                    }
+                });
+                throw new AssertionError("The sort did not fail");
+            } catch (IllegalStateException e) {
+                TestSupport.checkEquals("Injected failure", e.getMessage(), "Failure");
+            }
+            TestSupport.checkEquals(0L, fileCount(runDirectory), "Run files left after the failure");
+
+            File missingInput = directory.resolve("missing.xml").toFile();
+            try {
+                sortWith(sorter, missingInput.toPath());
+                throw new AssertionError("Sorting a missing file did not fail");
+            } catch (Exception e) {
+                // Expected
+            }
+            TestSupport.checkEquals(0L, fileCount(runDirectory), "Run files left after a missing input");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/**
+ * Tests {@link CustomerValidator}: bad records are quarantined whole to the reject file
+ * while good records keep coming through the reader, in structural and schema mode,
+ * including records that share a line, nested customers and a file that is not
+ * well-formed.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.stream.XMLStreamException;
+
+public class CustomerValidatorTest {
+
+    /** The project's schema; the tests are run from the project directory. */
+    private static final Path SCHEMA_PATH = Paths.get("customers.xsd");
+
+    public static void main(String[] args) {
+        System.out.println("CustomerValidatorTest");
+        TestSupport.run("good records come through in both modes", CustomerValidatorTest::goodRecords);
+        TestSupport.run("a missing zip rejects the whole record", CustomerValidatorTest::missingZip);
+        TestSupport.run("a bad ID attribute is rejected", CustomerValidatorTest::badID);
+        TestSupport.run("two records on one line are told apart", CustomerValidatorTest::twoRecordsOnOneLine);
+        TestSupport.run("a nested customer rejects only its parent", CustomerValidatorTest::nestedCustomer);
+        TestSupport.run("a file that is not well-formed fails in schema mode", CustomerValidatorTest::notWellFormed);
+        TestSupport.finish();
+    }
+
+    /** What one validating read produced. */
+    private static final class Outcome {
+        final List<CustomerRecord> accepted = new ArrayList<>();
+        final List<String> rejectLines = new ArrayList<>();
+        long acceptedCount;
+        long rejectedCount;
+    }
+
+    private static Path writeFile(Path directory, String content) throws Exception {
+        Path inputPath = directory.resolve("customers.xml");
+        Files.write(inputPath, content.getBytes(StandardCharsets.UTF_8));
+        return inputPath;
+    }
+
+    /** Wraps customer elements in a customers document. */
+    private static String document(String customers) {
+        return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<Customers>\n" + customers + "</Customers>\n";
+    }
+
+    private static String customerElement(int intID, String zip) {
+        return "<Customer ID=\"" + intID + "\"><name>Customer " + intID + "</name><type>Commercial</type>"
+                + "<address>" + intID + " Main St</address><city>Springfield</city><state>IL</state>"
+                + (zip == null ? "" : "<zip>" + zip + "</zip>") + "</Customer>";
+    }
+
+    /** Reads a file through a validator and collects the accepted records and the reject file. */
+    private static Outcome validate(Path inputPath, CustomerValidator.Mode mode) throws Exception {
+        TestSupport.check(Files.exists(SCHEMA_PATH), "No " + SCHEMA_PATH.toAbsolutePath());
+        Path rejectPath = inputPath.resolveSibling("rejects.txt");
+        Outcome outcome = new Outcome();
+        try (CustomerValidator validator = new CustomerValidator(mode, inputPath.toString(),
+                SCHEMA_PATH.toString(), rejectPath.toString());
+                CustomerStreamReader reader = new CustomerStreamReader(inputPath.toString())) {
+            reader.setValidator(validator);
+            CustomerRecord customer;
+            while ((customer = reader.nextRecord()) != null) {
+                outcome.accepted.add(customer);
+            }
+            outcome.acceptedCount = validator.getAcceptedCount();
+            outcome.rejectedCount = validator.getRejectedCount();
+        }
+        outcome.rejectLines.addAll(Files.readAllLines(rejectPath, StandardCharsets.UTF_8));
+        return outcome;
+    }
+
+    private static List<Integer> ids(List<CustomerRecord> customers) {
+        List<Integer> ids = new ArrayList<>();
+        for (CustomerRecord customer : customers) {
+            ids.add(customer.getID());
+        }
+        return ids;
+    }
+
+    private static void goodRecords() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            List<CustomerRecord> customers = new ArrayList<>();
+            for (int i = 1; i <= 200; i++) {
+                customers.add(TestSupport.customer(i, i % 2 == 0));
+            }
+            Path inputPath = directory.resolve("customers.xml");
+            TestSupport.writeCustomers(inputPath, customers);
+
+            for (CustomerValidator.Mode mode : CustomerValidator.Mode.values()) {
+                Outcome outcome = validate(inputPath, mode);
+                TestSupport.checkCustomers(customers, outcome.accepted, "Customers accepted in " + mode + " mode");
+                TestSupport.checkEquals(200L, outcome.acceptedCount, "Accepted count in " + mode + " mode");
+                TestSupport.checkEquals(0L, outcome.rejectedCount, "Rejected count in " + mode + " mode");
+                TestSupport.checkEquals(List.of(), outcome.rejectLines, "Reject file in " + mode + " mode");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void missingZip() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path inputPath = writeFile(directory, document(customerElement(1, "62701") + "\n"
+                    + "<Customer ID=\"2\">\n<name>Smith &amp; Sons</name>\n<type>Residential</type>\n"
+                    + "<address>2 Main St</address>\n<city>Springfield</city>\n<state>IL</state>\n"
+                    + "<phone>555-0102</phone>\n<contactName>Ann</contactName>\n<email>a@example.com</email>\n"
+                    + "</Customer>\n" + customerElement(3, "62703") + "\n"));
+
+            for (CustomerValidator.Mode mode : CustomerValidator.Mode.values()) {
+                Outcome outcome = validate(inputPath, mode);
+                TestSupport.checkEquals(List.of(1, 3), ids(outcome.accepted), "Customers accepted in " + mode + " mode");
+                TestSupport.checkEquals(1L, outcome.rejectedCount, "Rejected count in " + mode + " mode");
+                TestSupport.checkEquals(List.of("line 4-13: missing <zip>",
+                        "<Customer ID=\"2\"><name>Smith &amp; Sons</name><type>Residential</type>"
+                        + "<address>2 Main St</address><city>Springfield</city><state>IL</state><zip></zip>"
+                        + "<phone>555-0102</phone><contactName>Ann</contactName><email>a@example.com</email>"
+                        + "</Customer>"), outcome.rejectLines, "Reject file in " + mode + " mode");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void badID() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            Path inputPath = writeFile(directory, document(customerElement(1, "62701") + "\n"
+                    + customerElement(2, "62702").replace("ID=\"2\"", "ID=\"two\"") + "\n"
+                    + customerElement(3, "62703").replace(" ID=\"3\"", "") + "\n"
+                    + customerElement(4, "62704") + "\n"));
+
+            for (CustomerValidator.Mode mode : CustomerValidator.Mode.values()) {
+                Outcome outcome = validate(inputPath, mode);
+                TestSupport.checkEquals(List.of(1, 4), ids(outcome.accepted), "Customers accepted in " + mode + " mode");
+                TestSupport.checkEquals(2L, outcome.rejectedCount, "Rejected count in " + mode + " mode");
+                TestSupport.checkEquals(4, outcome.rejectLines.size(), "Reject lines in " + mode + " mode");
+                TestSupport.check(outcome.rejectLines.get(0).startsWith("line 4-4: ")
+                        && outcome.rejectLines.get(0).contains("two"), "Reject reason " + outcome.rejectLines.get(0));
+                TestSupport.check(outcome.rejectLines.get(1).startsWith("<Customer><name>Customer 2</name>"),
+                        "Rejected record " + outcome.rejectLines.get(1));
+                TestSupport.checkEquals("line 5-5: missing ID", outcome.rejectLines.get(2),
+                        "Reject reason in " + mode + " mode");
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void twoRecordsOnOneLine() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            // The second record of the line has its fields out of order, which only the
+            // schema catches, so the schema error must be matched to it and not the first
+            String outOfOrder = customerElement(3, "62703").replace("<name>Customer 3</name><type>Commercial</type>",
+                    "<type>Commercial</type><name>Customer 3</name>");
+            Path inputPath = writeFile(directory, document(customerElement(1, "62701") + "\n"
+                    + customerElement(2, "62702") + outOfOrder + customerElement(4, "bad") + "\n"
+                    + customerElement(5, "62705") + "\n"));
+
+            Outcome structural = validate(inputPath, CustomerValidator.Mode.STRUCTURAL);
+            TestSupport.checkEquals(List.of(1, 2, 3, 5), ids(structural.accepted), "Customers accepted structurally");
+            TestSupport.checkEquals(List.of("line 4-4: invalid zip \"bad\"", CustomerValidator.toElement(
+                    CustomerRecord.fromFields(4, new String[] {"Customer 4", "Commercial", "4 Main St", "Springfield",
+                        "IL", "bad", null, null, null}, 0))), structural.rejectLines, "Structural reject file");
+
+            Outcome schema = validate(inputPath, CustomerValidator.Mode.SCHEMA);
+            TestSupport.checkEquals(List.of(1, 2, 5), ids(schema.accepted), "Customers accepted with the schema");
+            TestSupport.checkEquals(4, schema.rejectLines.size(), "Schema reject lines");
+            TestSupport.check(schema.rejectLines.get(0).startsWith("line 4-4: "), "Reject reason "
+                    + schema.rejectLines.get(0));
+            TestSupport.check(schema.rejectLines.get(1).startsWith("<Customer ID=\"3\">"), "First rejected record "
+                    + schema.rejectLines.get(1));
+            TestSupport.checkEquals("line 4-4: invalid zip \"bad\"", schema.rejectLines.get(2), "Second reject reason");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void nestedCustomer() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            String nested = customerElement(2, "62702").replace("</Customer>", customerElement(9, "62709") + "</Customer>");
+            Path inputPath = writeFile(directory, document(customerElement(1, "62701") + "\n" + nested + "\n"
+                    + customerElement(3, "62703") + "\n"));
+
+            for (CustomerValidator.Mode mode : CustomerValidator.Mode.values()) {
+                Outcome outcome = validate(inputPath, mode);
+                // The nested customer is not a record of its own, so the numbering of the
+                // records after it still matches the schema thread's
+                TestSupport.checkEquals(List.of(1, 3), ids(outcome.accepted), "Customers accepted in " + mode + " mode");
+                TestSupport.checkEquals(1L, outcome.rejectedCount, "Rejected count in " + mode + " mode");
+                TestSupport.check(outcome.rejectLines.get(0).startsWith("line 4-4: "), "Reject reason "
+                        + outcome.rejectLines.get(0));
+                TestSupport.check(outcome.rejectLines.get(1).startsWith("<Customer ID=\"2\">"), "Rejected record "
+                        + outcome.rejectLines.get(1));
+            }
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+
+    private static void notWellFormed() throws Exception {
+        Path directory = TestSupport.createTempDirectory();
+        try {
+            StringBuilder customers = new StringBuilder();
+            for (int i = 1; i <= 50; i++) {
+                customers.append(customerElement(i, i == 7 ? null : String.format("%05d", i))).append('\n');
+            }
+            customers.append("<Customer ID=\"51\"><name>Cut off</type>\n");
+            Path inputPath = writeFile(directory, document(customers.toString()));
+            Path rejectPath = directory.resolve("rejects.txt");
+
+            List<Integer> accepted = new ArrayList<>();
+            try (CustomerValidator validator = new CustomerValidator(CustomerValidator.Mode.SCHEMA,
+                    inputPath.toString(), SCHEMA_PATH.toString(), rejectPath.toString());
+                    CustomerStreamReader reader = new CustomerStreamReader(inputPath.toString())) {
+                reader.setValidator(validator);
+                CustomerRecord customer;
+                while ((customer = reader.nextRecord()) != null) {
+                    accepted.add(customer.getID());
+                }
+                throw new AssertionError("The malformed file was read to the end");
+            } catch (XMLStreamException e) {
+                // Expected
+            }
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 1; i <= 50; i++) {
+                if (i != 7) {
+                    expected.add(i);
+                }
+            }
+            TestSupport.checkEquals(expected, accepted, "Customers accepted before the error");
+            TestSupport.checkEquals("line 9-9: missing <zip>", Files.readAllLines(rejectPath, StandardCharsets.UTF_8)
+                    .get(0), "Reject reason");
+        } finally {
+            TestSupport.deleteRecursively(directory);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/**
+ * Tests {@link LatencyHistogram}: values land in buckets that keep about three percent
+ * precision, percentiles are read from those buckets, and values too large or negative
+ * for the normal range are still recorded sensibly.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.Random;
+
+public class LatencyHistogramTest {
+
+    public static void main(String[] args) {
+        System.out.println("LatencyHistogramTest");
+        TestSupport.run("an empty histogram reports zeros", LatencyHistogramTest::empty);
+        TestSupport.run("small values are recorded exactly", LatencyHistogramTest::smallValuesExact);
+        TestSupport.run("bucket boundaries keep about three percent precision", LatencyHistogramTest::bucketBoundaries);
+        TestSupport.run("percentiles follow the recorded distribution", LatencyHistogramTest::percentiles);
+        TestSupport.run("huge and negative values are recorded", LatencyHistogramTest::outOfRange);
+        TestSupport.run("concurrent recording loses nothing", LatencyHistogramTest::concurrentRecording);
+        TestSupport.run("reset clears everything", LatencyHistogramTest::reset);
+        TestSupport.finish();
+    }
+
+    /** Records one value in a new histogram and returns the value it reports back. */
+    private static long roundTrip(long value) {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(value);
+        // The maximum caps the percentile, so report the bucket through a larger value
+        histogram.record(Long.MAX_VALUE);
+        return histogram.getPercentileNanos(50);
+    }
+
+    private static void empty() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        TestSupport.checkEquals(0L, histogram.getCount(), "Count");
+        TestSupport.checkEquals(0L, histogram.getTotalNanos(), "Total");
+        TestSupport.checkEquals(0L, histogram.getMaxNanos(), "Maximum");
+        TestSupport.checkEquals(0L, histogram.getPercentileNanos(99), "99th percentile");
+    }
+
+    private static void smallValuesExact() {
+        for (long value = 0; value < 64; value++) {
+            TestSupport.checkEquals(value, roundTrip(value), "Bucket of " + value);
+        }
+    }
+
+    private static void bucketBoundaries() {
+        // From 64 up, each power-of-two range has 32 buckets, so the width doubles with it
+        TestSupport.checkEquals(64L, roundTrip(64), "Bucket of 64");
+        TestSupport.checkEquals(64L, roundTrip(65), "Bucket of 65");
+        TestSupport.checkEquals(66L, roundTrip(66), "Bucket of 66");
+        TestSupport.checkEquals(126L, roundTrip(127), "Bucket of 127");
+        TestSupport.checkEquals(128L, roundTrip(128), "Bucket of 128");
+        TestSupport.checkEquals(128L, roundTrip(131), "Bucket of 131");
+        TestSupport.checkEquals(132L, roundTrip(132), "Bucket of 132");
+        TestSupport.checkEquals(1L << 40, roundTrip((1L << 40) + (1L << 34)), "Bucket just above 2^40");
+
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            long value = Math.max(64, random.nextLong() >>> (1 + random.nextInt(57)));
+            long lowerBound = roundTrip(value);
+            TestSupport.check(lowerBound <= value && value - lowerBound <= value / 32,
+                    "Bucket " + lowerBound + " of " + value + " is not within 1/32");
+        }
+    }
+
+    private static void percentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        // 1 to 1000 microseconds, once each
+        for (long micros = 1; micros <= 1000; micros++) {
+            histogram.record(micros * 1000);
+        }
+
+        TestSupport.checkEquals(1000L, histogram.getCount(), "Count");
+        TestSupport.checkEquals(500_500_000L, histogram.getTotalNanos(), "Total");
+        TestSupport.checkEquals(1_000_000L, histogram.getMaxNanos(), "Maximum");
+        // 1000 falls in the bucket starting at 992
+        TestSupport.checkEquals(992L, histogram.getPercentileNanos(0), "0th percentile");
+        for (double percentile : new double[] {50, 90, 99, 99.9, 100}) {
+            long expected = (long) Math.ceil(percentile * 10) * 1000;
+            long actual = histogram.getPercentileNanos(percentile);
+            TestSupport.check(actual <= expected && expected - actual <= expected / 32,
+                    percentile + "th percentile " + actual + " is not within 1/32 of " + expected);
+        }
+    }
+
+    private static void outOfRange() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+
+        TestSupport.checkEquals(2L, histogram.getCount(), "Count");
+        TestSupport.checkEquals(Long.MAX_VALUE, histogram.getMaxNanos(), "Maximum");
+        TestSupport.checkEquals(0L, histogram.getPercentileNanos(50), "Median of a negative and a huge value");
+        long top = histogram.getPercentileNanos(100);
+        TestSupport.check(top <= Long.MAX_VALUE && Long.MAX_VALUE - top <= Long.MAX_VALUE / 32,
+                "Top bucket " + top + " is not within 1/32 of Long.MAX_VALUE");
+    }
+
+    private static void concurrentRecording() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            long offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 25_000; i++) {
+                    histogram.record(i * 4 + offset);
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        TestSupport.checkEquals(100_000L, histogram.getCount(), "Count");
+        TestSupport.checkEquals(99_999L * 100_000 / 2, histogram.getTotalNanos(), "Total");
+        TestSupport.checkEquals(99_999L, histogram.getMaxNanos(), "Maximum");
+    }
+
+    private static void reset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(12_345);
+        histogram.reset();
+        TestSupport.checkEquals(0L, histogram.getCount(), "Count");
+        TestSupport.checkEquals(0L, histogram.getMaxNanos(), "Maximum");
+        TestSupport.checkEquals(0L, histogram.getPercentileNanos(50), "Median");
+
+        histogram.record(7);
+        TestSupport.checkEquals(7L, histogram.getPercentileNanos(50), "Median after a new value");
+    }
+}
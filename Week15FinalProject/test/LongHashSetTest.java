@@ -0,0 +1,85 @@
+/**
+ * Tests {@link LongHashSet}: the value 0, which doubles as the empty-slot marker,
+ * duplicates, growth well past the initial capacity, and iteration.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+public class LongHashSetTest {
+
+    public static void main(String[] args) {
+        System.out.println("LongHashSetTest");
+        TestSupport.run("zero is stored like any other value", LongHashSetTest::zeroIsAValue);
+        TestSupport.run("duplicates are not added twice", LongHashSetTest::duplicates);
+        TestSupport.run("matches a HashSet through many resizes", LongHashSetTest::matchesHashSet);
+        TestSupport.run("forEach visits every value once", LongHashSetTest::forEachVisitsEveryValue);
+        TestSupport.finish();
+    }
+
+    private static void zeroIsAValue() {
+        LongHashSet set = new LongHashSet();
+        TestSupport.check(!set.contains(0), "An empty set contains 0");
+        TestSupport.check(set.add(0), "Adding 0 reported it as present");
+        TestSupport.check(set.contains(0), "0 not found after adding it");
+        TestSupport.check(!set.add(0), "0 was added twice");
+        TestSupport.checkEquals(1, set.size(), "Size after adding 0");
+
+        long[] seen = new long[1];
+        int[] count = new int[1];
+        set.forEach(value -> {
+            seen[0] = value;
+            count[0]++;
+        });
+        TestSupport.checkEquals(1, count[0], "Values visited");
+        TestSupport.checkEquals(0L, seen[0], "Value visited");
+    }
+
+    private static void duplicates() {
+        LongHashSet set = new LongHashSet(4);
+        for (long value : new long[] {5, -5, Long.MIN_VALUE, Long.MAX_VALUE, 1L << 32}) {
+            TestSupport.check(set.add(value), "First add of " + value + " reported it as present");
+            TestSupport.check(!set.add(value), "Second add of " + value + " reported it as new");
+        }
+        TestSupport.checkEquals(5, set.size(), "Size");
+    }
+
+    private static void matchesHashSet() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Packed (group, value) pairs as CustomerAggregator builds them, including 0
+            long value = ((long) random.nextInt(500) << 32) | random.nextInt(500);
+            TestSupport.checkEquals(expected.add(value), set.add(value), "Result of adding " + value);
+        }
+        TestSupport.checkEquals(expected.size(), set.size(), "Size");
+        for (long value : expected) {
+            TestSupport.check(set.contains(value), "Value " + value + " missing");
+        }
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong();
+            TestSupport.checkEquals(expected.contains(value), set.contains(value), "contains(" + value + ")");
+        }
+    }
+
+    private static void forEachVisitsEveryValue() {
+        LongHashSet set = new LongHashSet();
+        Set<Long> expected = new HashSet<>();
+        for (long value = -1000; value <= 1000; value += 3) {
+            set.add(value);
+            expected.add(value);
+        }
+        set.add(0);
+        expected.add(0L);
+
+        Set<Long> visited = new HashSet<>();
+        set.forEach(value -> TestSupport.check(visited.add(value), "Value " + value + " visited twice"));
+        TestSupport.checkEquals(expected, visited, "Values visited");
+    }
+}
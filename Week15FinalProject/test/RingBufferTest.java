@@ -0,0 +1,182 @@
+/**
+ * Tests {@link RingBuffer}: ordering, capacity, wrap-around of positions past the
+ * capacity, many producers and consumers at once, and cancellation of waiting threads.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class RingBufferTest {
+
+    public static void main(String[] args) {
+        System.out.println("RingBufferTest");
+        TestSupport.run("rejects a capacity that is not a power of two", RingBufferTest::rejectsBadCapacity);
+        TestSupport.run("offer and poll keep FIFO order up to capacity", RingBufferTest::offerAndPollUpToCapacity);
+        TestSupport.run("positions wrap around the slots many times", RingBufferTest::wrapsAround);
+        TestSupport.run("many producers and consumers lose and repeat nothing", RingBufferTest::manyProducersAndConsumers);
+        TestSupport.run("cancel releases a thread waiting in take", RingBufferTest::cancelReleasesTake);
+        TestSupport.run("cancel releases a thread waiting in put", RingBufferTest::cancelReleasesPut);
+        TestSupport.run("offer and poll still work after cancel", RingBufferTest::offerAndPollAfterCancel);
+        TestSupport.finish();
+    }
+
+    private static void rejectsBadCapacity() {
+        for (int capacity : new int[] {0, -4, 3, 12}) {
+            try {
+                new RingBuffer<Integer>(capacity);
+                throw new AssertionError("Capacity " + capacity + " was accepted");
+            } catch (IllegalArgumentException e) {
+                // Expected
+            }
+        }
+        new RingBuffer<Integer>(1);
+    }
+
+    private static void offerAndPollUpToCapacity() {
+        RingBuffer<Integer> ring = new RingBuffer<>(4);
+        TestSupport.check(ring.poll() == null, "An empty ring returned an item");
+        for (int i = 0; i < 4; i++) {
+            TestSupport.check(ring.offer(i), "Offer " + i + " was refused below capacity");
+        }
+        TestSupport.check(!ring.offer(4), "Offer beyond capacity was accepted");
+        for (int i = 0; i < 4; i++) {
+            TestSupport.checkEquals(i, ring.poll(), "Item polled");
+        }
+        TestSupport.check(ring.poll() == null, "A drained ring returned an item");
+    }
+
+    private static void wrapsAround() throws InterruptedException {
+        RingBuffer<Integer> ring = new RingBuffer<>(8);
+        int next = 0;
+        int expected = 0;
+        // Keep the ring partly full so items straddle the end of the slot array; every
+        // third round leaves one item behind, so at most 7 more are added at once
+        for (int round = 0; round < 10_000; round++) {
+            int fill = round % 7 + 1;
+            for (int i = 0; i < fill; i++) {
+                ring.put(next++);
+            }
+            for (int i = 0; i < fill - (round % 3 == 0 ? 1 : 0); i++) {
+                TestSupport.checkEquals(expected++, ring.take(), "Item taken in round " + round);
+            }
+            while (expected < next && round % 3 != 0) {
+                TestSupport.checkEquals(expected++, ring.take(), "Leftover item in round " + round);
+            }
+        }
+        while (expected < next) {
+            TestSupport.checkEquals(expected++, ring.take(), "Final item");
+        }
+        TestSupport.check(ring.poll() == null, "Items left after draining");
+    }
+
+    private static void manyProducersAndConsumers() throws Exception {
+        int producerCount = 4;
+        int consumerCount = 4;
+        int itemsPerProducer = 50_000;
+        RingBuffer<Long> ring = new RingBuffer<>(16);
+        AtomicLong sum = new AtomicLong();
+        AtomicLong takenCount = new AtomicLong();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producerCount; p++) {
+            long firstItem = (long) p * itemsPerProducer + 1;
+            threads.add(new Thread(() -> {
+                try {
+                    for (long item = firstItem; item < firstItem + itemsPerProducer; item++) {
+                        ring.put(item);
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+        long totalItems = (long) producerCount * itemsPerProducer;
+        long itemsPerConsumer = totalItems / consumerCount;
+        for (int c = 0; c < consumerCount; c++) {
+            threads.add(new Thread(() -> {
+                try {
+                    for (long i = 0; i < itemsPerConsumer; i++) {
+                        sum.addAndGet(ring.take());
+                        takenCount.incrementAndGet();
+                    }
+                } catch (Throwable t) {
+                    failure.compareAndSet(null, t);
+                }
+            }));
+        }
+
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(30));
+            TestSupport.check(!thread.isAlive(), "A producer or consumer did not finish");
+        }
+        TestSupport.check(failure.get() == null, "A thread failed: " + failure.get());
+        TestSupport.checkEquals(totalItems, takenCount.get(), "Items taken");
+        TestSupport.checkEquals(totalItems * (totalItems + 1) / 2, sum.get(), "Sum of items taken");
+    }
+
+    private static void cancelReleasesTake() throws Exception {
+        RingBuffer<Integer> ring = new RingBuffer<>(2);
+        checkCancelReleases(ring, () -> ring.take());
+    }
+
+    private static void cancelReleasesPut() throws Exception {
+        RingBuffer<Integer> ring = new RingBuffer<>(2);
+        ring.put(1);
+        ring.put(2);
+        checkCancelReleases(ring, () -> ring.put(3));
+    }
+
+    /**
+     * Starts a thread blocked in the given call, cancels the ring and checks the call
+     * fails with an InterruptedException.
+     */
+    private static void checkCancelReleases(RingBuffer<Integer> ring, TestSupport.TestCase blockingCall)
+            throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicReference<Throwable> outcome = new AtomicReference<>();
+        Thread waiter = new Thread(() -> {
+            started.countDown();
+            try {
+                blockingCall.run();
+                outcome.set(new AssertionError("The call returned instead of waiting"));
+            } catch (Throwable t) {
+                outcome.set(t);
+            }
+        });
+        waiter.start();
+        started.await();
+        Thread.sleep(50);
+        TestSupport.check(waiter.isAlive(), "The call did not wait: " + outcome.get());
+
+        ring.cancel();
+        waiter.join(TimeUnit.SECONDS.toMillis(5));
+        TestSupport.check(!waiter.isAlive(), "Cancel did not release the waiting thread");
+        TestSupport.check(outcome.get() instanceof InterruptedException,
+                "Expected InterruptedException but got " + outcome.get());
+        TestSupport.check(ring.isCancelled(), "Ring not reported as cancelled");
+    }
+
+    private static void offerAndPollAfterCancel() {
+        RingBuffer<Integer> ring = new RingBuffer<>(2);
+        ring.cancel();
+        TestSupport.check(ring.offer(7), "Offer refused after cancel");
+        TestSupport.checkEquals(7, ring.poll(), "Item polled after cancel");
+        try {
+            ring.take();
+            throw new AssertionError("take() on an empty cancelled ring returned");
+        } catch (InterruptedException e) {
+            // Expected
+        }
+    }
+}
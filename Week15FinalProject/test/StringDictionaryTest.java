@@ -0,0 +1,96 @@
+/**
+ * Tests {@link StringDictionary}: IDs are dense and assigned in first-seen order, a
+ * string keeps its ID through many resizes, and strings with equal hash codes are told
+ * apart.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class StringDictionaryTest {
+
+    public static void main(String[] args) {
+        System.out.println("StringDictionaryTest");
+        TestSupport.run("IDs are dense and in first-seen order", StringDictionaryTest::denseIDs);
+        TestSupport.run("matches a HashMap through many resizes", StringDictionaryTest::matchesHashMap);
+        TestSupport.run("strings with equal hash codes get their own IDs", StringDictionaryTest::equalHashCodes);
+        TestSupport.run("decode rejects unknown IDs", StringDictionaryTest::rejectsUnknownIDs);
+        TestSupport.finish();
+    }
+
+    private static void denseIDs() {
+        StringDictionary dictionary = new StringDictionary();
+        TestSupport.checkEquals(0, dictionary.size(), "Size of an empty dictionary");
+        TestSupport.checkEquals(0, dictionary.encode("IL"), "ID of IL");
+        TestSupport.checkEquals(1, dictionary.encode("CA"), "ID of CA");
+        TestSupport.checkEquals(0, dictionary.encode(new String("IL")), "ID of an equal IL");
+        TestSupport.checkEquals(2, dictionary.encode(""), "ID of the empty string");
+        TestSupport.checkEquals(3, dictionary.size(), "Size");
+        TestSupport.checkEquals("CA", dictionary.decode(1), "String 1");
+        TestSupport.checkEquals("", dictionary.decode(2), "String 2");
+    }
+
+    private static void matchesHashMap() {
+        StringDictionary dictionary = new StringDictionary(2);
+        Map<String, Integer> expected = new HashMap<>();
+        List<String> order = new ArrayList<>();
+        Random random = new Random(9);
+
+        for (int i = 0; i < 200_000; i++) {
+            // Group keys as CustomerAggregator builds them, many repeating
+            String value = "City " + random.nextInt(30_000) + '\u001F' + (random.nextBoolean() ? "IL" : "CA");
+            Integer expectedID = expected.get(value);
+            if (expectedID == null) {
+                expectedID = order.size();
+                expected.put(value, expectedID);
+                order.add(value);
+            }
+            TestSupport.checkEquals(expectedID.intValue(), dictionary.encode(value), "ID of " + value);
+        }
+        TestSupport.checkEquals(order.size(), dictionary.size(), "Size");
+        for (int id = 0; id < order.size(); id++) {
+            TestSupport.checkEquals(order.get(id), dictionary.decode(id), "String " + id);
+        }
+    }
+
+    private static void equalHashCodes() {
+        // "Aa" and "BB" have the same hash code, so every combination of them does too
+        StringDictionary dictionary = new StringDictionary();
+        List<String> values = new ArrayList<>();
+        for (int bits = 0; bits < 256; bits++) {
+            StringBuilder value = new StringBuilder();
+            for (int i = 0; i < 8; i++) {
+                value.append((bits & (1 << i)) != 0 ? "Aa" : "BB");
+            }
+            values.add(value.toString());
+        }
+        TestSupport.checkEquals(values.get(0).hashCode(), values.get(255).hashCode(), "Hash codes");
+
+        for (int i = 0; i < values.size(); i++) {
+            TestSupport.checkEquals(i, dictionary.encode(values.get(i)), "ID of " + values.get(i));
+        }
+        for (int i = 0; i < values.size(); i++) {
+            TestSupport.checkEquals(i, dictionary.encode(values.get(i)), "Second ID of " + values.get(i));
+        }
+        TestSupport.checkEquals(256, dictionary.size(), "Size");
+    }
+
+    private static void rejectsUnknownIDs() {
+        StringDictionary dictionary = new StringDictionary();
+        dictionary.encode("only");
+        for (int id : new int[] {-1, 1, 100}) {
+            try {
+                dictionary.decode(id);
+                throw new AssertionError("ID " + id + " was decoded");
+            } catch (IndexOutOfBoundsException e) {
+                // Expected
+            }
+        }
+    }
+}
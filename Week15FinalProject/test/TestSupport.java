@@ -0,0 +1,194 @@
+/**
+ * TestSupport holds the checks and fixtures shared by the test programs in this
+ * directory. Each test class is a program whose {@code main} runs its tests through
+ * {@link #run(String, TestCase)} and ends with {@link #finish()}, which exits with a
+ * non-zero status if any test failed. scripts/run-tests.sh compiles and runs them all.
+ *
+ * @version 1.0
+ * @since 2026-10-19
+ */
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public final class TestSupport {
+
+    private static int passedCount;
+    private static int failedCount;
+
+    private TestSupport() {
+    }
+
+    /**
+     * A test body that may throw any exception.
+     */
+    public interface TestCase {
+        void run() throws Exception;
+    }
+
+    /**
+     * Runs one test and reports whether it passed.
+     *
+     * @param testName The name printed with the result.
+     * @param testCase The test to run.
+     */
+    public static void run(String testName, TestCase testCase) {
+        try {
+            testCase.run();
+            passedCount++;
+            System.out.println("  ok    " + testName);
+        } catch (Throwable t) {
+            failedCount++;
+            System.out.println("  FAIL  " + testName + ": " + t);
+            t.printStackTrace(System.out);
+        }
+    }
+
+    /**
+     * Prints the totals and exits with status 1 if any test failed.
+     */
+    public static void finish() {
+        System.out.println(passedCount + " passed, " + failedCount + " failed");
+        System.exit(failedCount == 0 ? 0 : 1);
+    }
+
+    /**
+     * Fails the current test unless the condition holds.
+     *
+     * @param condition The condition to check.
+     * @param message Describes what was expected.
+     */
+    public static void check(boolean condition, String message) {
+        if (!condition) {
+            throw new AssertionError(message);
+        }
+    }
+
+    /**
+     * Fails the current test unless the two values are equal.
+     *
+     * @param expected The expected value.
+     * @param actual The actual value.
+     * @param message Describes the value checked.
+     */
+    public static void checkEquals(Object expected, Object actual, String message) {
+        if (!Objects.equals(expected, actual)) {
+            throw new AssertionError(message + ": expected <" + expected + "> but was <" + actual + ">");
+        }
+    }
+
+    /**
+     * Fails the current test unless the two lists of customers are equal, naming the
+     * first customer that differs rather than printing both lists.
+     *
+     * @param expected The expected customers.
+     * @param actual The actual customers.
+     * @param message Describes the customers checked.
+     */
+    public static void checkCustomers(List<CustomerRecord> expected, List<CustomerRecord> actual, String message) {
+        for (int i = 0; i < Math.min(expected.size(), actual.size()); i++) {
+            if (!expected.get(i).equals(actual.get(i))) {
+                throw new AssertionError(message + ": customer " + i + " differs: expected <"
+                        + abbreviate(expected.get(i)) + "> but was <" + abbreviate(actual.get(i)) + ">");
+            }
+        }
+        checkEquals(expected.size(), actual.size(), message + ", number of customers");
+    }
+
+    private static String abbreviate(Object value) {
+        String text = String.valueOf(value);
+        return text.length() <= 400 ? text : text.substring(0, 400) + "... (" + text.length() + " characters)";
+    }
+
+    /**
+     * Creates an empty temporary directory.
+     *
+     * @return The directory.
+     * @throws IOException If it cannot be created.
+     */
+    public static Path createTempDirectory() throws IOException {
+        return Files.createTempDirectory("customers-test-");
+    }
+
+    /**
+     * Deletes a directory and everything in it.
+     *
+     * @param directory The directory to delete.
+     * @throws IOException If a file cannot be deleted.
+     */
+    public static void deleteRecursively(Path directory) throws IOException {
+        if (!Files.exists(directory)) {
+            return;
+        }
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            paths = walk.sorted(Comparator.reverseOrder()).collect(Collectors.toList());
+        }
+        for (Path path : paths) {
+            Files.delete(path);
+        }
+    }
+
+    /**
+     * Creates a customer with valid fields derived from its ID.
+     *
+     * @param intID The customer ID.
+     * @param withContactData Whether to fill in the phone, contact name and email.
+     * @return The customer.
+     */
+    public static CustomerRecord customer(int intID, boolean withContactData) {
+        CustomerRecord.Builder builder = new CustomerRecord.Builder()
+                .id(intID)
+                .name("Customer " + intID)
+                .type(intID % 2 == 0 ? "Commercial" : "Residential")
+                .address(intID + " Main St")
+                .city("City " + (intID % 7))
+                .state(intID % 3 == 0 ? "IL" : "CA")
+                .zipcode(String.format("%05d", intID % 100000));
+        if (withContactData) {
+            builder.phoneNumber("555-" + intID).contactName("Contact " + intID).emailAddress("c" + intID + "@example.com");
+        }
+        return builder.build();
+    }
+
+    /**
+     * Writes customers to a customers XML file.
+     *
+     * @param filePath The file to write.
+     * @param customers The customers to write, in order.
+     * @throws Exception If the file cannot be written.
+     */
+    public static void writeCustomers(Path filePath, List<CustomerRecord> customers) throws Exception {
+        try (CustomerStreamWriter writer = new CustomerStreamWriter(filePath.toString())) {
+            for (CustomerRecord customer : customers) {
+                writer.write(customer);
+            }
+            writer.finish();
+        }
+    }
+
+    /**
+     * Reads every customer of a customers XML file.
+     *
+     * @param filePath The file to read.
+     * @return The customers, in document order.
+     * @throws Exception If the file cannot be read.
+     */
+    public static List<CustomerRecord> readCustomers(Path filePath) throws Exception {
+        List<CustomerRecord> customers = new ArrayList<>();
+        try (CustomerStreamReader reader = new CustomerStreamReader(filePath.toString())) {
+            CustomerRecord customer;
+            while ((customer = reader.nextRecord()) != null) {
+                customers.add(customer);
+            }
+        }
+        return customers;
+    }
+}